@@ -3,13 +3,18 @@ package com.example.tictactoe;
 import com.example.tictactoe.config.TicTacToeConfig;
 import com.example.tictactoe.gui.TicTacToeGUI;
 import com.example.tictactoe.model.Game;
+import com.example.tictactoe.net.HeartbeatMonitor;
 import com.example.tictactoe.net.TicTacToeClient;
+import com.example.tictactoe.net.TicTacToeGameHost;
+import com.example.tictactoe.net.TicTacToeNioServer;
 import com.example.tictactoe.net.TicTacToeServer;
+import com.example.tictactoe.service.GameStateHttpServer;
 import com.example.tictactoe.service.TicTacToeHTMLTranslator;
 
 import javax.swing.*;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.UnknownHostException;
 
 public class MainApp {
@@ -62,10 +67,32 @@ public class MainApp {
             }
         }
 
-        Game game = game();
+        Game game = game(config);
         if (isServer) {
+            HeartbeatMonitor.shared().configure(config.getHeartbeatMillis(), config.getHeartbeatTimeoutMillis());
+        }
+        if (isServer && config.getServerMode().equals("nio")) {
+            nioServer(port, game).start();  // Hosts any number of games until the process is stopped
+        } else if (isServer && config.getServerMode().equals("virtual")) {
+            TicTacToeGameHost host = gameHost(port, game);
+            host.start();  // One virtual thread per connection and game loop
+            if (config.getSpectatorPort() > 0) {
+                host.openSpectatorPort(config.getSpectatorPort());
+            }
+            if (config.getMultiplexPort() > 0) {
+                host.openMultiplexPort(config.getMultiplexPort());
+            }
+            if (config.getHttpPort() > 0) {
+                host.openHttpPort(config.getHttpPort());
+            }
+        } else if (isServer) {
             TicTacToeHTMLTranslator htmlTranslator = htmlTranslator();
             TicTacToeServer server = server(port, game, htmlTranslator);  // Server setup
+            if (config.getHttpPort() > 0) {
+                GameStateHttpServer http = new GameStateHttpServer(config.getHttpPort(), htmlTranslator);
+                http.start();
+                server.publishTo(http.feed(1));  // The single game's live page is /games/1
+            }
         } else {
             TicTacToeGUI gui = gui(game);  // Initialize GUI
             TicTacToeClient client = client(ip, port, gui);
@@ -101,16 +128,26 @@ public class MainApp {
         return new TicTacToeHTMLTranslator();
     }
 
-    private Game game() {
-        return new Game();
+    private Game game(TicTacToeConfig config) {
+        return new Game(config.getRows(), config.getCols(), config.getWinLength());
     }
 
     private TicTacToeGUI gui(Game game) {
         return new TicTacToeGUI(game);
     }
 
+    // Through the socket constructor, which returns at once, so the HTTP page can be attached while players connect
     private TicTacToeServer server(int port, Game game, TicTacToeHTMLTranslator htmlTranslator) throws IOException {
-        return new TicTacToeServer(port, game, htmlTranslator);
+        return new TicTacToeServer(new ServerSocket(port), game, htmlTranslator);
+    }
+
+    private TicTacToeNioServer nioServer(int port, Game game) throws IOException {
+        return new TicTacToeNioServer(port, game.getRows(), game.getCols(), game.getWinLength());
+    }
+
+    private TicTacToeGameHost gameHost(int port, Game game) throws IOException {
+        return new TicTacToeGameHost(port, game.getRows(), game.getCols(), game.getWinLength(),
+                TicTacToeGameHost.virtualThreads());
     }
 
     private TicTacToeClient client(String ip, int port, TicTacToeGUI gui) {
@@ -0,0 +1,100 @@
+package com.example.tictactoe.bot;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+import com.example.tictactoe.model.PerfectPlayTable;
+import com.example.tictactoe.net.PlayerView;
+import com.example.tictactoe.net.TicTacToeClient;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Headless player for a TicTacToeClient: plays by a Strategy, always accepts the rematch and reports what it did to
+// a LoadStats, including the time from sending each move to receiving the state that answers it.
+public class BotPlayer implements PlayerView {
+
+    public enum Strategy {
+        RANDOM,
+        PERFECT  // the precomputed perfect-play table on the classic board, random moves elsewhere
+    }
+
+    private final Strategy strategy;
+    private final LoadStats stats;
+    private final SplittableRandom random;
+    private final AtomicReference<GameState> toPlay = new AtomicReference<>();  // a state where it is our turn
+    private Game game;  // only touched by the thread making the move
+    private volatile TicTacToeClient client;  // set once the client is connected, when it may already be our turn
+    private volatile char playerMark;
+    private volatile long moveSentAt;
+
+    public BotPlayer(Strategy strategy, LoadStats stats, long seed) {
+        this.strategy = strategy;
+        this.stats = stats;
+        this.random = new SplittableRandom(seed);
+    }
+
+    // The client starts reading as it connects, so a state where it is our turn may have arrived before it was
+    // set here; that state is still waiting in toPlay and is played now
+    public void prepareClient(TicTacToeClient client) {
+        this.client = client;
+        sendBestMove();
+    }
+
+    @Override
+    public void setPlayerMark(char playerMark) {
+        this.playerMark = playerMark;
+    }
+
+    @Override
+    public void updateGUI(GameState gameState) {
+        long sentAt = moveSentAt;
+        if (sentAt != 0) {
+            stats.recordMoveLatency(System.nanoTime() - sentAt);
+            moveSentAt = 0;
+        }
+        boolean ourTurn = gameState.getState() == GameState.State.ONGOING
+                && gameState.getCurrentPlayer() == playerMark;
+        toPlay.set(ourTurn ? gameState : null);
+    }
+
+    // The client asks after every ongoing state; each state where it is our turn is played at most once
+    @Override
+    public void sendBestMove() {
+        if (client == null) {
+            return;  // the state stays in toPlay for prepareClient
+        }
+        GameState state = toPlay.getAndSet(null);
+        if (state == null) {
+            return;
+        }
+        if (game == null || game.getRows() != state.getRows() || game.getCols() != state.getCols()
+                || game.getWinLength() != state.getWinLength()) {
+            game = new Game(state.getRows(), state.getCols(), state.getWinLength());
+        }
+        game.loadState(state);
+        int move = strategy == Strategy.PERFECT ? PerfectPlayTable.getInstance().bestMove(game) : -1;
+        if (move < 0) {
+            move = game.randomMove(random);
+        }
+        if (move >= 0) {
+            moveSentAt = System.nanoTime();
+            stats.recordMove();
+            client.sendMove(move);
+        }
+    }
+
+    // Every game ends with a rematch offer to both players; X counts it, so each game is counted once
+    @Override
+    public boolean acceptRematch() {
+        if (playerMark == 'X') {
+            stats.recordGame();
+        }
+        return true;
+    }
+
+    @Override
+    public void showErrorMessage(String message) {
+        stats.recordError();
+        System.err.println("Bot " + playerMark + ": " + message);
+    }
+}
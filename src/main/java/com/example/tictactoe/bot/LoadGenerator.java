@@ -0,0 +1,91 @@
+package com.example.tictactoe.bot;
+
+import com.example.tictactoe.net.TicTacToeClient;
+import com.example.tictactoe.net.TicTacToeGameHost;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Drives a server with N headless TicTacToeClients, each played by a BotPlayer, and reports games/s, moves/s and
+// the latency from a bot sending its move to receiving the state that contains it.
+// "local" as the host runs a virtual-thread TicTacToeGameHost in this process on the given port (0 picks one).
+// Every client needs a socket of its own, so large bot counts need a matching open-file limit.
+// Usage: LoadGenerator [host|local [port [bots [seconds [thinkMillis [random|perfect]]]]]]
+public class LoadGenerator {
+    private static final long WARM_UP_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "local";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int botCount = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long thinkMillis = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        BotPlayer.Strategy strategy = args.length > 5
+                ? BotPlayer.Strategy.valueOf(args[5].toUpperCase(Locale.ROOT)) : BotPlayer.Strategy.RANDOM;
+        if (botCount < 2 || botCount % 2 != 0) {
+            throw new IllegalArgumentException("Bots play in pairs, so the bot count must be even");
+        }
+
+        TicTacToeGameHost localHost = null;
+        if (host.equals("local")) {
+            localHost = new TicTacToeGameHost(port, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+            localHost.start();
+            host = "localhost";
+            port = localHost.getPort();
+        }
+
+        LoadStats stats = new LoadStats();
+        List<TicTacToeClient> clients = connect(host, port, botCount, thinkMillis, strategy, stats);
+        Thread.sleep(WARM_UP_MILLIS);
+        stats.reset();
+        long start = System.nanoTime();
+        for (int second = 1; second <= seconds; second++) {
+            Thread.sleep(1000);
+            System.out.printf("%3d s  %,10d games  %,12d moves%n", second, stats.getGames(), stats.getMoves());
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        report(stats, elapsed, botCount, thinkMillis, strategy);
+
+        // A local host goes down with the process
+        for (TicTacToeClient client : clients) {
+            client.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static List<TicTacToeClient> connect(String host, int port, int botCount, long thinkMillis,
+                                                 BotPlayer.Strategy strategy, LoadStats stats) throws IOException {
+        List<TicTacToeClient> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < botCount; i++) {
+            BotPlayer bot = new BotPlayer(strategy, stats, i);
+            TicTacToeClient client = new TicTacToeClient(host, port, bot, thinkMillis);
+            if (!client.isConnected()) {
+                throw new IOException("Bot " + i + " could not connect to " + host + ":" + port);
+            }
+            bot.prepareClient(client);
+            clients.add(client);
+        }
+        System.out.printf("%,d bots connected in %.2f s%n", botCount, (System.nanoTime() - start) / 1e9);
+        return clients;
+    }
+
+    private static void report(LoadStats stats, double elapsed, int botCount, long thinkMillis,
+                               BotPlayer.Strategy strategy) {
+        System.out.printf("%,d bots (%s, %d ms think time) over %.1f s%n",
+                botCount, strategy.name().toLowerCase(Locale.ROOT), thinkMillis, elapsed);
+        System.out.printf("%,12.1f games/s%n", stats.getGames() / elapsed);
+        System.out.printf("%,12.1f moves/s%n", stats.getMoves() / elapsed);
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            String label = percentile == 100 ? "max" : "p" + (percentile % 1 == 0
+                    ? String.valueOf((int) percentile) : String.valueOf(percentile));
+            System.out.printf("  move latency %-6s %,10.3f ms%n", label,
+                    stats.latencyPercentileMicros(percentile) / 1e3);
+        }
+        if (stats.getErrors() > 0) {
+            System.out.printf("%,d connection errors%n", stats.getErrors());
+        }
+    }
+}
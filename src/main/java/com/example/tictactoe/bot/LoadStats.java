@@ -0,0 +1,97 @@
+package com.example.tictactoe.bot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by all bots of a load test, safe to update from any number of threads without locking.
+// Latencies go into a log-linear histogram: each power of two of microseconds is split into SUB_BUCKETS equal
+// buckets, so a percentile is off by at most 1/SUB_BUCKETS of its value whatever the range.
+public class LoadStats {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAGNITUDES = 40;  // up to 2^40 microseconds, far beyond any sane latency
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+
+    void recordMove() {
+        moves.increment();
+    }
+
+    void recordGame() {
+        games.increment();
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordMoveLatency(long nanos) {
+        buckets.incrementAndGet(bucket(Math.max(0, nanos / 1000)));
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    // Starts a new measurement, e.g. after warm-up; counts made meanwhile by running bots may land on either side
+    public void reset() {
+        moves.reset();
+        games.reset();
+        errors.reset();
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+    }
+
+    // Move latency at the given percentile (0-100) in microseconds, as the upper bound of its bucket; 0 if none
+    public long latencyPercentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(buckets.length() - 1);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above, the top SUB_BITS + 1 bits pick the bucket
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS + 1;
+        if (magnitude >= MAGNITUDES) {
+            return MAGNITUDES * SUB_BUCKETS - 1;
+        }
+        return magnitude * SUB_BUCKETS + (int) ((micros >>> (magnitude - 1)) - SUB_BUCKETS);
+    }
+
+    private static long upperBound(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub;
+        }
+        return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - 1)) - 1;
+    }
+}
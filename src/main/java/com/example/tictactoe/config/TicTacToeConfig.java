@@ -35,4 +35,47 @@ public class TicTacToeConfig {
     public int getPort() {
         return Integer.parseInt(properties.getProperty("port"));
     }
+
+    public int getRows() {
+        return Integer.parseInt(properties.getProperty("rows", "3"));
+    }
+
+    public int getCols() {
+        return Integer.parseInt(properties.getProperty("cols", "3"));
+    }
+
+    public int getWinLength() {
+        return Integer.parseInt(properties.getProperty("winLength", "3"));
+    }
+
+    // Port for spectators of the "virtual" server mode; 0 (the default) accepts none
+    public int getSpectatorPort() {
+        return Integer.parseInt(properties.getProperty("spectatorPort", "0"));
+    }
+
+    // Port for multiplexed bot connections in the "virtual" server mode; 0 (the default) accepts none
+    public int getMultiplexPort() {
+        return Integer.parseInt(properties.getProperty("multiplexPort", "0"));
+    }
+
+    // Port for the live game pages at /games/<id> (see GameStateHttpServer); 0 (the default) serves none
+    public int getHttpPort() {
+        return Integer.parseInt(properties.getProperty("httpPort", "0"));
+    }
+
+    // How often servers ping players that took up heartbeats, and how long a silent one is given before it is
+    // dropped (see HeartbeatMonitor)
+    public long getHeartbeatMillis() {
+        return Long.parseLong(properties.getProperty("heartbeatMillis", "200"));
+    }
+
+    public long getHeartbeatTimeoutMillis() {
+        return Long.parseLong(properties.getProperty("heartbeatTimeoutMillis", "600"));
+    }
+
+    // "classic" for the single-game TicTacToeServer, "nio" for the multi-game TicTacToeNioServer,
+    // "virtual" for the multi-game TicTacToeGameHost on virtual threads
+    public String getServerMode() {
+        return properties.getProperty("serverMode", "classic");
+    }
 }
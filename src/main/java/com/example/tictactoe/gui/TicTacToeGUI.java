@@ -2,15 +2,26 @@ package com.example.tictactoe.gui;
 
 import com.example.tictactoe.model.Game;
 import com.example.tictactoe.model.GameState;
+import com.example.tictactoe.model.MonteCarloTreeSearch;
+import com.example.tictactoe.model.PerfectPlayTable;
+import com.example.tictactoe.model.Solver;
+import com.example.tictactoe.model.Tablebase;
+import com.example.tictactoe.net.PlayerView;
 import com.example.tictactoe.net.TicTacToeClient;
 
 import javax.swing.*;
 import java.awt.*;
 
-public class TicTacToeGUI extends JFrame {
-    private JButton[][] buttons = new JButton[3][3]; // 3x3 grid of buttons
+public class TicTacToeGUI extends JFrame implements PlayerView {
+    private static final long TREE_SEARCH_MILLIS = 1000;  // Think time for bots on boards too large to solve
+
+    private JButton[][] buttons; // rows x cols grid of buttons, sized from the game
+    private JPanel boardPanel;
     private JLabel statusLabel;
     private Game game;
+    private Solver solver;  // Perfect-play move source, only for boards small enough to solve
+    private Tablebase tablebase;  // Memory-mapped endgame tablebase, if one was generated for this board
+    private final MonteCarloTreeSearch treeSearch = new MonteCarloTreeSearch();
     private TicTacToeClient client;  // Client injected via prepareClient
     private boolean isMyTurn;
     private char playerMark;
@@ -18,10 +29,12 @@ public class TicTacToeGUI extends JFrame {
     public TicTacToeGUI(Game game) {
         this.game = game;  // The game state should come from the server
         this.isMyTurn = false;  // This will be managed by the server
+        this.solver = solver(game);
+        this.tablebase = Tablebase.find(game);
 
         setTitle("Tic Tac Toe");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(400, 400);
+        setSize(boardPixels(game.getCols()), boardPixels(game.getRows()));
         setLayout(new BorderLayout());
 
         // Initialize the status panel
@@ -31,8 +44,7 @@ public class TicTacToeGUI extends JFrame {
         add(statusPanel, BorderLayout.NORTH);
 
         // Initialize the game board
-        JPanel boardPanel = new JPanel();
-        boardPanel.setLayout(new GridLayout(3, 3));
+        boardPanel = new JPanel();
         initializeBoard(boardPanel);  // We initialize the buttons, but not the board state
         add(boardPanel, BorderLayout.CENTER);
 
@@ -44,15 +56,22 @@ public class TicTacToeGUI extends JFrame {
         this.client = client;
     }
 
+    @Override
     public void setPlayerMark(char playerMark) {
         this.playerMark = playerMark;
     }
 
     private void initializeBoard(JPanel boardPanel) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int fontSize = Math.max(12, 180 / Math.max(rows, cols));  // 60 on the classic 3x3 board
+        buttons = new JButton[rows][cols];
+        boardPanel.removeAll();
+        boardPanel.setLayout(new GridLayout(rows, cols));
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
                 buttons[row][col] = new JButton("");
-                buttons[row][col].setFont(new Font("Arial", Font.PLAIN, 60));
+                buttons[row][col].setFont(new Font("Arial", Font.PLAIN, fontSize));
                 buttons[row][col].setFocusPainted(false);
                 buttons[row][col].setEnabled(false);  // Initially disabled
 
@@ -62,7 +81,7 @@ public class TicTacToeGUI extends JFrame {
                 // Add action listener for button clicks
                 buttons[row][col].addActionListener(e -> {
                     if (isMyTurn && buttons[finalRow][finalCol].getText().equals("")) {
-                        handleMove(finalRow, finalCol);
+                        handleMove(finalRow * game.getCols() + finalCol);
                     }
                 });
 
@@ -71,23 +90,44 @@ public class TicTacToeGUI extends JFrame {
         }
     }
 
+    // Play the best move we can find: precomputed table on the classic board, a generated tablebase or the
+    // solver on other small boards, and a time-boxed Monte Carlo Tree Search on boards too large to solve
+    @Override
+    public void sendBestMove() {
+        if (!isMyTurn) {
+            return;
+        }
+        int move = PerfectPlayTable.getInstance().bestMove(game);
+        if (move < 0 && tablebase != null) {
+            move = tablebase.bestMove(game);
+        }
+        if (move < 0 && solver != null) {
+            move = solver.bestMove(game);
+        } else if (move < 0) {
+            move = treeSearch.bestMoveWithinTime(game, TREE_SEARCH_MILLIS);
+        }
+        if (move >= 0) {
+            handleMove(move);
+        }
+    }
+
     public void sendRandomMove() {
-        int[] move = game.getRandomMove();
-        if (move != null) {
-            handleMove(move[0], move[1]);
+        int move = game.randomMove();
+        if (move >= 0) {
+            handleMove(move);
         }
     }
 
-    // Handle the player's move when a button is clicked
-    private void handleMove(int row, int col) {
-        sendMoveToServer(row, col);
+    // Handle the player's move (encoded as row * cols + col) when a button is clicked or a bot moves
+    private void handleMove(int move) {
+        sendMoveToServer(move);
         setTurn(false);  // Disable buttons until it's the player's turn again
         checkGameStatus();
     }
 
-    private void sendMoveToServer(int row, int col) {
+    private void sendMoveToServer(int move) {
         if (client != null) {
-            client.sendMove(row, col);  // Send the move to the server via client
+            client.sendMove(move);  // Send the move to the server via client
         }
         // No need to toggle turn locally. The server will control turn logic and send updates.
     }
@@ -105,11 +145,22 @@ public class TicTacToeGUI extends JFrame {
         }
     }
 
+    @Override
+    public boolean acceptRematch() {
+        return JOptionPane.showConfirmDialog(this, "Rematch?") == JOptionPane.YES_OPTION;
+    }
+
+    @Override
     public void showErrorMessage(String message) {
         JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    @Override
     public void updateGUI(GameState gameState) {
+        if (gameState.getRows() != game.getRows() || gameState.getCols() != game.getCols()
+                || gameState.getWinLength() != game.getWinLength()) {
+            resizeBoard(gameState.getRows(), gameState.getCols(), gameState.getWinLength());
+        }
         game.loadState(gameState);
         setTurn(game.getCurrentPlayer() == playerMark);
         updateBoard(game.getBoard());
@@ -117,16 +168,37 @@ public class TicTacToeGUI extends JFrame {
             setButtonsEnabled(false);
             updateStatus("Waiting for server to start the game...");
             if (isMyTurn) {
-                JOptionPane.showMessageDialog(
+                // Shown later on the event thread, as a modal dialog would hold up the client's connection thread
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(
                         this,
                         "You have been disconnected for inactivity. Please, reconnect",
                         "Disconnect",
-                        JOptionPane.ERROR_MESSAGE);
+                        JOptionPane.ERROR_MESSAGE));
             }
         }
         checkGameStatus();
     }
 
+    // The server decides the board size; rebuild the grid when it differs from the local game
+    private void resizeBoard(int rows, int cols, int winLength) {
+        game = new Game(rows, cols, winLength);
+        solver = solver(game);
+        tablebase = Tablebase.find(game);
+        initializeBoard(boardPanel);
+        setSize(boardPixels(cols), boardPixels(rows));
+    }
+
+    private static Solver solver(Game game) {
+        if (!Solver.supports(game.getRows(), game.getCols())) {
+            return null;
+        }
+        return new Solver(game.getRows(), game.getCols(), game.getWinLength());
+    }
+
+    private static int boardPixels(int cells) {
+        return Math.max(400, cells * 40);
+    }
+
     private void checkIfGameSuspended() {
 
     }
@@ -138,8 +210,8 @@ public class TicTacToeGUI extends JFrame {
     }
 
     private void setButtonsEnabled(boolean enabled) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        for (int row = 0; row < buttons.length; row++) {
+            for (int col = 0; col < buttons[row].length; col++) {
                 if (buttons[row][col].getText().equals("")) {
                     buttons[row][col].setEnabled(enabled);
                 }
@@ -154,8 +226,8 @@ public class TicTacToeGUI extends JFrame {
 
     // Method to update the board based on the game state received from the server
     private void updateBoard(char[][] boardState) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        for (int row = 0; row < boardState.length; row++) {
+            for (int col = 0; col < boardState[row].length; col++) {
                 char mark = boardState[row][col];
                 if (mark == '-') {
                     buttons[row][col].setText("");  // Empty if it's a blank spot
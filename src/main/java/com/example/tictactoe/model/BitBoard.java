@@ -0,0 +1,115 @@
+package com.example.tictactoe.model;
+
+// 3x3 board stored as two 9-bit occupancy masks, one per player (bit index = row * 3 + col)
+final class BitBoard implements Board {
+    static final int SIZE = 3;
+    static final int FULL = 0x1FF;
+
+    // The 8 winning lines: 3 rows, 3 columns and 2 diagonals
+    static final int[] WIN_LINES = {
+            0x007, 0x038, 0x1C0,  // rows
+            0x049, 0x092, 0x124,  // columns
+            0x111, 0x054          // diagonals
+    };
+
+    private int xMarks;
+    private int oMarks;
+
+    static int bit(int row, int col) {
+        return 1 << (row * SIZE + col);
+    }
+
+    static boolean hasLine(int marks) {
+        for (int line : WIN_LINES) {
+            if ((marks & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int rows() {
+        return SIZE;
+    }
+
+    @Override
+    public int cols() {
+        return SIZE;
+    }
+
+    @Override
+    public int winLength() {
+        return SIZE;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        int bit = bit(row, col);
+        if ((xMarks & bit) != 0) {
+            return Game.Player.X.symbol;
+        }
+        if ((oMarks & bit) != 0) {
+            return Game.Player.O.symbol;
+        }
+        return '-';
+    }
+
+    @Override
+    public boolean isEmpty(int cell) {
+        return ((xMarks | oMarks) & 1 << cell) == 0;
+    }
+
+    @Override
+    public boolean place(int row, int col, Game.Player player) {
+        int bit = bit(row, col);
+        if (((xMarks | oMarks) & bit) != 0) {
+            return false;
+        }
+        if (player == Game.Player.X) {
+            xMarks |= bit;
+        } else {
+            oMarks |= bit;
+        }
+        return true;
+    }
+
+    @Override
+    public void remove(int row, int col) {
+        int bit = bit(row, col);
+        xMarks &= ~bit;
+        oMarks &= ~bit;
+    }
+
+    @Override
+    public void clear() {
+        xMarks = 0;
+        oMarks = 0;
+    }
+
+    @Override
+    public void copyFrom(Board other) {
+        BitBoard source = (BitBoard) other;
+        xMarks = source.xMarks;
+        oMarks = source.oMarks;
+    }
+
+    int marks(Game.Player player) {
+        return player == Game.Player.X ? xMarks : oMarks;
+    }
+
+    @Override
+    public boolean hasLine(Game.Player player) {
+        return hasLine(marks(player));
+    }
+
+    @Override
+    public boolean isFull() {
+        return (xMarks | oMarks) == FULL;
+    }
+
+    @Override
+    public int filled() {
+        return Integer.bitCount(xMarks | oMarks);
+    }
+}
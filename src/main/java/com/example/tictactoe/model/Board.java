@@ -0,0 +1,34 @@
+package com.example.tictactoe.model;
+
+// Board storage behind Game; implementations decide how marks are kept and how lines are detected
+interface Board {
+
+    int rows();
+
+    int cols();
+
+    int winLength();
+
+    char get(int row, int col);
+
+    // Whether the cell, encoded as row * cols + col, is empty; move generation asks this rather than get
+    boolean isEmpty(int cell);
+
+    // Places the player's mark on an empty cell; returns false if the cell is taken
+    boolean place(int row, int col, Game.Player player);
+
+    // Empties an occupied cell, undoing any line it completed
+    void remove(int row, int col);
+
+    boolean hasLine(Game.Player player);
+
+    boolean isFull();
+
+    // Number of occupied cells
+    int filled();
+
+    void clear();
+
+    // Overwrites this board with the contents of another board of the same type and size
+    void copyFrom(Board other);
+}
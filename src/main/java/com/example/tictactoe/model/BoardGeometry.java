@@ -0,0 +1,198 @@
+package com.example.tictactoe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Precomputed line and symmetry tables for an m,n,k board of at most 32 cells, using one bit per cell
+// (bit index = row * cols + col). Shared by the search and table code that works on occupancy masks.
+final class BoardGeometry {
+    static final int MAX_CELLS = 32;
+    private static final int CHUNKS = MAX_CELLS / 8;
+
+    final int rows;
+    final int cols;
+    final int winLength;
+    final int cells;
+    final long fullMask;
+    final long[] lines;
+    final long[][] linesThrough;
+    // perm[s][cell] is the image of cell under symmetry s; inverse[s] undoes it
+    final int[][] perm;
+    final int[][] inverse;
+    // transformTables[s][chunk][byte] maps 8 cells at a time, so a symmetry costs CHUNKS lookups
+    private final long[][][] transformTables;
+
+    BoardGeometry(int rows, int cols, int winLength) {
+        if (rows * cols > MAX_CELLS) {
+            throw new IllegalArgumentException("Board " + rows + "x" + cols + " exceeds " + MAX_CELLS + " cells");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.cells = rows * cols;
+        this.fullMask = (1L << cells) - 1;
+        this.lines = buildLines();
+        this.linesThrough = buildLinesThrough();
+        this.perm = buildSymmetries();
+        this.inverse = new int[perm.length][cells];
+        for (int s = 0; s < perm.length; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                inverse[s][perm[s][cell]] = cell;
+            }
+        }
+        this.transformTables = buildTransformTables();
+    }
+
+    static BoardGeometry of(Game game) {
+        return new BoardGeometry(game.getRows(), game.getCols(), game.getWinLength());
+    }
+
+    boolean matches(Game game) {
+        return game.getRows() == rows && game.getCols() == cols && game.getWinLength() == winLength;
+    }
+
+    // Occupancy mask of the given player's marks on the game board
+    long marks(Game game, char symbol) {
+        long marks = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (game.getMark(cell / cols, cell % cols) == symbol) {
+                marks |= 1L << cell;
+            }
+        }
+        return marks;
+    }
+
+    boolean hasLine(long marks) {
+        for (long line : lines) {
+            if ((marks & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Only the lines through the cell just played can have been completed by it
+    boolean completesLine(long marks, int cell) {
+        for (long line : linesThrough[cell]) {
+            if ((marks & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int symmetryCount() {
+        return perm.length;
+    }
+
+    long transform(long marks, int symmetry) {
+        long[][] tables = transformTables[symmetry];
+        long result = 0;
+        for (int chunk = 0; chunk < CHUNKS && marks != 0; chunk++) {
+            result |= tables[chunk][(int) (marks & 0xFF)];
+            marks >>>= 8;
+        }
+        return result;
+    }
+
+    static long key(long mine, long theirs) {
+        return (mine << MAX_CELLS) | theirs;
+    }
+
+    // Index of the symmetry that maps the position to its canonical (smallest key) orientation
+    int canonicalSymmetry(long mine, long theirs) {
+        int best = 0;
+        long bestKey = key(mine, theirs);
+        for (int s = 1; s < perm.length; s++) {
+            long candidate = key(transform(mine, s), transform(theirs, s));
+            if (candidate < bestKey) {
+                bestKey = candidate;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    private long[] buildLines() {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        List<Long> found = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int[] direction : directions) {
+                    int endRow = row + direction[0] * (winLength - 1);
+                    int endCol = col + direction[1] * (winLength - 1);
+                    if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                        continue;
+                    }
+                    long line = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        line |= 1L << ((row + direction[0] * i) * cols + col + direction[1] * i);
+                    }
+                    found.add(line);
+                }
+            }
+        }
+        return found.stream().mapToLong(Long::longValue).distinct().toArray();
+    }
+
+    private long[][] buildLinesThrough() {
+        long[][] result = new long[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            long bit = 1L << cell;
+            List<Long> through = new ArrayList<>();
+            for (long line : lines) {
+                if ((line & bit) != 0) {
+                    through.add(line);
+                }
+            }
+            result[cell] = through.stream().mapToLong(Long::longValue).toArray();
+        }
+        return result;
+    }
+
+    // The 8 symmetries of a square board, or the 4 that keep a rectangular board's shape
+    private int[][] buildSymmetries() {
+        int count = rows == cols ? 8 : 4;
+        int[][] result = new int[count][cells];
+        for (int s = 0; s < count; s++) {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int r = row;
+                    int c = col;
+                    if ((s & 1) != 0) {
+                        c = cols - 1 - c;  // mirror horizontally
+                    }
+                    if ((s & 2) != 0) {
+                        r = rows - 1 - r;  // mirror vertically
+                    }
+                    if ((s & 4) != 0) {
+                        int t = r;  // transpose (square boards only)
+                        r = c;
+                        c = t;
+                    }
+                    result[s][row * cols + col] = r * cols + c;
+                }
+            }
+        }
+        return result;
+    }
+
+    private long[][][] buildTransformTables() {
+        long[][][] tables = new long[perm.length][CHUNKS][256];
+        for (int s = 0; s < perm.length; s++) {
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                for (int value = 1; value < 256; value++) {
+                    long image = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        int cell = chunk * 8 + bit;
+                        if ((value & (1 << bit)) != 0 && cell < cells) {
+                            image |= 1L << perm[s][cell];
+                        }
+                    }
+                    tables[s][chunk][value] = image;
+                }
+            }
+        }
+        return tables;
+    }
+}
@@ -1,42 +1,104 @@
 package com.example.tictactoe.model;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Game {
-    private char[][] board;
+    private final Board board;
+    private final long[] zobristKeys;
+    private final int[] history;  // cells of the moves placed since the last reset, for undo
+    private int moveCount;
+    private long hash;
     private Player currentPlayer;
     private boolean isSuspended;
 
     public Game() {
-        board = new char[3][3];
+        this(BitBoard.SIZE, BitBoard.SIZE, BitBoard.SIZE);
+    }
+
+    // m,n,k game: a rows x cols board where winLength marks in a row win
+    public Game(int rows, int cols, int winLength) {
+        checkBoard(rows, cols, winLength);
+        board = isClassic(rows, cols, winLength) ? new BitBoard() : new GridBoard(rows, cols, winLength);
+        zobristKeys = Zobrist.keys(rows * cols);
+        history = new int[rows * cols];
         currentPlayer = Player.X; // X always starts
         initializeBoard();
     }
 
-    public void initializeBoard() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = '-';
-            }
+    // Rejects board sizes no game can be played on
+    static void checkBoard(int rows, int cols, int winLength) {
+        if (rows < 1 || cols < 1 || winLength < 1 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException(
+                    "Invalid board " + rows + "x" + cols + " with win length " + winLength);
         }
     }
 
+    static boolean isClassic(int rows, int cols, int winLength) {
+        return rows == BitBoard.SIZE && cols == BitBoard.SIZE && winLength == BitBoard.SIZE;
+    }
+
+    public void initializeBoard() {
+        board.clear();
+        moveCount = 0;
+        hash = currentPlayer == Player.O ? Zobrist.SIDE_TO_MOVE : 0;
+    }
+
+    public int getRows() {
+        return board.rows();
+    }
+
+    public int getCols() {
+        return board.cols();
+    }
+
+    public int getWinLength() {
+        return board.winLength();
+    }
+
+    public char getMark(int row, int col) {
+        return board.get(row, col);
+    }
+
     public char getCurrentPlayer() {
         return currentPlayer.symbol;
     }
 
     public boolean placeMark(int row, int col) {
-        if (board[row][col] == '-') {
-            board[row][col] = currentPlayer.symbol;
-            return true;
+        if (row < 0 || row >= board.rows() || col < 0 || col >= board.cols()) {
+            return false;
+        }
+        if (!board.place(row, col, currentPlayer)) {
+            return false;
         }
-        return false;
+        int cell = row * board.cols() + col;
+        hash ^= zobristKeys[cell * 2 + currentPlayer.ordinal()];
+        history[moveCount++] = cell;
+        return true;
+    }
+
+    // Takes back the last mark placed with placeMark; the current player is left unchanged
+    public boolean undoMark() {
+        if (moveCount == 0) {
+            return false;
+        }
+        int cell = history[--moveCount];
+        int row = cell / board.cols();
+        int col = cell % board.cols();
+        Player owner = board.get(row, col) == Player.X.symbol ? Player.X : Player.O;
+        board.remove(row, col);
+        hash ^= zobristKeys[cell * 2 + owner.ordinal()];
+        return true;
     }
 
     public void changePlayer() {
         currentPlayer = (currentPlayer.equals(Player.X)) ? Player.O : Player.X;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+    }
+
+    // 64-bit Zobrist hash of the marks and the side to move, updated incrementally on every change
+    public long getHash() {
+        return hash;
     }
 
     public boolean isSuspended() {
@@ -44,7 +106,7 @@ public class Game {
     }
 
     public boolean checkForWin() {
-        return (checkRows(currentPlayer) || checkColumns(currentPlayer) || checkDiagonals(currentPlayer));
+        return board.hasLine(currentPlayer);
     }
 
     public boolean checkForLose() {
@@ -52,80 +114,125 @@ public class Game {
         if (currentPlayer.equals(Player.X)) {
             opponentPlayer = Player.O;
         }
-        return (checkRows(opponentPlayer) || checkColumns(opponentPlayer) || checkDiagonals(opponentPlayer));
+        return board.hasLine(opponentPlayer);
     }
 
     public boolean isBoardFull() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board[row][col] == '-') {
-                    return false;
-                }
+        return board.isFull();
+    }
+
+    // Compatibility view of the board; the returned array is a snapshot
+    public char[][] getBoard() {
+        char[][] view = new char[board.rows()][board.cols()];
+        for (int row = 0; row < board.rows(); row++) {
+            for (int col = 0; col < board.cols(); col++) {
+                view[row][col] = board.get(row, col);
             }
         }
-        return true;
+        return view;
+    }
+
+    // Random move as {row, col}, or null if the board is full; prefer randomMove() on hot paths
+    public int[] getRandomMove() {
+        int move = randomMove();
+        if (move < 0) return null; // No available moves
+        return new int[]{move / board.cols(), move % board.cols()};
+    }
+
+    // Moves are encoded as a cell index: row * cols + col
+    public boolean placeMark(int move) {
+        if (move < 0 || move >= history.length) {
+            return false;
+        }
+        return placeMark(move / board.cols(), move % board.cols());
     }
 
-    private boolean checkRows(Player player) {
-        for (int row = 0; row < 3; row++) {
-            if (board[row][0] == player.symbol
-                    && board[row][1] == player.symbol
-                    && board[row][2] == player.symbol) {
-                return true;
+    // Writes the empty cells as encoded moves into the given buffer (at least rows * cols long); returns the count
+    public int getMoves(int[] moves) {
+        int count = 0;
+        for (int cell = 0; cell < history.length; cell++) {
+            if (board.isEmpty(cell)) {
+                moves[count++] = cell;
             }
         }
-        return false;
+        return count;
     }
 
-    private boolean checkColumns(Player player) {
-        for (int col = 0; col < 3; col++) {
-            if (board[0][col] == player.symbol
-                    && board[1][col] == player.symbol
-                    && board[2][col] == player.symbol) {
-                return true;
+    // Empty cells as a bitmask (bit = encoded move), for boards of at most 64 cells
+    public long getEmptyCells() {
+        if (history.length > Long.SIZE) {
+            throw new IllegalStateException("Empty-cell mask needs a board of at most 64 cells");
+        }
+        long empty = 0;
+        for (int cell = 0; cell < history.length; cell++) {
+            if (board.isEmpty(cell)) {
+                empty |= 1L << cell;
             }
         }
-        return false;
+        return empty;
     }
 
-    private boolean checkDiagonals(Player player) {
-        return ((board[0][0] == player.symbol
-                && board[1][1] == player.symbol
-                && board[2][2] == player.symbol)
-                || (board[0][2] == player.symbol
-                        && board[1][1] == player.symbol
-                        && board[2][0] == player.symbol));
+    // Uniformly random empty cell as an encoded move, or -1 if the board is full
+    public int randomMove() {
+        int empty = history.length - board.filled();
+        return empty == 0 ? -1 : emptyCellAt(ThreadLocalRandom.current().nextInt(empty));
     }
 
-    public char[][] getBoard() {
-        return board;
+    // Same as randomMove() but reproducible from the given generator's seed
+    public int randomMove(SplittableRandom random) {
+        int empty = history.length - board.filled();
+        return empty == 0 ? -1 : emptyCellAt(random.nextInt(empty));
     }
 
-    public int[] getRandomMove() {
-        List<int[]> availableMoves = new ArrayList<>();
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board[row][col] == '-') {
-                    availableMoves.add(new int[]{row, col});
-                }
+    private int emptyCellAt(int index) {
+        for (int cell = 0; cell < history.length; cell++) {
+            if (board.isEmpty(cell) && index-- == 0) {
+                return cell;
             }
         }
-        if (availableMoves.isEmpty()) return null; // No available moves
-        Random random = new Random();
-        return availableMoves.get(random.nextInt(availableMoves.size()));
+        return -1;
+    }
+
+    // Copies another game of the same size into this one without allocating
+    void copyFrom(Game other) {
+        board.copyFrom(other.board);
+        System.arraycopy(other.history, 0, history, 0, other.moveCount);
+        moveCount = other.moveCount;
+        hash = other.hash;
+        currentPlayer = other.currentPlayer;
+        isSuspended = other.isSuspended;
     }
 
     public void loadState(GameState gameState) {
-        char[][] loadedBoard = gameState.getBoard();
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = loadedBoard[row][col];
+        if (gameState.getRows() != board.rows() || gameState.getCols() != board.cols()) {
+            throw new IllegalArgumentException("Game state board does not match a "
+                    + board.rows() + "x" + board.cols() + " game");
+        }
+        board.clear();
+        for (int row = 0; row < board.rows(); row++) {
+            for (int col = 0; col < board.cols(); col++) {
+                char mark = gameState.getMark(row, col);
+                if (mark == Player.X.symbol) {
+                    board.place(row, col, Player.X);
+                } else if (mark == Player.O.symbol) {
+                    board.place(row, col, Player.O);
+                }
             }
         }
 
         // Set the current player from the GameState object
         currentPlayer = Player.valueOf(String.valueOf(gameState.getCurrentPlayer()));
         isSuspended = gameState.isSuspended();
+
+        // Loaded marks cannot be undone; rebuild the hash from scratch
+        moveCount = 0;
+        hash = currentPlayer == Player.O ? Zobrist.SIDE_TO_MOVE : 0;
+        for (int cell = 0; cell < history.length; cell++) {
+            char mark = board.get(cell / board.cols(), cell % board.cols());
+            if (mark != '-') {
+                hash ^= zobristKeys[cell * 2 + (mark == Player.X.symbol ? Player.X : Player.O).ordinal()];
+            }
+        }
     }
 
     enum Player {
@@ -1,34 +1,101 @@
 package com.example.tictactoe.model;
 
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Immutable snapshot of a game: board, player to move and result.
+// Classic 3x3 states are interned by GameState.of, so each distinct state is built once and its wire
+// string and hash code are computed once and shared by every broadcast.
+public final class GameState {
+    private static final int CLASSIC_CELLS = 9;
+    private static final int CLASSIC_BOARDS = 19683;  // 3^9
+    private static final int PLAYERS = 2;
 
-// GameState class to encapsulate the parsed game state
-public class GameState {
-    private Game game;
     private final char[][] board;
     private final char currentPlayer;
-    private State state;
+    private final int winLength;
+    private final State state;
+    private final boolean boardFull;
+    private final int hashCode;
+    private final boolean interned;
+    private String compressed;  // lazily built; racing threads build equal strings
 
     public GameState(Game game, boolean isWaiting) {
-        this.game = game;
-        this.board = game.getBoard();
-        this.currentPlayer = game.getCurrentPlayer();
-        this.state = defineState(isWaiting);
+        this(game.getBoard(), game.getCurrentPlayer(), game.getWinLength(), defineState(game, isWaiting), false);
     }
 
     public GameState(char[][] board, char currentPlayer, State state) {
+        this(board, currentPlayer, defaultWinLength(board.length, board[0].length), state);
+    }
+
+    public GameState(char[][] board, char currentPlayer, int winLength, State state) {
+        this(copyOf(board), currentPlayer, winLength, state, false);
+    }
+
+    private GameState(char[][] board, char currentPlayer, int winLength, State state, boolean interned) {
         this.board = board;
         this.currentPlayer = currentPlayer;
+        this.winLength = winLength;
         this.state = state;
+        this.boardFull = countEmpty(board) == 0;
+        this.hashCode = 31 * (31 * (31 * Arrays.deepHashCode(board) + currentPlayer) + winLength) + state.hashCode();
+        this.interned = interned;
+    }
+
+    // Shared snapshot of the game; allocation-free for classic states that have been seen before
+    public static GameState of(Game game, boolean isWaiting) {
+        State state = defineState(game, isWaiting);
+        int key = internKey(game, game.getCurrentPlayer(), state);
+        if (key < 0) {
+            return new GameState(game, isWaiting);
+        }
+        GameState cached = Interned.TABLE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return intern(key, game.getBoard(), game.getCurrentPlayer(), state);
     }
 
-    public void setGame(Game game) {
-        this.game = game;
-        this.state = defineState(true);
+    // Shared snapshot of a decoded board (e.g. from the wire); the array is not retained
+    public static GameState of(char[][] board, char currentPlayer, int winLength, State state) {
+        int key = internKey(board, currentPlayer, winLength, state);
+        if (key < 0) {
+            return new GameState(board, currentPlayer, winLength, state);
+        }
+        GameState cached = Interned.TABLE.get(key);
+        return cached != null ? cached : intern(key, copyOf(board), currentPlayer, state);
+    }
+
+    private static GameState intern(int key, char[][] board, char currentPlayer, State state) {
+        GameState created = new GameState(board, currentPlayer, BitBoard.SIZE, state, true);
+        return Interned.TABLE.compareAndSet(key, null, created) ? created : Interned.TABLE.get(key);
+    }
+
+    // Win length assumed when a state does not carry one explicitly (3 for the classic board)
+    static int defaultWinLength(int rows, int cols) {
+        return Math.min(rows, cols);
     }
 
+    // Copy of the board; use getMark to read single cells without allocating
     public char[][] getBoard() {
-        return board;
+        return copyOf(board);
+    }
+
+    public char getMark(int row, int col) {
+        return board[row][col];
+    }
+
+    public int getRows() {
+        return board.length;
+    }
+
+    public int getCols() {
+        return board[0].length;
+    }
+
+    public int getWinLength() {
+        return winLength;
     }
 
     public char getCurrentPlayer() {
@@ -39,7 +106,12 @@ public class GameState {
         return state;
     }
 
-    private State defineState(boolean isSuspended) {
+    // True for states shared through the intern table
+    public boolean isInterned() {
+        return interned;
+    }
+
+    private static State defineState(Game game, boolean isSuspended) {
         if (isSuspended) {
             return State.WAITING;
         } else if (game.checkForWin()) {
@@ -53,37 +125,51 @@ public class GameState {
         }
     }
 
-    public void suspendState(boolean suspend) {
-        state = defineState(suspend);
-    }
-
     public boolean isSuspended() {
-        if (state.equals(State.WAITING)) {
-            return true;
-        }
-        return false;
+        return state.equals(State.WAITING);
     }
 
     public boolean isBoardFull() {
-        return game.isBoardFull();
+        return boardFull;
+    }
+
+    // Marks placed so far, which is also the number of moves played in this game
+    public int getMarkCount() {
+        return getRows() * getCols() - countEmpty(board);
     }
 
     public boolean checkForWin() {
-        return game.checkForWin();
+        return state.equals(State.WIN);
     }
 
     public String compress() {
+        String result = compressed;
+        if (result == null) {
+            result = buildCompressed();
+            compressed = result;
+        }
+        return result;
+    }
+
+    private String buildCompressed() {
         StringBuilder gameState = new StringBuilder();
 
         // Append the board state
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        int rows = getRows();
+        int cols = getCols();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
                 gameState.append(board[row][col]);
-                if (col < 2) gameState.append(",");  // Separate columns with commas
+                if (col < cols - 1) gameState.append(",");  // Separate columns with commas
             }
             gameState.append(";");  // Separate rows with semicolons
         }
 
+        // Append the win length only when it cannot be derived from the board size
+        if (winLength != defaultWinLength(rows, cols)) {
+            gameState.append("winLength=").append(winLength).append(";");
+        }
+
         // Append the current player
         gameState.append("currentPlayer=").append(currentPlayer).append(";");
 
@@ -95,21 +181,30 @@ public class GameState {
 
     public static GameState expand(String gameStateStr) {
         String[] parts = gameStateStr.split(";");  // Split by semicolons to get rows and game metadata
-        char[][] board = new char[3][3];
+        int rows = 0;
+        while (rows < parts.length && !parts[rows].contains("=")) {
+            rows++;  // Board rows come before the key=value metadata
+        }
+        char[][] board = new char[rows][];
         char currentPlayer = '-';
+        int winLength = -1;
         State state = State.ONGOING;
 
         // Parse board state
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < rows; i++) {
             String[] row = parts[i].split(",");  // Split each row by commas
-            for (int j = 0; j < 3; j++) {
+            board[i] = new char[row.length];
+            for (int j = 0; j < row.length; j++) {
                 board[i][j] = row[j].charAt(0);  // Get the character for each board position
             }
         }
 
-        // Parse the current player and result
-        for (int i = 3; i < parts.length; i++) {  // Iterate over remaining parts for current player and result
+        // Parse the current player, win length and result
+        for (int i = rows; i < parts.length; i++) {  // Iterate over remaining parts for metadata
             String part = parts[i];
+            if (part.startsWith("winLength=")) {
+                winLength = Integer.parseInt(part.split("=")[1]);  // Extract win length
+            }
             if (part.startsWith("currentPlayer=")) {
                 currentPlayer = part.split("=")[1].charAt(0);  // Extract current player
             }
@@ -118,7 +213,108 @@ public class GameState {
             }
         }
 
-        return new GameState(board, currentPlayer, state);
+        if (winLength < 0) {
+            winLength = defaultWinLength(rows, board[0].length);
+        }
+        return of(board, currentPlayer, winLength, state);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof GameState)) {
+            return false;
+        }
+        GameState that = (GameState) other;
+        return hashCode == that.hashCode
+                && currentPlayer == that.currentPlayer
+                && winLength == that.winLength
+                && state == that.state
+                && Arrays.deepEquals(board, that.board);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return compress();
+    }
+
+    // Intern slot for a classic state: base-3 board index, then player and state; -1 if not internable
+    private static int internKey(Game game, char currentPlayer, State state) {
+        if (!Game.isClassic(game.getRows(), game.getCols(), game.getWinLength())) {
+            return -1;
+        }
+        int index = 0;
+        for (int cell = CLASSIC_CELLS - 1; cell >= 0; cell--) {
+            int digit = digit(game.getMark(cell / 3, cell % 3));
+            if (digit < 0) {
+                return -1;
+            }
+            index = index * 3 + digit;
+        }
+        return slot(index, currentPlayer, state);
+    }
+
+    private static int internKey(char[][] board, char currentPlayer, int winLength, State state) {
+        if (!Game.isClassic(board.length, board[0].length, winLength)) {
+            return -1;
+        }
+        int index = 0;
+        for (int cell = CLASSIC_CELLS - 1; cell >= 0; cell--) {
+            if (board[cell / 3].length != 3) {
+                return -1;
+            }
+            int digit = digit(board[cell / 3][cell % 3]);
+            if (digit < 0) {
+                return -1;
+            }
+            index = index * 3 + digit;
+        }
+        return slot(index, currentPlayer, state);
+    }
+
+    private static int slot(int boardIndex, char currentPlayer, State state) {
+        int player = currentPlayer == 'X' ? 0 : currentPlayer == 'O' ? 1 : -1;
+        if (player < 0) {
+            return -1;
+        }
+        return (boardIndex * PLAYERS + player) * State.values().length + state.ordinal();
+    }
+
+    private static int digit(char mark) {
+        return mark == '-' ? 0 : mark == 'X' ? 1 : mark == 'O' ? 2 : -1;
+    }
+
+    private static int countEmpty(char[][] board) {
+        int empty = 0;
+        for (char[] row : board) {
+            for (char mark : row) {
+                if (mark == '-') {
+                    empty++;
+                }
+            }
+        }
+        return empty;
+    }
+
+    private static char[][] copyOf(char[][] board) {
+        char[][] copy = new char[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+
+    // Flyweight table for the classic board, created on first use
+    private static final class Interned {
+        static final AtomicReferenceArray<GameState> TABLE =
+                new AtomicReferenceArray<>(CLASSIC_BOARDS * PLAYERS * State.values().length);
     }
 
     public enum State {
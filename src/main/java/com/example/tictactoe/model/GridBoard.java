@@ -0,0 +1,150 @@
+package com.example.tictactoe.model;
+
+import java.util.Arrays;
+
+// Generalized m,n,k board: a win is k marks in a row on a rows x cols grid.
+// Lines are detected incrementally, walking only the four directions through the cell just placed.
+final class GridBoard implements Board {
+    private static final byte EMPTY = 0;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final Game.Player[] PLAYERS = Game.Player.values();  // by stored mark - 1; values() clones
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final byte[] cells;
+    private final boolean[] lines = new boolean[PLAYERS.length];
+    private int filled;
+
+    GridBoard(int rows, int cols, int winLength) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.cells = new byte[rows * cols];
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int winLength() {
+        return winLength;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        byte mark = cells[row * cols + col];
+        return mark == EMPTY ? '-' : PLAYERS[mark - 1].symbol;
+    }
+
+    @Override
+    public boolean isEmpty(int cell) {
+        return cells[cell] == EMPTY;
+    }
+
+    @Override
+    public boolean place(int row, int col, Game.Player player) {
+        int index = row * cols + col;
+        if (cells[index] != EMPTY) {
+            return false;
+        }
+        byte mark = markOf(player);
+        cells[index] = mark;
+        filled++;
+        if (!lines[player.ordinal()] && completesLine(row, col, mark)) {
+            lines[player.ordinal()] = true;
+        }
+        return true;
+    }
+
+    @Override
+    public void remove(int row, int col) {
+        int index = row * cols + col;
+        byte mark = cells[index];
+        if (mark == EMPTY) {
+            return;
+        }
+        cells[index] = EMPTY;
+        filled--;
+        int player = mark - 1;
+        if (lines[player]) {
+            lines[player] = hasAnyLine(mark);  // only re-scan when undoing past a completed line
+        }
+    }
+
+    @Override
+    public boolean hasLine(Game.Player player) {
+        return lines[player.ordinal()];
+    }
+
+    @Override
+    public boolean isFull() {
+        return filled == cells.length;
+    }
+
+    @Override
+    public int filled() {
+        return filled;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, EMPTY);
+        Arrays.fill(lines, false);
+        filled = 0;
+    }
+
+    @Override
+    public void copyFrom(Board other) {
+        GridBoard source = (GridBoard) other;
+        System.arraycopy(source.cells, 0, cells, 0, cells.length);
+        System.arraycopy(source.lines, 0, lines, 0, lines.length);
+        filled = source.filled;
+    }
+
+    private static byte markOf(Game.Player player) {
+        return (byte) (player.ordinal() + 1);
+    }
+
+    // Checks the row, column and both diagonals through (row, col); O(k) per direction
+    private boolean completesLine(int row, int col, byte mark) {
+        for (int[] direction : DIRECTIONS) {
+            int count = 1
+                    + countMarks(row, col, direction[0], direction[1], mark)
+                    + countMarks(row, col, -direction[0], -direction[1], mark);
+            if (count >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnyLine(byte mark) {
+        for (int index = 0; index < cells.length; index++) {
+            if (cells[index] == mark && completesLine(index / cols, index % cols, mark)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countMarks(int row, int col, int rowStep, int colStep, byte mark) {
+        int count = 0;
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (count < winLength - 1 && r >= 0 && r < rows && c >= 0 && c < cols
+                && cells[r * cols + c] == mark) {
+            count++;
+            r += rowStep;
+            c += colStep;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.tictactoe.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Monte Carlo Tree Search with UCT selection, for boards too large to search exhaustively.
+// Root-parallel: every worker on the pool grows its own tree from the same position and the root visit
+// counts are summed at the end. Playouts reuse per-worker buffers, so only tree expansion allocates.
+public class MonteCarloTreeSearch {
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int DEADLINE_CHECK_INTERVAL = 16;
+    private static final char DRAW = '-';
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long seed;
+
+    // Uses every core of the common pool
+    public MonteCarloTreeSearch() {
+        this(ForkJoinPool.commonPool(), Math.max(1, ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    public MonteCarloTreeSearch(ForkJoinPool pool, int parallelism) {
+        this(pool, parallelism, System.nanoTime());
+    }
+
+    // A fixed seed with a playout budget gives reproducible searches
+    public MonteCarloTreeSearch(ForkJoinPool pool, int parallelism, long seed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    public int bestMoveWithinTime(Game game, long timeBudgetMillis) {
+        return search(game, 0, timeBudgetMillis).getBestMove();
+    }
+
+    public int bestMoveWithPlayouts(Game game, long playouts) {
+        return search(game, playouts, 0).getBestMove();
+    }
+
+    // Runs until the playout budget or the time budget is spent; a budget of 0 means unlimited (not both)
+    public Result search(Game game, long maxPlayouts, long timeBudgetMillis) {
+        if (maxPlayouts <= 0 && timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Either a playout or a time budget is required");
+        }
+        long start = System.nanoTime();
+        if (game.checkForWin() || game.checkForLose() || game.isBoardFull()) {
+            return new Result(-1, 0, 0);
+        }
+        long deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<ForkJoinTask<Worker>> tasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            long playouts = maxPlayouts > 0
+                    ? maxPlayouts / parallelism + (i < maxPlayouts % parallelism ? 1 : 0)
+                    : Long.MAX_VALUE;
+            tasks.add(pool.submit(new Worker(game, seeds.split(), playouts, deadline)));
+        }
+
+        long[] visits = new long[game.getRows() * game.getCols()];
+        long playouts = 0;
+        for (ForkJoinTask<Worker> task : tasks) {
+            Worker worker = task.join();
+            worker.addRootVisits(visits);
+            playouts += worker.playouts;
+        }
+
+        int bestMove = -1;
+        for (int move = 0; move < visits.length; move++) {
+            if (visits[move] > 0 && (bestMove < 0 || visits[move] > visits[bestMove])) {
+                bestMove = move;
+            }
+        }
+        return new Result(bestMove, playouts, System.nanoTime() - start);
+    }
+
+    public static final class Result {
+        private final int bestMove;
+        private final long playouts;
+        private final long elapsedNanos;
+
+        Result(int bestMove, long playouts, long elapsedNanos) {
+            this.bestMove = bestMove;
+            this.playouts = playouts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Cell index (row * cols + col), or -1 if the game is over
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        public long getPlayouts() {
+            return playouts;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getPlayoutsPerSecond() {
+            return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+        }
+    }
+
+    private static final class Node {
+        final Node parent;
+        final int move;
+        final char mover;   // player who made the move leading here
+        final char winner;  // set on terminal nodes: the winner or DRAW
+        final int[] untried;
+        int untriedCount;
+        final Node[] children;
+        int childCount;
+        long visits;
+        double reward;      // from the mover's point of view
+
+        Node(Node parent, int move, char mover, char winner, int[] empty, int emptyCount) {
+            this.parent = parent;
+            this.move = move;
+            this.mover = mover;
+            this.winner = winner;
+            boolean terminal = winner != 0;
+            this.untried = terminal ? new int[0] : Arrays.copyOf(empty, emptyCount);
+            this.untriedCount = untried.length;
+            this.children = new Node[untried.length];
+        }
+
+        boolean isTerminal() {
+            return winner != 0;
+        }
+
+        Node selectChild() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < childCount; i++) {
+                Node child = children[i];
+                double value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Worker implements Callable<Worker> {
+        private final Game root;
+        private final Game scratch;
+        private final int[] rootEmpty;
+        private final int[] empty;
+        private final SplittableRandom random;
+        private final long maxPlayouts;
+        private final long deadline;
+        private final Node rootNode;
+        private long playouts;
+
+        Worker(Game game, SplittableRandom random, long maxPlayouts, long deadline) {
+            this.root = new Game(game.getRows(), game.getCols(), game.getWinLength());
+            this.root.copyFrom(game);
+            this.scratch = new Game(game.getRows(), game.getCols(), game.getWinLength());
+            this.random = random;
+            this.maxPlayouts = maxPlayouts;
+            this.deadline = deadline;
+
+            int[] cells = new int[game.getRows() * game.getCols()];
+            int count = game.getMoves(cells);
+            this.rootEmpty = Arrays.copyOf(cells, count);
+            this.empty = new int[count];
+            char previous = game.getCurrentPlayer() == Game.Player.X.symbol ? Game.Player.O.symbol : Game.Player.X.symbol;
+            this.rootNode = new Node(null, -1, previous, (char) 0, rootEmpty, count);
+        }
+
+        @Override
+        public Worker call() {
+            while (playouts < maxPlayouts
+                    && (playouts % DEADLINE_CHECK_INTERVAL != 0 || System.nanoTime() < deadline)) {
+                iterate();
+                playouts++;
+            }
+            return this;
+        }
+
+        void addRootVisits(long[] visits) {
+            for (int i = 0; i < rootNode.childCount; i++) {
+                Node child = rootNode.children[i];
+                visits[child.move] += child.visits;
+            }
+        }
+
+        private void iterate() {
+            scratch.copyFrom(root);
+            System.arraycopy(rootEmpty, 0, empty, 0, rootEmpty.length);
+            int count = rootEmpty.length;
+
+            // Selection: descend through fully expanded nodes
+            Node node = rootNode;
+            while (!node.isTerminal() && node.untriedCount == 0 && node.childCount > 0) {
+                node = node.selectChild();
+                count = remove(node.move, count);
+                scratch.placeMark(node.move);
+                scratch.changePlayer();
+            }
+
+            // Expansion: add one untried move
+            if (!node.isTerminal() && node.untriedCount > 0) {
+                int pick = random.nextInt(node.untriedCount);
+                int move = node.untried[pick];
+                node.untried[pick] = node.untried[--node.untriedCount];
+                char mover = scratch.getCurrentPlayer();
+                count = remove(move, count);
+                scratch.placeMark(move);
+                char winner = scratch.checkForWin() ? mover : count == 0 ? DRAW : 0;
+                scratch.changePlayer();
+                Node child = new Node(node, move, mover, winner, empty, count);
+                node.children[node.childCount++] = child;
+                node = child;
+            }
+
+            // Simulation and backpropagation
+            char winner = node.isTerminal() ? node.winner : playout(count);
+            for (Node n = node; n != null; n = n.parent) {
+                n.visits++;
+                if (winner == n.mover) {
+                    n.reward += 1;
+                } else if (winner == DRAW) {
+                    n.reward += 0.5;
+                }
+            }
+        }
+
+        // Random playout on the scratch game; returns the winner or DRAW
+        private char playout(int count) {
+            while (true) {
+                int pick = random.nextInt(count);
+                int move = empty[pick];
+                empty[pick] = empty[--count];
+                scratch.placeMark(move);
+                if (scratch.checkForWin()) {
+                    return scratch.getCurrentPlayer();
+                }
+                if (count == 0) {
+                    return DRAW;
+                }
+                scratch.changePlayer();
+            }
+        }
+
+        private int remove(int move, int count) {
+            for (int i = 0; i < count; i++) {
+                if (empty[i] == move) {
+                    empty[i] = empty[--count];
+                    break;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.tictactoe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lazy-SMP alpha-beta search for boards of up to 32 cells (4x4 and larger).
+// All threads run iterative deepening over the same position and share a lock-free transposition table of
+// packed long entries; the helper threads only warm the table, the calling thread's result is returned.
+// Table entries are only reused at exactly the same remaining depth and the root is searched in a fixed
+// order, so a search returns the same move at a given depth whatever the thread count.
+public class ParallelSolver {
+    private static final int WIN = 1_000_000;
+    private static final int INFINITY = WIN + 1;
+    private static final int TABLE_BITS = 20;
+    private static final int ABORT_CHECK_MASK = 1023;
+    private static final int[] LINE_WEIGHTS = {0, 1, 10, 100, 1_000, 10_000, 100_000};
+
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+
+    private final BoardGeometry geometry;
+    private final int[] moveOrder;
+    private final int threads;
+    private final ExecutorService helpers;
+    // Two longs per slot: (key ^ data, data), so a torn pair of writes is detected on probe
+    private final AtomicLongArray table = new AtomicLongArray(2 << TABLE_BITS);
+    private volatile boolean stop;
+
+    public ParallelSolver(int rows, int cols, int winLength, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.geometry = new BoardGeometry(rows, cols, winLength);
+        this.moveOrder = Solver.centerFirstOrder(geometry);
+        this.threads = threads;
+        this.helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public boolean supports(Game game) {
+        return geometry.matches(game);
+    }
+
+    // Fixed-depth search without a deadline
+    public int bestMove(Game game, int depth) {
+        return search(game, depth, 0).getBestMove();
+    }
+
+    // Iterative deepening up to maxDepth plies, stopping early once the time budget (if > 0) runs out
+    public Result search(Game game, int maxDepth, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        long deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        char current = game.getCurrentPlayer();
+        char opponent = current == Game.Player.X.symbol ? Game.Player.O.symbol : Game.Player.X.symbol;
+        long mine = geometry.marks(game, current);
+        long theirs = geometry.marks(game, opponent);
+        if (geometry.hasLine(mine) || geometry.hasLine(theirs) || (mine | theirs) == geometry.fullMask) {
+            return new Result(-1, 0, 0, 0, 0);
+        }
+        int depthLimit = Math.min(maxDepth, geometry.cells - Long.bitCount(mine | theirs));
+
+        stop = false;
+        List<Searcher> helperSearchers = new ArrayList<>();
+        List<Future<?>> helperTasks = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Searcher helper = new Searcher(i, Long.MAX_VALUE);
+            helperSearchers.add(helper);
+            helperTasks.add(helpers.submit(() -> helper.deepen(mine, theirs, depthLimit)));
+        }
+
+        Searcher main = new Searcher(0, deadline);
+        int bestMove = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            int move = main.searchRoot(mine, theirs, depth);
+            if (main.aborted) {
+                break;
+            }
+            bestMove = move;
+            bestScore = main.rootScore;
+            completedDepth = depth;
+            if (Math.abs(bestScore) >= WIN - geometry.cells) {
+                break;  // proven win or loss, deeper search cannot change it
+            }
+        }
+
+        stop = true;
+        long nodes = main.nodes;
+        for (int i = 0; i < helperTasks.size(); i++) {
+            try {
+                helperTasks.get(i).get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Helper search failed", e);
+            }
+            nodes += helperSearchers.get(i).nodes;
+        }
+        return new Result(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    public static final class Result {
+        private final int bestMove;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        Result(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Cell index (row * cols + col), or -1 if the game is over
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        // Deepest fully completed iteration
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+
+    private final class Searcher {
+        private final int id;
+        private final long deadline;
+        private final int[] order;
+        long nodes;
+        boolean aborted;
+        int rootScore;
+
+        Searcher(int id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+            // Helpers rotate the move order so that threads explore different subtrees first
+            this.order = new int[moveOrder.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = moveOrder[(i + id) % moveOrder.length];
+            }
+        }
+
+        // Helper loop: keep deepening (staggered by thread id) until the main thread is done
+        void deepen(long mine, long theirs, int depthLimit) {
+            while (!stop) {
+                for (int depth = 1 + id % 2; depth <= depthLimit && !stop; depth++) {
+                    searchRoot(mine, theirs, depth);
+                }
+            }
+        }
+
+        // Root moves are always tried in the fixed centre-first order, and ties keep the earlier move
+        int searchRoot(long mine, long theirs, int depth) {
+            aborted = false;
+            long occupied = mine | theirs;
+            int stones = Long.bitCount(occupied);
+            int alpha = -INFINITY;
+            int bestMove = -1;
+            for (int cell : moveOrder) {
+                long bit = 1L << cell;
+                if ((occupied & bit) != 0) {
+                    continue;
+                }
+                int score = geometry.completesLine(mine | bit, cell)
+                        ? WIN - (stones + 1)
+                        : -negamax(theirs, mine | bit, depth - 1, -INFINITY, -alpha);
+                if (aborted) {
+                    return bestMove;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = cell;
+                }
+            }
+            rootScore = alpha;
+            return bestMove;
+        }
+
+        private int negamax(long mine, long theirs, int depth, int alpha, int beta) {
+            if ((++nodes & ABORT_CHECK_MASK) == 0 && (stop && id != 0 || System.nanoTime() > deadline)) {
+                aborted = true;
+            }
+            if (aborted) {
+                return 0;
+            }
+            long occupied = mine | theirs;
+            if (occupied == geometry.fullMask) {
+                return 0;
+            }
+            int stones = Long.bitCount(occupied);
+            for (int cell : order) {
+                long bit = 1L << cell;
+                if ((occupied & bit) == 0 && geometry.completesLine(mine | bit, cell)) {
+                    return WIN - (stones + 1);
+                }
+            }
+            if (depth == 0) {
+                return evaluate(mine, theirs);
+            }
+
+            int alphaOrig = alpha;
+            long key = BoardGeometry.key(mine, theirs);
+            int slot = slot(key);
+            int tableMove = -1;
+            long data = table.get(slot + 1);
+            if (data != 0 && (table.get(slot) ^ data) == key) {
+                tableMove = (int) ((data >>> 40) & 0xFF) - 1;
+                if (((data >>> 32) & 0xFF) == depth) {
+                    int score = (int) data;
+                    int flag = (int) ((data >>> 48) & 0x3);
+                    if (flag == EXACT) {
+                        return score;
+                    } else if (flag == LOWER) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+
+            int best = -INFINITY;
+            int bestMove = -1;
+            for (int i = -1; i < order.length; i++) {
+                int cell = i < 0 ? tableMove : order[i];  // try the shared table's move first
+                if (cell < 0 || (i >= 0 && cell == tableMove) || (occupied & (1L << cell)) != 0) {
+                    continue;
+                }
+                int score = -negamax(theirs, mine | (1L << cell), depth - 1, -beta, -alpha);
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = cell;
+                }
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            int flag = best <= alphaOrig ? UPPER : best >= beta ? LOWER : EXACT;
+            long entry = (1L << 50) | ((long) flag << 48) | ((long) (bestMove + 1) << 40)
+                    | ((long) depth << 32) | (best & 0xFFFFFFFFL);
+            table.set(slot, key ^ entry);
+            table.set(slot + 1, entry);
+            return best;
+        }
+    }
+
+    // Heuristic for the side to move: open lines weighted by how many of their cells are already taken
+    private int evaluate(long mine, long theirs) {
+        int score = 0;
+        for (long line : geometry.lines) {
+            boolean mineFree = (line & theirs) == 0;
+            boolean theirsFree = (line & mine) == 0;
+            if (mineFree && !theirsFree) {
+                score += weight(Long.bitCount(line & mine));
+            } else if (theirsFree && !mineFree) {
+                score -= weight(Long.bitCount(line & theirs));
+            }
+        }
+        return score;
+    }
+
+    private static int weight(int marks) {
+        return LINE_WEIGHTS[Math.min(marks, LINE_WEIGHTS.length - 1)];
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - TABLE_BITS)) << 1;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tictactoe.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Perfect-play lookup for the classic 3x3 game, bulk-read from a resource written by PerfectPlayTableGenerator.
+// Entries are indexed by the base-3 encoding of the board (cell = row * 3 + col, digit 0 empty, 1 X, 2 O),
+// so a lookup is one array access.
+public class PerfectPlayTable {
+    static final String RESOURCE = "perfect_play.bin";
+    static final int MAGIC = 0x54545450;  // "TTTP"
+    static final short VERSION = 1;
+    static final int CELLS = 9;
+    static final int POSITIONS = 19683;  // 3^9
+
+    // Entry layout: bit 15 reachable, bits 9-10 value for the side to move, bits 0-8 mask of best moves
+    static final int REACHABLE = 1 << 15;
+    static final int VALUE_SHIFT = 9;
+    static final int MOVES_MASK = 0x1FF;
+
+    public static final int LOSS = 0;
+    public static final int DRAW = 1;
+    public static final int WIN = 2;
+
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    private final short[] entries;
+
+    PerfectPlayTable(short[] entries) {
+        this.entries = entries;
+    }
+
+    public static PerfectPlayTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    static PerfectPlayTable load() {
+        try (InputStream inputStream = PerfectPlayTable.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                System.err.println("Perfect-play table " + RESOURCE + " not found, falling back to search");
+                return new PerfectPlayTable(new short[POSITIONS]);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(inputStream.readAllBytes());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getInt() != POSITIONS) {
+                throw new IOException("Unsupported perfect-play table format");
+            }
+            short[] entries = new short[POSITIONS];
+            buffer.asShortBuffer().get(entries);
+            return new PerfectPlayTable(entries);
+        } catch (IOException e) {
+            System.err.println("Error loading perfect-play table: " + e.getMessage());
+            return new PerfectPlayTable(new short[POSITIONS]);
+        }
+    }
+
+    static int index(int xMarks, int oMarks) {
+        int index = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if ((xMarks & (1 << cell)) != 0) {
+                index += POW3[cell];
+            } else if ((oMarks & (1 << cell)) != 0) {
+                index += 2 * POW3[cell];
+            }
+        }
+        return index;
+    }
+
+    // Mask of the optimal moves (bit = row * 3 + col), or 0 if the position is not in the table
+    public int bestMoves(Game game) {
+        int entry = entry(game);
+        return entry < 0 ? 0 : entry & MOVES_MASK;
+    }
+
+    // One optimal move as a cell index, or -1 if the position is not in the table or the game is over
+    public int bestMove(Game game) {
+        int moves = bestMoves(game);
+        return moves == 0 ? -1 : Integer.numberOfTrailingZeros(moves);
+    }
+
+    // WIN, DRAW or LOSS for the current player, or -1 if the position is not in the table
+    public int value(Game game) {
+        int entry = entry(game);
+        return entry < 0 ? -1 : (entry >>> VALUE_SHIFT) & 0x3;
+    }
+
+    private int entry(Game game) {
+        if (!Game.isClassic(game.getRows(), game.getCols(), game.getWinLength())) {
+            return -1;
+        }
+        int index = 0;
+        int xCount = 0;
+        int oCount = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            char mark = game.getMark(cell / 3, cell % 3);
+            if (mark == Game.Player.X.symbol) {
+                index += POW3[cell];
+                xCount++;
+            } else if (mark == Game.Player.O.symbol) {
+                index += 2 * POW3[cell];
+                oCount++;
+            }
+        }
+        // Entries are stored for the side to move in a normal game, X moving whenever counts are equal
+        char toMove = xCount == oCount ? Game.Player.X.symbol : Game.Player.O.symbol;
+        int entry = entries[index] & 0xFFFF;
+        if ((entry & REACHABLE) == 0 || game.getCurrentPlayer() != toMove) {
+            return -1;
+        }
+        return entry;
+    }
+
+    private static class Holder {
+        private static final PerfectPlayTable INSTANCE = load();
+    }
+}
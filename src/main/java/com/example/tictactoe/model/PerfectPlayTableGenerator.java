@@ -0,0 +1,108 @@
+package com.example.tictactoe.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Build-time generator for the perfect-play table read by PerfectPlayTable.
+// Walks every position reachable from the Game() start position and records its value and best moves.
+// Run with: mvn -P generate-tables process-classes
+public class PerfectPlayTableGenerator {
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final short[] entries = new short[PerfectPlayTable.POSITIONS];
+    private final int[] scores = new int[PerfectPlayTable.POSITIONS];
+    private int reachable;
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "src/main/resources/" + PerfectPlayTable.RESOURCE);
+        PerfectPlayTableGenerator generator = new PerfectPlayTableGenerator();
+        generator.generate();
+        generator.write(output);
+        System.out.println("Wrote " + generator.reachable + " positions to " + output);
+    }
+
+    short[] generate() {
+        Arrays.fill(scores, UNKNOWN);
+        Game start = new Game();
+        int xMarks = marks(start, Game.Player.X);
+        int oMarks = marks(start, Game.Player.O);
+        solve(xMarks, oMarks, start.getCurrentPlayer() == Game.Player.X.symbol);
+        return entries;
+    }
+
+    int getReachable() {
+        return reachable;
+    }
+
+    private static int marks(Game game, Game.Player player) {
+        int marks = 0;
+        for (int cell = 0; cell < PerfectPlayTable.CELLS; cell++) {
+            if (game.getMark(cell / 3, cell % 3) == player.symbol) {
+                marks |= 1 << cell;
+            }
+        }
+        return marks;
+    }
+
+    // Negamax score for the side to move: faster wins and slower losses score further from 0
+    private int solve(int xMarks, int oMarks, boolean xToMove) {
+        int index = PerfectPlayTable.index(xMarks, oMarks);
+        if (scores[index] != UNKNOWN) {
+            return scores[index];
+        }
+        reachable++;
+
+        int occupied = xMarks | oMarks;
+        int stones = Integer.bitCount(occupied);
+        int opponent = xToMove ? oMarks : xMarks;
+        int best;
+        int bestMoves = 0;
+        if (BitBoard.hasLine(opponent)) {
+            best = -(PerfectPlayTable.CELLS + 1 - stones);  // the previous move won
+        } else if (occupied == BitBoard.FULL) {
+            best = 0;
+        } else {
+            best = Integer.MIN_VALUE;
+            for (int cell = 0; cell < PerfectPlayTable.CELLS; cell++) {
+                int bit = 1 << cell;
+                if ((occupied & bit) != 0) {
+                    continue;
+                }
+                int score = xToMove
+                        ? -solve(xMarks | bit, oMarks, false)
+                        : -solve(xMarks, oMarks | bit, true);
+                if (score > best) {
+                    best = score;
+                    bestMoves = bit;
+                } else if (score == best) {
+                    bestMoves |= bit;
+                }
+            }
+        }
+
+        int value = best > 0 ? PerfectPlayTable.WIN : best < 0 ? PerfectPlayTable.LOSS : PerfectPlayTable.DRAW;
+        entries[index] = (short) (PerfectPlayTable.REACHABLE | (value << PerfectPlayTable.VALUE_SHIFT) | bestMoves);
+        scores[index] = best;
+        return best;
+    }
+
+    void write(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output.toFile())))) {
+            out.writeInt(PerfectPlayTable.MAGIC);
+            out.writeShort(PerfectPlayTable.VERSION);
+            out.writeInt(PerfectPlayTable.POSITIONS);
+            for (short entry : entries) {
+                out.writeShort(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.tictactoe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Exhaustive game-tree enumeration ("perft"): visits every position reachable from a start position
+// and counts the finished games by outcome. The top plies are split into subtrees on a ForkJoinPool;
+// each subtree is then walked sequentially with placeMark/undoMark on its own copy of the game.
+public class Perft {
+    private static final int TASKS_PER_THREAD = 16;
+
+    private final ForkJoinPool pool;
+
+    // Uses every core of the common pool
+    public Perft() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public Perft(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Result run(GameState state) {
+        return run(state, 0);
+    }
+
+    // Walks at most maxDepth plies from the state (0 means to the end of every game)
+    public Result run(GameState state, int maxDepth) {
+        Game game = new Game(state.getRows(), state.getCols(), state.getWinLength());
+        game.loadState(state);
+        return run(game, maxDepth);
+    }
+
+    // The game is copied, so it is left untouched
+    public Result run(Game game, int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative: " + maxDepth);
+        }
+        int cells = game.getRows() * game.getCols();
+        int empty = countEmpty(game);
+        int depth = maxDepth == 0 ? empty : Math.min(maxDepth, empty);
+
+        long start = System.nanoTime();
+        Game root = copyOf(game);
+        Tally tally = pool.invoke(new Subtree(root, 0, depth, splitDepth(empty, depth), cells));
+        return new Result(tally, System.nanoTime() - start);
+    }
+
+    // Enough split plies to give every worker several subtrees to steal
+    private int splitDepth(int empty, int depth) {
+        long tasks = 1;
+        int split = 0;
+        while (split < depth && tasks < (long) pool.getParallelism() * TASKS_PER_THREAD) {
+            tasks *= empty - split;
+            split++;
+        }
+        return split;
+    }
+
+    private static int countEmpty(Game game) {
+        int empty = 0;
+        for (int row = 0; row < game.getRows(); row++) {
+            for (int col = 0; col < game.getCols(); col++) {
+                if (game.getMark(row, col) == '-') {
+                    empty++;
+                }
+            }
+        }
+        return empty;
+    }
+
+    private static Game copyOf(Game game) {
+        Game copy = new Game(game.getRows(), game.getCols(), game.getWinLength());
+        copy.copyFrom(game);
+        return copy;
+    }
+
+    // Counts the node and returns true if the game is over (or the horizon is reached) at this position
+    private static boolean isLeaf(Game game, int ply, int remaining, Tally tally) {
+        tally.nodes++;
+        boolean rootToMove = (ply & 1) == 0;
+        if (game.checkForLose()) {  // the player who just moved completed a line
+            if (rootToMove) tally.losses++; else tally.wins++;
+            return true;
+        }
+        if (game.checkForWin()) {  // only possible in a loaded start position
+            if (rootToMove) tally.wins++; else tally.losses++;
+            return true;
+        }
+        if (game.isBoardFull()) {
+            tally.draws++;
+            return true;
+        }
+        if (remaining == 0) {
+            tally.unfinished++;
+            return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("serial")  // a fork/join task, never serialized
+    private static final class Subtree extends RecursiveTask<Tally> {
+        private final Game game;
+        private final int ply;
+        private final int remaining;
+        private final int splitPlies;
+        private final int cells;
+
+        Subtree(Game game, int ply, int remaining, int splitPlies, int cells) {
+            this.game = game;
+            this.ply = ply;
+            this.remaining = remaining;
+            this.splitPlies = splitPlies;
+            this.cells = cells;
+        }
+
+        @Override
+        protected Tally compute() {
+            Tally tally = new Tally();
+            if (splitPlies == 0) {
+                walk(game, ply, remaining, new int[remaining + 1][cells], tally);
+                return tally;
+            }
+            if (isLeaf(game, ply, remaining, tally)) {
+                return tally;
+            }
+
+            int[] moves = new int[cells];
+            int count = game.getMoves(moves);
+            List<Subtree> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Game child = copyOf(game);
+                child.placeMark(moves[i]);
+                child.changePlayer();
+                children.add(new Subtree(child, ply + 1, remaining - 1, splitPlies - 1, cells));
+            }
+            for (Subtree child : invokeAll(children)) {
+                tally.add(child.join());
+            }
+            return tally;
+        }
+
+        // Sequential depth-first walk; one move buffer per ply, so nothing is allocated per node
+        private static void walk(Game game, int ply, int remaining, int[][] moves, Tally tally) {
+            if (isLeaf(game, ply, remaining, tally)) {
+                return;
+            }
+            int[] buffer = moves[remaining];
+            int count = game.getMoves(buffer);
+            for (int i = 0; i < count; i++) {
+                game.placeMark(buffer[i]);
+                game.changePlayer();
+                walk(game, ply + 1, remaining - 1, moves, tally);
+                game.changePlayer();
+                game.undoMark();
+            }
+        }
+    }
+
+    private static final class Tally {
+        long nodes;
+        long wins;
+        long losses;
+        long draws;
+        long unfinished;
+
+        void add(Tally other) {
+            nodes += other.nodes;
+            wins += other.wins;
+            losses += other.losses;
+            draws += other.draws;
+            unfinished += other.unfinished;
+        }
+    }
+
+    // Outcomes are seen from the player to move in the start position
+    public static final class Result {
+        private final long nodes;
+        private final long wins;
+        private final long losses;
+        private final long draws;
+        private final long unfinished;
+        private final long elapsedNanos;
+
+        private Result(Tally tally, long elapsedNanos) {
+            this.nodes = tally.nodes;
+            this.wins = tally.wins;
+            this.losses = tally.losses;
+            this.draws = tally.draws;
+            this.unfinished = tally.unfinished;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Every position visited, the start position included
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public long getLosses() {
+            return losses;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        // Positions cut off by the depth limit with the game still going
+        public long getUnfinished() {
+            return unfinished;
+        }
+
+        public long getGames() {
+            return wins + losses + draws;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("nodes=%d wins=%d losses=%d draws=%d unfinished=%d (%.0f nodes/s)",
+                    nodes, wins, losses, draws, unfinished, getNodesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tictactoe.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Perfect-play solver: negamax with alpha-beta pruning over occupancy masks.
+// Positions are cached in a transposition table keyed by their canonical orientation, so the 8 board
+// symmetries (4 on rectangular boards) share one entry, and the table survives between queries.
+// Not thread-safe; use one solver per bot.
+public class Solver {
+    public static final int MAX_CELLS = 16;  // 4x4 is the largest board solved exhaustively
+
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+    private static final int VALID = 1 << 20;
+
+    private final BoardGeometry geometry;
+    private final int winScore;
+    private final int[] moveOrder;
+    private final long[] tableKeys;
+    private final int[] tableData;
+    private final int tableBits;
+
+    public Solver(int rows, int cols, int winLength) {
+        if (!supports(rows, cols)) {
+            throw new IllegalArgumentException("Solver supports boards of at most " + MAX_CELLS + " cells");
+        }
+        this.geometry = new BoardGeometry(rows, cols, winLength);
+        this.winScore = geometry.cells + 2;  // so that even a win on the last cell scores above a draw
+        this.moveOrder = centerFirstOrder(geometry);
+        this.tableBits = geometry.cells <= 9 ? 15 : 20;
+        this.tableKeys = new long[1 << tableBits];
+        this.tableData = new int[1 << tableBits];
+    }
+
+    public static boolean supports(int rows, int cols) {
+        return rows * cols <= MAX_CELLS;
+    }
+
+    public boolean supports(Game game) {
+        return geometry.matches(game);
+    }
+
+    // Best move for the current player as a cell index (row * cols + col), or -1 if the game is over
+    public int bestMove(Game game) {
+        return search(game, true);
+    }
+
+    // Game-theoretic value for the current player: positive wins (faster wins score higher), 0 draws
+    public int evaluate(Game game) {
+        return search(game, false);
+    }
+
+    private int search(Game game, boolean returnMove) {
+        char current = game.getCurrentPlayer();
+        char opponent = current == Game.Player.X.symbol ? Game.Player.O.symbol : Game.Player.X.symbol;
+        long mine = geometry.marks(game, current);
+        long theirs = geometry.marks(game, opponent);
+        if (geometry.hasLine(mine) || geometry.hasLine(theirs) || (mine | theirs) == geometry.fullMask) {
+            return returnMove ? -1 : (geometry.hasLine(mine) ? winScore : geometry.hasLine(theirs) ? -winScore : 0);
+        }
+
+        int stones = Long.bitCount(mine | theirs);
+        int alpha = -winScore;
+        int bestMove = -1;
+        for (int cell : moveOrder) {
+            long bit = 1L << cell;
+            if (((mine | theirs) & bit) != 0) {
+                continue;
+            }
+            int score = geometry.completesLine(mine | bit, cell)
+                    ? winScore - (stones + 1)
+                    : -negamax(theirs, mine | bit, -winScore, -alpha);
+            if (bestMove < 0 || score > alpha) {
+                alpha = score;
+                bestMove = cell;
+            }
+        }
+        return returnMove ? bestMove : alpha;
+    }
+
+    private int negamax(long mine, long theirs, int alpha, int beta) {
+        long occupied = mine | theirs;
+        if (occupied == geometry.fullMask) {
+            return 0;
+        }
+        int stones = Long.bitCount(occupied);
+
+        // An immediate win is always best, so look for one before touching the table
+        int bestPossible = winScore - (stones + 1);
+        for (int cell : moveOrder) {
+            long bit = 1L << cell;
+            if ((occupied & bit) == 0 && geometry.completesLine(mine | bit, cell)) {
+                return bestPossible;
+            }
+        }
+
+        // Without an immediate win the best outcome is winning two plies later
+        int upperBound = bestPossible - 2;
+        if (beta > upperBound) {
+            beta = upperBound;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        int alphaOrig = alpha;
+        int symmetry = geometry.canonicalSymmetry(mine, theirs);
+        long key = BoardGeometry.key(geometry.transform(mine, symmetry), geometry.transform(theirs, symmetry));
+        int slot = slot(key);
+        int tableMove = -1;
+        int entry = tableData[slot];
+        if (entry != 0 && tableKeys[slot] == key) {
+            int score = (entry & 0xFF) - 128;
+            int flag = (entry >>> 8) & 0x3;
+            tableMove = geometry.inverse[symmetry][(entry >>> 12) & 0x3F];
+            if (flag == EXACT) {
+                return score;
+            } else if (flag == LOWER) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                return score;
+            }
+        }
+
+        int best = -winScore;
+        int bestMove = -1;
+        for (int i = -1; i < moveOrder.length; i++) {
+            int cell = i < 0 ? tableMove : moveOrder[i];  // try the cached best move first
+            if (cell < 0 || (i >= 0 && cell == tableMove) || (occupied & (1L << cell)) != 0) {
+                continue;
+            }
+            int score = -negamax(theirs, mine | (1L << cell), -beta, -alpha);
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int flag = best <= alphaOrig ? UPPER : best >= beta ? LOWER : EXACT;
+        tableKeys[slot] = key;
+        tableData[slot] = VALID | (geometry.perm[symmetry][bestMove] << 12) | (flag << 8) | (best + 128);
+        return best;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - tableBits));
+    }
+
+    // Cells on more winning lines first: centre, then corners, then edges on the classic board
+    static int[] centerFirstOrder(BoardGeometry geometry) {
+        Integer[] cells = new Integer[geometry.cells];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = cell;
+        }
+        Arrays.sort(cells, Comparator.comparingInt((Integer cell) -> -geometry.linesThrough[cell].length)
+                .thenComparingInt(cell -> cell));
+        return Arrays.stream(cells).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.tictactoe.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Endgame tablebase for boards of up to 16 cells (4x4, 4x4-k3, ...), written offline by TablebaseGenerator.
+// The file is memory-mapped read-only, so probes cost no heap and every JVM on the host shares the same
+// page cache. Entries are indexed like PerfectPlayTable: base-3 board encoding, cell = row * cols + col.
+public class Tablebase {
+    static final int MAGIC = 0x54544254;  // "TTBT"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 13;  // magic, version, rows, cols, winLength, positions
+    static final int MAX_CELLS = 16;
+    static final String DIRECTORY_PROPERTY = "tictactoe.tablebases";
+    static final String DEFAULT_DIRECTORY = "tablebases";
+
+    // Entry layout: bit 7 valid, bits 5-6 value for the side to move, bits 0-4 plies to the end of the game
+    static final int VALID = 1 << 7;
+    static final int VALUE_SHIFT = 5;
+    static final int DISTANCE_MASK = 0x1F;
+
+    private static final Map<String, Optional<Tablebase>> OPENED = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final int[] pow3;
+    private final ByteBuffer entries;
+
+    private Tablebase(int rows, int cols, int winLength, ByteBuffer entries) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.pow3 = powersOfThree(rows * cols);
+        this.entries = entries;
+    }
+
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Unsupported tablebase format in " + file);
+            }
+            int rows = buffer.get();
+            int cols = buffer.get();
+            int winLength = buffer.get();
+            int positions = buffer.getInt();
+            if (rows * cols > MAX_CELLS || positions != powersOfThree(rows * cols)[rows * cols]
+                    || buffer.remaining() != positions) {
+                throw new IOException("Corrupt tablebase " + file);
+            }
+            return new Tablebase(rows, cols, winLength, buffer.slice());
+        }
+    }
+
+    // Tablebase for the game's board from the tablebase directory, or null if none has been generated
+    public static Tablebase find(Game game) {
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+        Path file = directory.resolve(fileName(game.getRows(), game.getCols(), game.getWinLength()));
+        return OPENED.computeIfAbsent(file.toAbsolutePath().toString(), key -> {
+            if (!Files.isRegularFile(file)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(open(file));
+            } catch (IOException e) {
+                System.err.println("Error opening tablebase: " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    static String fileName(int rows, int cols, int winLength) {
+        return "tablebase_" + rows + "x" + cols + "_k" + winLength + ".bin";
+    }
+
+    static int[] powersOfThree(int cells) {
+        int[] pow3 = new int[cells + 1];
+        pow3[0] = 1;
+        for (int cell = 1; cell <= cells; cell++) {
+            pow3[cell] = pow3[cell - 1] * 3;
+        }
+        return pow3;
+    }
+
+    public boolean supports(Game game) {
+        return game.getRows() == rows && game.getCols() == cols && game.getWinLength() == winLength;
+    }
+
+    // WIN, DRAW or LOSS (as in PerfectPlayTable) for the current player, or -1 if the position is not in the table
+    public int value(Game game) {
+        int index = index(game);
+        return index < 0 ? -1 : (entry(index) >>> VALUE_SHIFT) & 0x3;
+    }
+
+    // Plies to the end of the game under perfect play, or -1 if the position is not in the table
+    public int distance(Game game) {
+        int index = index(game);
+        return index < 0 ? -1 : entry(index) & DISTANCE_MASK;
+    }
+
+    // Fastest win, else a draw, else the slowest loss, as a cell index; -1 if unknown or the game is over
+    public int bestMove(Game game) {
+        int index = index(game);
+        if (index < 0 || (entry(index) & DISTANCE_MASK) == 0) {
+            return -1;
+        }
+        int digit = game.getCurrentPlayer() == Game.Player.X.symbol ? 1 : 2;
+        int bestMove = -1;
+        int bestRank = Integer.MIN_VALUE;
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (game.getMark(cell / cols, cell % cols) != '-') {
+                continue;
+            }
+            int rank = rank(entry(index + digit * pow3[cell]));
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = cell;
+            }
+        }
+        return bestMove;
+    }
+
+    // Orders a child entry by how good it is for the parent: the child's loss is the parent's win
+    static int rank(int childEntry) {
+        int childValue = (childEntry >>> VALUE_SHIFT) & 0x3;
+        int distance = childEntry & DISTANCE_MASK;
+        switch (childValue) {
+            case PerfectPlayTable.LOSS:
+                return 2 * (DISTANCE_MASK + 1) - distance;  // quicker wins first
+            case PerfectPlayTable.DRAW:
+                return DISTANCE_MASK + 1;
+            default:
+                return distance;  // slower losses first
+        }
+    }
+
+    private int entry(int index) {
+        return entries.get(index) & 0xFF;
+    }
+
+    // Table index of the game's position, or -1 if the board does not match or the entry is not valid
+    private int index(Game game) {
+        if (!supports(game)) {
+            return -1;
+        }
+        int index = 0;
+        int xCount = 0;
+        int oCount = 0;
+        for (int cell = 0; cell < rows * cols; cell++) {
+            char mark = game.getMark(cell / cols, cell % cols);
+            if (mark == Game.Player.X.symbol) {
+                index += pow3[cell];
+                xCount++;
+            } else if (mark == Game.Player.O.symbol) {
+                index += 2 * pow3[cell];
+                oCount++;
+            }
+        }
+        // Entries are stored for the side to move in a normal game, X moving whenever counts are equal
+        char toMove = xCount == oCount ? Game.Player.X.symbol : Game.Player.O.symbol;
+        if ((entry(index) & VALID) == 0 || game.getCurrentPlayer() != toMove) {
+            return -1;
+        }
+        return index;
+    }
+}
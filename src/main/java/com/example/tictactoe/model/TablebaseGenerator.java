@@ -0,0 +1,149 @@
+package com.example.tictactoe.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Offline retrograde builder for the tablebases read by Tablebase.
+// Placing a mark always raises the base-3 index, so walking the indices from the full end of the space
+// down to the empty board resolves every successor before its predecessors: one backward pass, no search.
+// Run with: mvn -P generate-tables process-classes (writes the 4x4 and 4x4-k3 tablebases),
+// or TablebaseGenerator rows cols winLength [directory]
+public class TablebaseGenerator {
+    private final BoardGeometry geometry;
+    private final int[] pow3;
+    private final byte[] entries;
+    private int valid;
+
+    public TablebaseGenerator(int rows, int cols, int winLength) {
+        Game.checkBoard(rows, cols, winLength);
+        if (rows * cols > Tablebase.MAX_CELLS) {
+            throw new IllegalArgumentException("Tablebases need a board of at most " + Tablebase.MAX_CELLS + " cells");
+        }
+        this.geometry = new BoardGeometry(rows, cols, winLength);
+        this.pow3 = Tablebase.powersOfThree(rows * cols);
+        this.entries = new byte[pow3[rows * cols]];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3) {
+            Path directory = Paths.get(args.length > 3 ? args[3] : Tablebase.DEFAULT_DIRECTORY);
+            build(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]), directory);
+        } else {
+            Path directory = Paths.get(args.length > 0 ? args[0] : Tablebase.DEFAULT_DIRECTORY);
+            build(4, 4, 4, directory);
+            build(4, 4, 3, directory);
+        }
+    }
+
+    private static void build(int rows, int cols, int winLength, Path directory) throws IOException {
+        long start = System.nanoTime();
+        TablebaseGenerator generator = new TablebaseGenerator(rows, cols, winLength);
+        generator.generate();
+        Path output = directory.resolve(Tablebase.fileName(rows, cols, winLength));
+        generator.write(output);
+        System.out.printf("Wrote %d positions to %s in %d ms%n",
+                generator.valid, output, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    byte[] generate() {
+        int cells = geometry.cells;
+        int[] digits = new int[cells];
+        long xMarks = 0;
+        long oMarks = 0;
+        // Start from the last index (every cell O) and count down to the empty board
+        for (int cell = 0; cell < cells; cell++) {
+            digits[cell] = 2;
+            oMarks |= 1L << cell;
+        }
+        for (int index = entries.length - 1; index >= 0; index--) {
+            entries[index] = (byte) solve(index, xMarks, oMarks);
+
+            // Decrement the base-3 counter, keeping the occupancy masks in step
+            for (int cell = 0; cell < cells && index > 0; cell++) {
+                long bit = 1L << cell;
+                if (digits[cell] == 2) {
+                    digits[cell] = 1;
+                    oMarks &= ~bit;
+                    xMarks |= bit;
+                    break;
+                } else if (digits[cell] == 1) {
+                    digits[cell] = 0;
+                    xMarks &= ~bit;
+                    break;
+                }
+                digits[cell] = 2;
+                oMarks |= bit;
+            }
+        }
+        return entries;
+    }
+
+    int getValid() {
+        return valid;
+    }
+
+    // Entry for one position; every position it can move to has a higher index and is already solved
+    private int solve(int index, long xMarks, long oMarks) {
+        int xCount = Long.bitCount(xMarks);
+        int oCount = Long.bitCount(oMarks);
+        if (xCount != oCount && xCount != oCount + 1) {
+            return 0;  // not a position of a normal game
+        }
+        boolean xToMove = xCount == oCount;
+        long toMove = xToMove ? xMarks : oMarks;
+        long justMoved = xToMove ? oMarks : xMarks;
+        if (geometry.hasLine(toMove)) {
+            return 0;  // the side to move cannot already have a line
+        }
+        valid++;
+        if (geometry.hasLine(justMoved)) {
+            return entry(PerfectPlayTable.LOSS, 0);
+        }
+        long occupied = xMarks | oMarks;
+        if (occupied == geometry.fullMask) {
+            return entry(PerfectPlayTable.DRAW, 0);
+        }
+
+        int digit = xToMove ? 1 : 2;
+        int bestRank = Integer.MIN_VALUE;
+        int bestChild = 0;
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            if ((occupied & (1L << cell)) != 0) {
+                continue;
+            }
+            int child = entries[index + digit * pow3[cell]] & 0xFF;
+            int rank = Tablebase.rank(child);
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestChild = child;
+            }
+        }
+        int childValue = (bestChild >>> Tablebase.VALUE_SHIFT) & 0x3;
+        int distance = (bestChild & Tablebase.DISTANCE_MASK) + 1;
+        return entry(PerfectPlayTable.WIN - childValue, distance);
+    }
+
+    private static int entry(int value, int distance) {
+        return Tablebase.VALID | (value << Tablebase.VALUE_SHIFT) | distance;
+    }
+
+    void write(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output.toFile())))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeShort(Tablebase.VERSION);
+            out.writeByte(geometry.rows);
+            out.writeByte(geometry.cols);
+            out.writeByte(geometry.winLength);
+            out.writeInt(entries.length);
+            out.write(entries);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tictactoe.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Zobrist keys: one random 64-bit key per (cell, player) plus one for the side to move.
+// Keys are generated from a fixed seed so hashes are stable across runs and JVMs.
+final class Zobrist {
+    static final long SIDE_TO_MOVE;
+    private static final long SEED = 0x7A0B_2157L;
+    private static final ConcurrentMap<Integer, long[]> KEYS_BY_SIZE = new ConcurrentHashMap<>();
+
+    static {
+        SIDE_TO_MOVE = new SplittableRandom(SEED).nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    // Keys for a board with the given number of cells, indexed by cell * 2 + player ordinal
+    static long[] keys(int cells) {
+        return KEYS_BY_SIZE.computeIfAbsent(cells, size -> {
+            SplittableRandom random = new SplittableRandom(SEED + size);
+            long[] keys = new long[size * Game.Player.values().length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+            return keys;
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Compact framing that replaces the text lines once both sides agree on it at the handshake: the server offers
+// it with Protocol.BINARY_OFFER before the player assignment and a client that understands it acknowledges with
+// Protocol.ACKNOWLEDGED_BINARY. Peers that do not know about it never see the offer answered and stay on text.
+//
+// Server to client, one type byte and then:
+//   CLASSIC_STATE  3 bytes of packed state for the 3x3 board
+//   STATE          rows, cols and win length bytes, then the packed state
+//   REMATCH        nothing
+//   MOVE           in delta mode: the sequence number and the encoded move, one byte each (see Protocol.MOVE)
+//   PING           nothing; a heartbeat, answered with PONG
+// A packed state holds 2 bits per cell in row-major order (0 empty, 1 X, 2 O), then 1 bit for the player to move
+// (0 X, 1 O) and 3 bits for the result (GameState.State ordinal), least significant bit first.
+//
+// Client to server, one byte per message: the encoded move (row * cols + col), VOTE_YES, RESYNC or PONG.
+final class BinaryProtocol {
+    static final int CLASSIC_STATE = 1;
+    static final int STATE = 2;
+    static final int REMATCH = 3;
+    static final int MOVE = 4;
+    static final int PING = 5;
+    static final int VOTE_YES = 0xFF;
+    static final int RESYNC = 0xFE;
+    static final int PONG = 0xFD;
+    static final int MAX_CELLS = 0xFD;  // larger boards cannot encode their moves in a byte and stay on text
+
+    private static final char[] MARKS = {'-', 'X', 'O'};
+    private static final GameState.State[] STATES = GameState.State.values();
+
+    private BinaryProtocol() {
+    }
+
+    static boolean supports(int rows, int cols) {
+        return rows * cols <= MAX_CELLS;
+    }
+
+    // Complete frame for a state, type byte included
+    static byte[] encodeState(GameState state) {
+        int rows = state.getRows();
+        int cols = state.getCols();
+        int cells = rows * cols;
+        boolean classic = rows == 3 && cols == 3 && state.getWinLength() == 3;
+        int header = classic ? 1 : 4;
+        byte[] frame = new byte[header + packedBytes(cells)];
+        frame[0] = (byte) (classic ? CLASSIC_STATE : STATE);
+        if (!classic) {
+            frame[1] = (byte) rows;
+            frame[2] = (byte) cols;
+            frame[3] = (byte) state.getWinLength();
+        }
+        int bit = header * 8;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++, bit += 2) {
+                char mark = state.getMark(row, col);
+                setBits(frame, bit, mark == 'X' ? 1 : mark == 'O' ? 2 : 0);
+            }
+        }
+        setBits(frame, bit, state.getCurrentPlayer() == 'O' ? 1 : 0);
+        setBits(frame, bit + 1, state.getState().ordinal());
+        return frame;
+    }
+
+    private static int packedBytes(int cells) {
+        return (cells * 2 + 4 + 7) / 8;
+    }
+
+    // Decodes state frames for one connection, reusing its scratch buffers across frames
+    static final class StateReader {
+        private char[][] board = new char[3][3];
+        private byte[] packed = new byte[packedBytes(9)];
+
+        // Reads the rest of a state frame whose type byte has already been read
+        GameState read(int type, InputStream in) throws IOException {
+            int rows = 3;
+            int cols = 3;
+            int winLength = 3;
+            if (type == STATE) {
+                rows = readByte(in);
+                cols = readByte(in);
+                winLength = readByte(in);
+            }
+            if (board.length != rows || board[0].length != cols) {
+                board = new char[rows][cols];
+                packed = new byte[packedBytes(rows * cols)];
+            }
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = (byte) readByte(in);
+            }
+            int bit = 0;
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++, bit += 2) {
+                    board[row][col] = MARKS[getBits(packed, bit, 2) % MARKS.length];
+                }
+            }
+            char currentPlayer = getBits(packed, bit, 1) == 0 ? 'X' : 'O';
+            GameState.State state = STATES[getBits(packed, bit + 1, 3) % STATES.length];
+            return GameState.of(board, currentPlayer, winLength, state);  // interned, so a repeat allocates nothing
+        }
+    }
+
+    private static void setBits(byte[] frame, int bit, int value) {
+        for (; value != 0; value >>>= 1, bit++) {
+            if ((value & 1) != 0) {
+                frame[bit >>> 3] |= (byte) (1 << (bit & 7));
+            }
+        }
+    }
+
+    private static int getBits(byte[] packed, int bit, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++, bit++) {
+            value |= ((packed[bit >>> 3] >>> (bit & 7)) & 1) << i;
+        }
+        return value;
+    }
+
+    static int readByte(InputStream in) throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException("Connection closed in the middle of a frame");
+        }
+        return value;
+    }
+}
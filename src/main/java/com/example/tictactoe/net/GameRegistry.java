@@ -0,0 +1,47 @@
+package com.example.tictactoe.net;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// All live matches of the NIO server by id, plus the queue of matches with an empty seat.
+// New connections fill empty seats first (a dropped player's replacement, or the second player of a fresh match)
+// before a new match is opened.
+final class GameRegistry {
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final Queue<Match> vacancies = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    // Opens a match on the given loop; its second seat is offered to the next connection
+    Match create(NioEventLoop loop, int rows, int cols, int winLength) {
+        Match match = new Match(ids.incrementAndGet(), this, loop, rows, cols, winLength);
+        matches.put(match.getId(), match);
+        vacancies.add(match);
+        return match;
+    }
+
+    // A match with an empty seat, or null; matches that closed while queued are skipped
+    Match pollVacancy() {
+        Match match;
+        while ((match = vacancies.poll()) != null) {
+            if (!match.isClosed()) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    void offerVacancy(Match match) {
+        vacancies.add(match);
+    }
+
+    void remove(Match match) {
+        matches.remove(match.getId());
+    }
+
+    int size() {
+        return matches.size();
+    }
+}
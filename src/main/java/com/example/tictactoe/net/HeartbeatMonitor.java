@@ -0,0 +1,113 @@
+package com.example.tictactoe.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Liveness of the player connections that took up heartbeats at the handshake (see Protocol.HEARTBEAT_OFFER).
+// One round on the shared TimingWheel serves every connection of every game: each interval it pings, through their
+// outboxes, the connections not heard from during the last interval, and closes any not heard from within the
+// timeout, which ends its reader and so tells its game the player is gone. Anything a player sends counts as hearing
+// from it, the pong to a ping included, so a player may think as long as it likes while its client answers, and a
+// dead peer is noticed within the timeout plus one interval and a wheel tick, under a second with the defaults.
+// Players in a lively game are heard from often and their moves are answered with states, which keep the client side
+// alive as well, so pings mostly go to players waiting on their opponent.
+public final class HeartbeatMonitor {
+    public static final long DEFAULT_INTERVAL_MILLIS = 200;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 600;
+
+    private static final HeartbeatMonitor SHARED = new HeartbeatMonitor();
+
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+    private volatile long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private boolean started;  // rounds are scheduled from the first watch on
+
+    private HeartbeatMonitor() {
+    }
+
+    // The monitor all games share
+    public static HeartbeatMonitor shared() {
+        return SHARED;
+    }
+
+    // Applies to connections that shake hands from now on; the timeout should span a few intervals
+    public void configure(long intervalMillis, long timeoutMillis) {
+        if (intervalMillis <= 0 || timeoutMillis <= intervalMillis) {
+            throw new IllegalArgumentException("The heartbeat timeout must be longer than a positive interval");
+        }
+        this.intervalMillis = intervalMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    // Connections currently watched
+    public int size() {
+        return watches.size();
+    }
+
+    // Starts pinging the player through the outbox; the connection is closed if the player goes quiet
+    Watch watch(PlayerOutbox outbox, Closeable connection, String name) {
+        Watch watch = new Watch(outbox, connection, name);
+        watches.add(watch);
+        ensureStarted();
+        return watch;
+    }
+
+    private synchronized void ensureStarted() {
+        if (!started) {
+            started = true;
+            TimingWheel.shared().schedule(intervalMillis, this::round);
+        }
+    }
+
+    // Runs on the wheel thread; pinging only queues, and closing a socket does not block
+    private void round() {
+        long now = System.nanoTime();
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        for (Watch watch : watches) {
+            long silence = now - watch.lastHeard;
+            if (silence > watch.timeoutNanos) {
+                System.err.println(watch.name + " missed its heartbeats, closing the connection");
+                watch.cancel();
+                try {
+                    watch.connection.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing silent connection: " + e.getMessage());
+                }
+            } else if (silence >= quietNanos) {
+                watch.outbox.sendHeartbeat();
+            }
+        }
+        TimingWheel.shared().schedule(intervalMillis, this::round);
+    }
+
+    // One watched connection; its reader calls heard() for every message
+    final class Watch {
+        private final PlayerOutbox outbox;
+        private final Closeable connection;
+        private final String name;
+        private final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        private volatile long lastHeard = System.nanoTime();
+
+        private Watch(PlayerOutbox outbox, Closeable connection, String name) {
+            this.outbox = outbox;
+            this.connection = connection;
+            this.name = name;
+        }
+
+        void heard() {
+            lastHeard = System.nanoTime();
+        }
+
+        // Stops watching, e.g. when the connection is replaced or the game is over
+        void cancel() {
+            watches.remove(this);
+        }
+    }
+}
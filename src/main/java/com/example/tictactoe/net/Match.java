@@ -0,0 +1,242 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+
+import java.nio.ByteBuffer;
+
+// One game between two seats on the NIO server. It follows the same protocol as TicTacToeServer, but is driven
+// purely by events from its loop (lines, disconnects and the deadline sweep), so it never blocks or sleeps.
+final class Match {
+    static final long MOVE_TIMEOUT_MILLIS = 10_000;  // same inactivity limit as TicTacToeServer
+    static final long REMATCH_WINDOW_MILLIS = 10_000;
+
+    private static final char[] MARKS = {'X', 'O'};
+    private static final ByteBuffer[] ASSIGNMENTS = {
+            Protocol.frame(Protocol.PLAYER_ASSIGNMENT + MARKS[0]),
+            Protocol.frame(Protocol.PLAYER_ASSIGNMENT + MARKS[1])
+    };
+    private static final ByteBuffer REMATCH = Protocol.frame(Protocol.REMATCH);
+
+    enum Phase {
+        WAITING,  // a seat is empty or not acknowledged yet
+        PLAYING,
+        REMATCH,
+        CLOSED
+    }
+
+    private final long id;
+    private final GameRegistry registry;
+    private final NioEventLoop loop;
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final NioConnection[] seats = new NioConnection[2];
+    private final boolean[] acknowledged = new boolean[2];
+    private final boolean[] votes = new boolean[2];
+    private Game game;
+    private GameState state;
+    private volatile Phase phase = Phase.WAITING;
+    private long deadline = Long.MAX_VALUE;
+    private GameState framedState;
+    private ByteBuffer stateFrame;
+
+    Match(long id, GameRegistry registry, NioEventLoop loop, int rows, int cols, int winLength) {
+        this.id = id;
+        this.registry = registry;
+        this.loop = loop;
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.game = new Game(rows, cols, winLength);
+        this.state = GameState.of(game, true);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    NioEventLoop getLoop() {
+        return loop;
+    }
+
+    boolean isClosed() {
+        return phase == Phase.CLOSED;
+    }
+
+    boolean hasVacancy() {
+        return phase != Phase.CLOSED && (seats[0] == null || seats[1] == null);
+    }
+
+    // Seats the connection in the first empty seat; false if the match has no room (or has ended)
+    boolean join(NioConnection connection) {
+        if (!hasVacancy()) {
+            return false;
+        }
+        int seat = seats[0] == null ? 0 : 1;
+        loop.add(this);
+        seats[seat] = connection;
+        acknowledged[seat] = false;
+        connection.attach(this, seat);
+        connection.send(ASSIGNMENTS[seat].duplicate());
+        return true;
+    }
+
+    void onLine(NioConnection connection, String line) {
+        int seat = connection.seat();
+        if (seats[seat] != connection) {
+            return;
+        }
+        if (line.startsWith(Protocol.ERROR)) {
+            System.err.println("Player " + MARKS[seat] + " in game " + id + " reported " + line);
+            leave(seat);
+            return;
+        }
+        if (!acknowledged[seat]) {
+            if (line.equals(Protocol.ACKNOWLEDGED)) {
+                acknowledged[seat] = true;
+                if (phase == Phase.WAITING && isSeated(0) && isSeated(1)) {
+                    start();
+                }
+            }
+            return;
+        }
+        if (phase == Phase.PLAYING) {
+            move(seat, line);
+        } else if (phase == Phase.REMATCH) {
+            vote(seat, line);
+        }
+    }
+
+    void onDisconnect(NioConnection connection) {
+        int seat = connection.seat();
+        if (phase != Phase.CLOSED && seats[seat] == connection) {
+            leave(seat);
+        }
+    }
+
+    void onTick(long now) {
+        if (now < deadline) {
+            return;
+        }
+        if (phase == Phase.PLAYING) {
+            // Same as TicTacToeServer: the player to move is dropped and the seat waits for a reconnect
+            int seat = game.getCurrentPlayer() == MARKS[0] ? 0 : 1;
+            System.out.println("Player " + MARKS[seat] + " in game " + id + " timed out");
+            leave(seat);
+        } else if (phase == Phase.REMATCH) {
+            close();
+        }
+    }
+
+    private boolean isSeated(int seat) {
+        return seats[seat] != null && acknowledged[seat];
+    }
+
+    private void start() {
+        state = GameState.of(game, false);
+        broadcastState();
+        if (isGameEnd()) {
+            offerRematch();
+        } else {
+            phase = Phase.PLAYING;
+            deadline = loop.now() + MOVE_TIMEOUT_MILLIS;
+        }
+    }
+
+    private void move(int seat, String line) {
+        if (game.getCurrentPlayer() != MARKS[seat]) {
+            System.err.println("Move out of turn by player " + MARKS[seat] + " in game " + id);
+            return;
+        }
+        int move = Protocol.parseMove(line, rows, cols);
+        if (move < 0 || !game.placeMark(move)) {
+            System.err.println("Invalid move by player " + MARKS[seat] + " in game " + id + ": " + line);
+            return;
+        }
+        game.changePlayer();
+        state = GameState.of(game, false);
+        broadcastState();
+        if (isGameEnd()) {
+            offerRematch();
+        } else {
+            deadline = loop.now() + MOVE_TIMEOUT_MILLIS;
+        }
+    }
+
+    private boolean isGameEnd() {
+        return game.checkForWin() || game.checkForLose() || game.isBoardFull();
+    }
+
+    private void offerRematch() {
+        phase = Phase.REMATCH;
+        votes[0] = false;
+        votes[1] = false;
+        broadcast(REMATCH);
+        deadline = loop.now() + REMATCH_WINDOW_MILLIS;
+    }
+
+    private void vote(int seat, String line) {
+        if (!line.equalsIgnoreCase(Protocol.VOTE_YES)) {
+            return;
+        }
+        votes[seat] = true;
+        if (votes[0] && votes[1]) {
+            game = new Game(rows, cols, winLength);
+            start();
+        }
+    }
+
+    // Frees the seat; the other player is told the game is waiting and the seat is offered to new connections
+    private void leave(int seat) {
+        NioConnection connection = seats[seat];
+        seats[seat] = null;
+        acknowledged[seat] = false;
+        connection.close();
+        if (phase == Phase.REMATCH || (seats[0] == null && seats[1] == null)) {
+            close();
+            return;
+        }
+        phase = Phase.WAITING;
+        deadline = Long.MAX_VALUE;
+        registry.offerVacancy(this);  // before telling anyone, so a player reacting to the news finds the seat
+        state = GameState.of(game, true);
+        broadcastState();
+    }
+
+    void close() {
+        if (phase == Phase.CLOSED) {
+            return;
+        }
+        phase = Phase.CLOSED;
+        for (int seat = 0; seat < seats.length; seat++) {
+            if (seats[seat] != null) {
+                seats[seat].close();
+                seats[seat] = null;
+            }
+        }
+        loop.remove(this);
+        registry.remove(this);
+    }
+
+    private void broadcastState() {
+        broadcast(stateFrame());
+    }
+
+    private void broadcast(ByteBuffer frame) {
+        for (NioConnection seat : seats) {
+            if (seat != null) {
+                seat.send(frame.duplicate());
+            }
+        }
+    }
+
+    // Interned states repeat, so the encoded frame is rebuilt only when the state instance changes
+    private ByteBuffer stateFrame() {
+        if (state != framedState) {
+            stateFrame = Protocol.frame(Protocol.STATE + state.compress());
+            framedState = state;
+        }
+        return stateFrame;
+    }
+}
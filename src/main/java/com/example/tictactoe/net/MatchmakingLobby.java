@@ -0,0 +1,66 @@
+package com.example.tictactoe.net;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Pairs arriving players into new games as soon as two are there. Every second arrival pairs with the one already
+// waiting, so the waiting room never holds more than one player: it is a single slot that arrivals fill or empty
+// with compare-and-set, and no arrival ever takes a lock, however many threads hand players in at once.
+// Each pair gets a game id and is handed to the shard that id hashes to, so the shards' game tables split the load.
+public final class MatchmakingLobby<P> {
+
+    // Where paired players go; called on the thread whose arrival completed the pair
+    @FunctionalInterface
+    public interface Shard<P> {
+        void startGame(long gameId, P first, P second);
+    }
+
+    private final AtomicReference<P> waiting = new AtomicReference<>();
+    private final AtomicLong gameIds = new AtomicLong();
+    private final List<? extends Shard<P>> shards;
+
+    public MatchmakingLobby(List<? extends Shard<P>> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    // Pairs the player with the one waiting, or leaves it waiting for the next arrival
+    public void arrive(P player) {
+        while (true) {
+            P other = waiting.get();
+            if (other == null) {
+                if (waiting.compareAndSet(null, player)) {
+                    return;
+                }
+            } else if (waiting.compareAndSet(other, null)) {
+                long gameId = gameIds.incrementAndGet();
+                shardOf(gameId).startGame(gameId, other, player);
+                return;
+            }
+        }
+    }
+
+    // Takes the player back out if it is still waiting, e.g. because it disconnected
+    public boolean leave(P player) {
+        return waiting.compareAndSet(player, null);
+    }
+
+    // Empties the waiting room; returns the player who was waiting, or null
+    public P clear() {
+        return waiting.getAndSet(null);
+    }
+
+    public Shard<P> shardOf(long gameId) {
+        // Game ids are sequential; mix them so consecutive games spread over the shards whatever their number
+        long hash = gameId * 0x9E3779B97F4A7C15L;
+        return shards.get(Math.floorMod((int) (hash ^ hash >>> 32), shards.size()));
+    }
+
+    // Games paired so far
+    public long getGamesStarted() {
+        return gameIds.get();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.tictactoe.net;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+// Framing for a connection that carries many player sessions at once, spoken on the game host's multiplex port
+// (see TicTacToeGameHost.openMultiplexPort and MultiplexedClient). Every frame is a type byte, the session id as a
+// 4-byte int and the payload length as an unsigned short, all big-endian, followed by the payload:
+//   OPEN   client to server: a new player session with an id the client has not used before on this connection
+//   DATA   either way: the next bytes of the session's stream, which is the ordinary line protocol of a game
+//   CLOSE  either way: the session is over; a CLOSE for a session already closed is ignored
+// OPEN and CLOSE have no payload. Each session is paired and played exactly like a connection of its own.
+final class MultiplexProtocol {
+    static final int OPEN = 1;
+    static final int DATA = 2;
+    static final int CLOSE = 3;
+    static final int HEADER_BYTES = 7;
+    static final int MAX_PAYLOAD = 0xFFFF;
+
+    private MultiplexProtocol() {
+    }
+
+    static byte[] frame(int type, int session, byte[] data, int offset, int length) {
+        byte[] frame = new byte[HEADER_BYTES + length];
+        frame[0] = (byte) type;
+        frame[1] = (byte) (session >>> 24);
+        frame[2] = (byte) (session >>> 16);
+        frame[3] = (byte) (session >>> 8);
+        frame[4] = (byte) session;
+        frame[5] = (byte) (length >>> 8);
+        frame[6] = (byte) length;
+        System.arraycopy(data, offset, frame, HEADER_BYTES, length);
+        return frame;
+    }
+
+    static byte[] frame(int type, int session) {
+        return frame(type, session, new byte[0], 0, 0);
+    }
+
+    // Decodes frames one at a time from a blocking stream; the fields describe the last frame read
+    static final class FrameReader {
+        private final DataInputStream in;
+        int type;
+        int session;
+        byte[] payload;
+
+        FrameReader(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        // False once the stream ends between frames
+        boolean next() throws IOException {
+            type = in.read();
+            if (type < 0) {
+                return false;
+            }
+            try {
+                session = in.readInt();
+                payload = new byte[in.readUnsignedShort()];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                throw new IOException("Connection closed in the middle of a frame");
+            }
+            return true;
+        }
+    }
+
+    // The sending side shared by all sessions of a connection. Sessions only queue frames; one thread writes
+    // whatever has piled up and flushes once, so many sessions answering at once cost a single write.
+    static final class FrameWriter {
+        private static final byte[] END = new byte[0];
+
+        private final OutputStream out;  // should be buffered
+        private final LinkedBlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        FrameWriter(OutputStream out, ThreadFactory threadFactory) {
+            this.out = out;
+            threadFactory.newThread(this::writeFrames).start();
+        }
+
+        // Splits the data into as many DATA frames as it needs
+        void send(int session, byte[] data, int offset, int length) throws IOException {
+            do {
+                int chunk = Math.min(length, MAX_PAYLOAD);
+                send(frame(DATA, session, data, offset, chunk));
+                offset += chunk;
+                length -= chunk;
+            } while (length > 0);
+        }
+
+        void send(byte[] frame) throws IOException {
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+            frames.add(frame);
+        }
+
+        // Stops once the frames already queued are written, then closes the stream
+        void close() {
+            closed = true;
+            frames.add(END);
+        }
+
+        private void writeFrames() {
+            List<byte[]> batch = new ArrayList<>();
+            try {
+                while (true) {
+                    batch.add(frames.take());
+                    frames.drainTo(batch);
+                    for (byte[] frame : batch) {
+                        if (frame == END) {
+                            out.flush();
+                            return;
+                        }
+                        out.write(frame);
+                    }
+                    out.flush();
+                    batch.clear();
+                }
+            } catch (IOException e) {
+                // The peer is gone; the reading side notices and ends the sessions
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closed = true;
+                frames.clear();
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing multiplexed connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
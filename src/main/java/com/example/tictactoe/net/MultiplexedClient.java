@@ -0,0 +1,171 @@
+package com.example.tictactoe.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Plays many games over one connection to a TicTacToeGameHost's multiplex port (see MultiplexProtocol), for bot farms
+// and load generators that would otherwise need a socket and a reader thread per player. A single I/O thread reads
+// the frames and calls each session's handler with the lines meant for it, so handlers must not block; they reply
+// through their session, whose writes are queued and sent in batches.
+// Sessions speak the text line protocol, so handlers should leave the binary offer alone; delta updates are fine.
+public final class MultiplexedClient implements Closeable {
+
+    // Reacts to one session's lines; called on the client's I/O thread, one line at a time
+    public interface SessionHandler {
+        void onLine(Session session, String line);
+
+        // The server ended the session or the connection was lost; not called after Session.close()
+        default void onClose(Session session) {
+        }
+    }
+
+    private final Socket socket;
+    private final MultiplexProtocol.FrameWriter writer;
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public MultiplexedClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.writer = new MultiplexProtocol.FrameWriter(new BufferedOutputStream(socket.getOutputStream()),
+                Thread.ofPlatform().name("mux-writer").daemon().factory());
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        Thread.ofPlatform().name("mux-reader").daemon().start(() -> readFrames(in));
+    }
+
+    // Opens a session, which the host seats like a new connection: the handler's first lines are the offers and
+    // the player assignment of its game
+    public Session open(SessionHandler handler) throws IOException {
+        Session session = new Session(nextId.incrementAndGet(), handler);
+        sessions.put(session.id, session);
+        try {
+            writer.send(MultiplexProtocol.frame(MultiplexProtocol.OPEN, session.id));
+        } catch (IOException e) {
+            sessions.remove(session.id);
+            throw e;
+        }
+        return session;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public boolean isConnected() {
+        return !closed.get();
+    }
+
+    private void readFrames(InputStream in) {
+        MultiplexProtocol.FrameReader frames = new MultiplexProtocol.FrameReader(in);
+        try {
+            while (frames.next()) {
+                Session session = sessions.get(frames.session);
+                if (session == null) {
+                    continue;  // closed on this side while the frame was on its way
+                }
+                if (frames.type == MultiplexProtocol.DATA) {
+                    session.receive(frames.payload);
+                } else if (frames.type == MultiplexProtocol.CLOSE) {
+                    sessions.remove(session.id);
+                    session.handler.onClose(session);
+                } else {
+                    throw new IOException("Unexpected frame type from server: " + frames.type);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed.get()) {
+                System.err.println("Multiplexed connection lost: " + e.getMessage());
+            }
+        }
+        boolean lost = !closed.get();
+        close();
+        if (lost) {
+            for (Session session : sessions.values()) {
+                session.handler.onClose(session);
+            }
+        }
+        sessions.clear();
+    }
+
+    // Closes the connection, and with it every session
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        writer.close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing multiplexed connection: " + e.getMessage());
+        }
+    }
+
+    // One player on the connection
+    public final class Session {
+        private final int id;
+        private final SessionHandler handler;
+        private final StringBuilder line = new StringBuilder();  // only touched by the I/O thread
+
+        private Session(int id, SessionHandler handler) {
+            this.id = id;
+            this.handler = handler;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        // Sends one line of the game protocol, e.g. a move as "row,col"
+        public void send(String message) throws IOException {
+            if (!sessions.containsKey(id)) {
+                throw new IOException("Session " + id + " is closed");
+            }
+            byte[] bytes = (message + "\n").getBytes(StandardCharsets.US_ASCII);
+            writer.send(id, bytes, 0, bytes.length);
+        }
+
+        // Leaves the game, as closing a socket would
+        public void close() {
+            if (sessions.remove(id) == null) {
+                return;
+            }
+            try {
+                writer.send(MultiplexProtocol.frame(MultiplexProtocol.CLOSE, id));
+            } catch (IOException e) {
+                // The whole connection is closed already
+            }
+        }
+
+        // Hands every complete line to the handler, as long as it keeps the session open
+        private void receive(byte[] data) {
+            for (byte b : data) {
+                if (b == '\n') {
+                    String received = line.toString();
+                    line.setLength(0);
+                    try {
+                        handler.onLine(this, received);
+                    } catch (RuntimeException e) {
+                        System.err.println("Session " + id + " failed: " + e.getMessage());
+                        close();  // one broken handler must not take the connection's other sessions with it
+                    }
+                    if (!sessions.containsKey(id)) {
+                        return;
+                    }
+                } else if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.tictactoe.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Server end of a connection carrying many player sessions (see MultiplexProtocol). A single thread reads the frames
+// and hands each session's bytes to its stream; every session opened is passed on as a PlayerConnection of its own,
+// so the games played over it cannot tell it from a socket.
+final class MultiplexedConnection {
+    private static final byte[] END = new byte[0];
+    private static final int MAX_SESSION_BACKLOG = 64 * 1024;  // bytes received for a session and not yet read
+
+    private final Socket socket;
+    private final Consumer<PlayerConnection> arrivals;
+    private final Consumer<PlayerConnection> departures;
+    private final Consumer<MultiplexedConnection> onClose;
+    private final ThreadFactory threadFactory;
+    private final MultiplexProtocol.FrameWriter writer;
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // Every session opened is passed to arrivals, and again to departures once it ends, whoever ended it
+    MultiplexedConnection(Socket socket, Consumer<PlayerConnection> arrivals, Consumer<PlayerConnection> departures,
+                          Consumer<MultiplexedConnection> onClose, ThreadFactory threadFactory) throws IOException {
+        this.socket = socket;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.onClose = onClose;
+        this.threadFactory = threadFactory;
+        this.writer = new MultiplexProtocol.FrameWriter(new BufferedOutputStream(socket.getOutputStream()),
+                threadFactory);
+    }
+
+    void start() throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        threadFactory.newThread(() -> readFrames(in)).start();
+    }
+
+    int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void readFrames(InputStream in) {
+        MultiplexProtocol.FrameReader frames = new MultiplexProtocol.FrameReader(in);
+        try {
+            while (frames.next()) {
+                int id = frames.session;
+                switch (frames.type) {
+                    case MultiplexProtocol.OPEN -> open(id);
+                    case MultiplexProtocol.DATA -> {
+                        Session session = sessions.get(id);
+                        if (session != null && frames.payload.length > 0) {
+                            session.receive(frames.payload);
+                        }
+                    }
+                    case MultiplexProtocol.CLOSE -> {
+                        Session session = sessions.get(id);
+                        if (session != null) {
+                            session.end(false);
+                        }
+                    }
+                    default -> throw new IOException("Unknown frame type: " + frames.type);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed.get()) {
+                System.err.println("Multiplexed connection failed: " + e.getMessage());
+            }
+        }
+        close();
+    }
+
+    private void open(int id) {
+        Session session = new Session(id);
+        if (sessions.putIfAbsent(id, session) != null) {
+            System.err.println("Ignoring a second session " + id + " on a multiplexed connection");
+            return;
+        }
+        arrivals.accept(session);
+    }
+
+    // Ends every session, as if each player had disconnected, and closes the socket
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (Session session : sessions.values()) {
+            session.end(false);
+        }
+        writer.close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing multiplexed connection: " + e.getMessage());
+        }
+        onClose.accept(this);
+    }
+
+    // One player's share of the connection. The reading thread queues the bytes received for it, so a session that
+    // is slow to read never holds up the others; one whose client sends far more than its game reads, or sends to
+    // a game that is not reading, is closed once its backlog passes MAX_SESSION_BACKLOG.
+    private final class Session implements PlayerConnection {
+        private final int id;
+        private final LinkedBlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private final InputStream in = new SessionInput();
+        private final OutputStream out = new SessionOutput();
+
+        Session(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return out;
+        }
+
+        @Override
+        public void close() {
+            end(true);
+        }
+
+        // Called by the reading thread only
+        private void receive(byte[] payload) {
+            if (backlog.addAndGet(payload.length) > MAX_SESSION_BACKLOG) {
+                System.err.println("Closing session " + id + ", which sent more than its game reads");
+                end(true);
+                return;
+            }
+            received.add(payload);
+        }
+
+        // Readers see the end of the stream once the bytes already received are read; the client is told
+        // unless it was the one to close
+        private void end(boolean notify) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            sessions.remove(id);
+            received.add(END);
+            departures.accept(this);
+            if (notify) {
+                try {
+                    writer.send(MultiplexProtocol.frame(MultiplexProtocol.CLOSE, id));
+                } catch (IOException e) {
+                    // The whole connection is closed already
+                }
+            }
+        }
+
+        private final class SessionInput extends InputStream {
+            private byte[] chunk = new byte[0];
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (!fill()) {
+                    return -1;
+                }
+                return chunk[position++] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int count = Math.min(length, chunk.length - position);
+                System.arraycopy(chunk, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return chunk.length - position;
+            }
+
+            @Override
+            public void close() {
+                Session.this.close();
+            }
+
+            // Waits for the next chunk if the current one is used up; false at the end of the stream
+            private boolean fill() throws IOException {
+                if (chunk == END) {
+                    return false;
+                }
+                while (position == chunk.length) {
+                    try {
+                        chunk = received.take();
+                        backlog.addAndGet(-chunk.length);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while reading session " + id);
+                    }
+                    position = 0;
+                    if (chunk == END) {
+                        received.add(END);  // any other reader sees the end too
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        private final class SessionOutput extends OutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                if (ended.get()) {
+                    throw new IOException("Session " + id + " is closed");
+                }
+                if (length > 0) {
+                    writer.send(id, buffer, offset, length);
+                }
+            }
+
+            @Override
+            public void close() {
+                Session.this.close();
+            }
+        }
+    }
+}
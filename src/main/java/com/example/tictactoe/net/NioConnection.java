@@ -0,0 +1,136 @@
+package com.example.tictactoe.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+// One client socket on an NioEventLoop: splits incoming bytes into protocol lines and queues outgoing frames.
+// Only ever touched by its loop's thread.
+final class NioConnection {
+    private static final int READ_BUFFER_BYTES = 512;
+    private static final int MAX_LINE = 256;  // longer lines are not part of the protocol
+
+    private final NioEventLoop loop;
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private final StringBuilder line = new StringBuilder();
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+    private SelectionKey key;
+    private Match match;
+    private int seat;
+    private boolean closed;
+
+    NioConnection(NioEventLoop loop, SocketChannel channel) {
+        this.loop = loop;
+        this.channel = channel;
+    }
+
+    void register(SelectionKey key) {
+        this.key = key;
+    }
+
+    void attach(Match match, int seat) {
+        this.match = match;
+        this.seat = seat;
+    }
+
+    int seat() {
+        return seat;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    // Queues a frame and writes as much as the socket takes now; the rest goes out on OP_WRITE
+    void send(ByteBuffer frame) {
+        if (closed) {
+            return;
+        }
+        boolean idle = outbound.isEmpty();
+        outbound.add(frame);
+        if (idle) {
+            flush();
+        }
+    }
+
+    void flush() {
+        try {
+            while (!outbound.isEmpty()) {
+                ByteBuffer head = outbound.peek();
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbound.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            // Writes can fail in the middle of a broadcast; report the loss once the broadcast is over
+            close();
+            loop.execute(this::disconnected);
+        }
+    }
+
+    void read() {
+        int count;
+        try {
+            count = channel.read(readBuffer);
+        } catch (IOException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            disconnected();
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !closed) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String received = line.toString();
+                line.setLength(0);
+                if (match != null) {
+                    match.onLine(this, received);
+                }
+            } else if (b != '\r') {
+                if (line.length() == MAX_LINE) {
+                    System.err.println("Dropping connection that sent an oversized line");
+                    disconnected();
+                    return;
+                }
+                line.append((char) b);
+            }
+        }
+        readBuffer.clear();
+    }
+
+    private void disconnected() {
+        if (match != null) {
+            match.onDisconnect(this);
+        }
+        close();
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        outbound.clear();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+}
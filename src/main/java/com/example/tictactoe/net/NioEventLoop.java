@@ -0,0 +1,143 @@
+package com.example.tictactoe.net;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// A single-threaded selector loop owning a share of the server's connections and matches.
+// Everything a match does happens on its loop's thread, so matches need no locking; other threads hand
+// work over with execute().
+final class NioEventLoop implements Runnable {
+    private static final long TICK_MILLIS = 100;  // granularity of the move and rematch deadlines
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Set<Match> matches = new HashSet<>();
+    private volatile boolean running = true;
+    private long now;
+    private long nextSweep;
+
+    NioEventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.now = currentMillis();
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // Runs the task on the loop thread
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    // Loop clock in milliseconds, read once per iteration
+    long now() {
+        return now;
+    }
+
+    // Takes over a freshly accepted channel; must be called on the loop thread
+    NioConnection register(SocketChannel channel) throws IOException {
+        NioConnection connection = new NioConnection(this, channel);
+        connection.register(channel.register(selector, SelectionKey.OP_READ, connection));
+        return connection;
+    }
+
+    void add(Match match) {
+        matches.add(match);
+    }
+
+    void remove(Match match) {
+        matches.remove(match);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(TICK_MILLIS);
+                now = currentMillis();
+                runTasks();
+                processKeys();
+                if (now >= nextSweep) {
+                    sweepDeadlines();
+                    nextSweep = now + TICK_MILLIS;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("Event loop " + thread.getName() + " failed: " + e.getMessage());
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void processKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            NioConnection connection = (NioConnection) key.attachment();
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                connection.read();
+            }
+        }
+    }
+
+    private void sweepDeadlines() {
+        // Matches may close while being swept, so walk a copy
+        for (Match match : new ArrayList<>(matches)) {
+            match.onTick(now);
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    void join(long timeoutMillis) throws InterruptedException {
+        thread.join(timeoutMillis);
+    }
+
+    private void closeAll() {
+        for (Match match : new ArrayList<>(matches)) {
+            match.close();
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((NioConnection) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing selector: " + e.getMessage());
+        }
+    }
+
+    private static long currentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tictactoe.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+// A player's byte streams to a TicTacToeServer game: a socket of its own, or one session of a multiplexed connection
+// (see MultiplexProtocol). Closing either stream, or the connection, ends it.
+interface PlayerConnection extends Closeable {
+    InputStream getInputStream() throws IOException;
+
+    OutputStream getOutputStream() throws IOException;
+
+    static PlayerConnection of(Socket socket) {
+        return new PlayerConnection() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return socket.getInputStream();
+            }
+
+            @Override
+            public OutputStream getOutputStream() throws IOException {
+                return socket.getOutputStream();
+            }
+
+            @Override
+            public void close() throws IOException {
+                socket.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Outbound messages for one player of a TicTacToeServer game. The game thread only queues; a sender thread encodes
+// whatever has piled up in one batch and flushes once, so a slow client never stalls the game.
+// States coalesce: a newer state replaces one still waiting in the queue, and a state equal to the last one
+// queued is dropped. Rematch offers are always sent, in order.
+// A delta outbox sends moves as move events instead of snapshots. Those never coalesce, as the client needs every
+// one of them, but a move made while a snapshot is still queued just replaces that snapshot with a newer one.
+// Heartbeat pings stand outside the queue: at most one is pending, and it goes out first in the next batch.
+final class PlayerOutbox {
+    private static final Object REMATCH = new Object();
+    private static final Object PING = new Object();  // only ever at the head of a batch
+
+    // How queued messages reach the client: text lines or binary frames
+    interface Encoder {
+        void state(GameState state) throws IOException;
+
+        // The seq-th move of the game, encoded as row * cols + col; after is the state it leads to
+        void move(int seq, int move, GameState after) throws IOException;
+
+        void rematch() throws IOException;
+
+        void ping() throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private final Encoder encoder;
+    private final boolean delta;
+    private final ReentrantLock lock = new ReentrantLock();  // not synchronized, which would pin virtual threads
+    private final Condition ready = lock.newCondition();
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+    private boolean stateAtTail;  // the newest pending message is a state that can still be replaced
+    private boolean pingPending;
+    private GameState lastState;
+    private boolean closed;
+
+    PlayerOutbox(Encoder encoder, ThreadFactory threadFactory) {
+        this(encoder, false, threadFactory);
+    }
+
+    PlayerOutbox(Encoder encoder, boolean delta, ThreadFactory threadFactory) {
+        this.encoder = encoder;
+        this.delta = delta;
+        threadFactory.newThread(this::sendPending).start();
+    }
+
+    static Encoder text(PrintWriter out) {
+        return new Encoder() {
+            @Override
+            public void state(GameState state) {
+                out.println(Protocol.STATE + state.compress());
+            }
+
+            @Override
+            public void move(int seq, int move, GameState after) {
+                out.print(Protocol.MOVE);
+                out.print(seq);
+                out.print(':');
+                out.print(move / after.getCols());
+                out.print(',');
+                out.println(move % after.getCols());
+            }
+
+            @Override
+            public void rematch() {
+                out.println(Protocol.REMATCH);
+            }
+
+            @Override
+            public void ping() {
+                out.println(Protocol.PING);
+            }
+
+            @Override
+            public void flush() {
+                out.flush();
+            }
+
+            @Override
+            public void close() {
+                out.close();
+            }
+        };
+    }
+
+    // Binary frames; out should be buffered, as each frame is written separately
+    static Encoder binary(OutputStream out) {
+        return new Encoder() {
+            @Override
+            public void state(GameState state) throws IOException {
+                out.write(BinaryProtocol.encodeState(state));
+            }
+
+            @Override
+            public void move(int seq, int move, GameState after) throws IOException {
+                out.write(BinaryProtocol.MOVE);
+                out.write(seq);
+                out.write(move);
+            }
+
+            @Override
+            public void rematch() throws IOException {
+                out.write(BinaryProtocol.REMATCH);
+            }
+
+            @Override
+            public void ping() throws IOException {
+                out.write(BinaryProtocol.PING);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+        };
+    }
+
+    void sendState(GameState state) {
+        lock.lock();
+        try {
+            if (closed || state.equals(lastState)) {
+                return;
+            }
+            if (stateAtTail) {
+                pending.pollLast();  // superseded before it went out
+            }
+            pending.add(state);
+            stateAtTail = true;
+            lastState = state;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The state after the seq-th move; a delta outbox sends just the move
+    void sendMove(GameState after, int seq, int move) {
+        if (!delta) {
+            sendState(after);
+            return;
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (stateAtTail) {
+                pending.pollLast();
+                pending.add(after);  // the client has not seen the old snapshot yet, so it may as well get this one
+            } else {
+                pending.add(new MoveEvent(seq, move, after));
+            }
+            lastState = after;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A snapshot even if the client should already have this state, for a client that lost track of the game
+    void resend(GameState state) {
+        lock.lock();
+        try {
+            lastState = null;
+        } finally {
+            lock.unlock();
+        }
+        sendState(state);
+    }
+
+    void sendRematch() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            pending.add(REMATCH);
+            stateAtTail = false;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queued for HeartbeatMonitor; a ping still waiting to go out makes another one pointless
+    void sendHeartbeat() {
+        lock.lock();
+        try {
+            if (closed || pingPending) {
+                return;
+            }
+            pingPending = true;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops the sender once the messages already queued are written, then closes the encoder
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendPending() {
+        List<Object> batch = new ArrayList<>();
+        try {
+            while (takeBatch(batch)) {
+                if (batch.get(0) == PING) {
+                    encoder.ping();
+                    batch.remove(0);
+                }
+                for (Object message : batch) {
+                    if (message == REMATCH) {
+                        encoder.rematch();
+                    } else if (message instanceof MoveEvent event) {
+                        encoder.move(event.seq, event.move, event.after);
+                    } else {
+                        encoder.state((GameState) message);
+                    }
+                }
+                encoder.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            // The client is gone; the game notices through its reader or the move timeout
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;  // later messages have nowhere to go
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                encoder.close();
+            } catch (IOException e) {
+                System.err.println("Error closing player output: " + e.getMessage());
+            }
+        }
+    }
+
+    // Waits for messages and moves all of them into the batch; false once closed with nothing left to send
+    private boolean takeBatch(List<Object> batch) throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !pingPending && !closed) {
+                ready.await();
+            }
+            if (pingPending) {
+                batch.add(PING);
+                pingPending = false;
+            }
+            batch.addAll(pending);
+            pending.clear();
+            stateAtTail = false;
+            return !batch.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class MoveEvent {
+        final int seq;
+        final int move;
+        final GameState after;
+
+        MoveEvent(int seq, int move, GameState after) {
+            this.seq = seq;
+            this.move = move;
+            this.after = after;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+
+// The player side of a TicTacToeClient: the Swing TicTacToeGUI, or a headless bot for load tests.
+// Calls come from the client's connection thread, which also answers heartbeats and so must not be held up, except
+// sendBestMove, which it makes after the think time, and acceptRematch, which may block until the player decides.
+public interface PlayerView {
+    void setPlayerMark(char playerMark);
+
+    // A new state from the server, including the player's own moves coming back
+    void updateGUI(GameState gameState);
+
+    // Asked after each ongoing state; only plays (through the client) if it is this player's turn
+    void sendBestMove();
+
+    boolean acceptRematch();
+
+    void showErrorMessage(String message);
+}
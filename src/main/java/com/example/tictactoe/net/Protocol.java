@@ -0,0 +1,117 @@
+package com.example.tictactoe.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// The line protocol spoken between TicTacToeClient and the servers; every message is one '\n'-terminated line.
+// TicTacToeServer may switch a player to BinaryProtocol and to delta updates at the handshake: it sends its offers
+// before the assignment and the client names the ones it takes up after ACKNOWLEDGED, e.g. "Acknowledged binary delta".
+//
+// In delta mode a state snapshot is only sent when the game is joined, suspended, resumed or restarted, or when the
+// client asks for one with RESYNC. Each accepted move in between goes out as "MOVE:seq:row,col", where seq is the
+// number of marks on the board after the move, so a client that applied every move knows the next one is seq + 1.
+//
+// The heartbeat offer carries the server's timeout, e.g. "Heartbeat?600". A client that takes it up answers every
+// PING with a PONG and may assume the server is gone after that long without hearing from it; the server drops it
+// as soon as it goes quiet for that long or its connection ends (see HeartbeatMonitor), instead of waiting for the
+// move timeout that applies to clients without heartbeats.
+//
+// The session offer, e.g. "Session?3f9c...", carries a token for the seat being assigned; a client that takes it up
+// names SESSION in its acknowledgement, and its seat is then kept for it if it is lost, until the reconnect window
+// passes. It may open a new connection and send "Resume:<token>" with its options, e.g. "Resume:3f9c... delta
+// heartbeat", without waiting for the offers, which it then ignores along with the assignment. A host reads the
+// request as soon as it arrives and hands the connection straight to its game, paired or not. The server answers
+// "Resumed:X" (or "Error: ..." if the game is gone) and a snapshot, so the seat is back one round trip after the
+// handshake starts, with whatever moves were missed. A resumed connection always speaks lines, as the snapshot follows the
+// answer without a pause.
+final class Protocol {
+    static final String BINARY_OFFER = "Binary?";  // sent before the assignment; old clients ignore it
+    static final String DELTA_OFFER = "Delta?";
+    static final String HEARTBEAT_OFFER = "Heartbeat?";  // followed by the timeout in milliseconds
+    static final String SESSION_OFFER = "Session?";  // followed by the session token
+    static final String PLAYER_ASSIGNMENT = "You are player:";
+    static final String ACKNOWLEDGED = "Acknowledged";
+    static final String BINARY = "binary";  // acknowledgement options, one per offer taken up
+    static final String DELTA = "delta";
+    static final String HEARTBEAT = "heartbeat";
+    static final String SESSION = "session";
+    static final String ACKNOWLEDGED_BINARY = ACKNOWLEDGED + " " + BINARY;
+    static final String RESUME = "Resume:";  // followed by the token, then the options
+    static final String RESUMED = "Resumed:";  // followed by the player's mark
+    static final String STATE = "STATE:";
+    static final String MOVE = "MOVE:";
+    static final String RESYNC = "Resync";
+    static final String PING = "Ping";
+    static final String PONG = "Pong";
+    static final String REMATCH = "Rematch?";
+    static final String VOTE_YES = "Yes";
+    static final String ERROR = "Error:";
+    static final String WATCH = "Watch:";  // "Watch:<gameId>", the only line a spectator sends
+
+    private Protocol() {
+    }
+
+    static String acknowledgement(boolean binary, boolean delta) {
+        return acknowledgement(binary, delta, false);
+    }
+
+    static String acknowledgement(boolean binary, boolean delta, boolean heartbeat) {
+        return acknowledgement(binary, delta, heartbeat, false);
+    }
+
+    static String acknowledgement(boolean binary, boolean delta, boolean heartbeat, boolean session) {
+        return ACKNOWLEDGED + (binary ? " " + BINARY : "") + (delta ? " " + DELTA : "")
+                + (heartbeat ? " " + HEARTBEAT : "") + (session ? " " + SESSION : "");
+    }
+
+    static String resume(String token, boolean delta, boolean heartbeat) {
+        return RESUME + token + (delta ? " " + DELTA : "") + (heartbeat ? " " + HEARTBEAT : "");
+    }
+
+    // The token of a resume request
+    static String resumeToken(String resume) {
+        int space = resume.indexOf(' ');
+        return resume.substring(RESUME.length(), space < 0 ? resume.length() : space);
+    }
+
+    static boolean isAcknowledgement(String line) {
+        return line.equals(ACKNOWLEDGED) || line.startsWith(ACKNOWLEDGED + " ");
+    }
+
+    // Whether an acknowledgement or a resume request takes up the given option
+    static boolean hasOption(String acknowledgement, String option) {
+        int space = acknowledgement.indexOf(' ');
+        if (space < 0) {
+            return false;
+        }
+        for (String word : acknowledgement.substring(space + 1).split(" ")) {
+            if (word.equals(option)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Read-only wire frame for a line; share it between connections with duplicate()
+    static ByteBuffer frame(String line) {
+        return ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer();
+    }
+
+    // Parses a "row,col" move into an encoded move (row * cols + col), or -1 if it is malformed or off the board
+    static int parseMove(String move, int rows, int cols) {
+        int comma = move.indexOf(',');
+        int row;
+        int col;
+        try {
+            // Parse "row,col" in place, without splitting into substrings
+            row = Integer.parseInt(move, 0, comma, 10);
+            col = Integer.parseInt(move, comma + 1, move.length(), 10);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+}
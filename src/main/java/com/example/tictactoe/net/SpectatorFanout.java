@@ -0,0 +1,233 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Streams one game's states to any number of spectators from a selector thread of its own, so the game only queues.
+// Each state is encoded once into a read-only frame that every spectator shares: a spectator holds duplicates of the
+// frames it has not received yet, and a single gathering write sends all of them.
+// A spectator that falls MAX_BACKLOG frames behind skips to the newest state, as every frame is a full snapshot.
+final class SpectatorFanout {
+    private static final int MAX_BACKLOG = 64;
+
+    private final Selector selector;
+    private final Queue<ByteBuffer> published = new ConcurrentLinkedQueue<>();
+    private final Queue<SocketChannel> joining = new ConcurrentLinkedQueue<>();
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_BACKLOG];
+    private final ByteBuffer discard = ByteBuffer.allocate(256);  // spectators have nothing to say
+    private GameState lastPublished;  // publisher side, guarded by this
+    private ByteBuffer current;  // loop side: the frame newcomers start from
+    private volatile int count;
+    private volatile boolean running = true;
+
+    SpectatorFanout(GameState initial) throws IOException {
+        this.selector = Selector.open();
+        this.lastPublished = initial;
+        this.current = frame(initial);
+        // A platform thread, as select() would pin a virtual one
+        Thread thread = new Thread(this::run, "spectator-fanout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Called by the game whenever its state may have changed, and when the first spectator arrives; repeats of the
+    // last state are dropped
+    synchronized void publish(GameState state) {
+        if (state.equals(lastPublished)) {
+            return;
+        }
+        lastPublished = state;
+        published.add(frame(state));
+        selector.wakeup();
+    }
+
+    // The spectator gets the current state, then every later one
+    void subscribe(SocketChannel channel) {
+        joining.add(channel);
+        selector.wakeup();
+    }
+
+    int size() {
+        return count;
+    }
+
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private static ByteBuffer frame(GameState state) {
+        return Protocol.frame(Protocol.STATE + state.compress());
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                fanOut();
+                admit();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Spectator spectator = (Spectator) key.attachment();
+                    if (key.isValid() && key.isWritable()) {
+                        flush(spectator);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        read(spectator);
+                    }
+                }
+                if (spectators.removeIf(spectator -> spectator.closed)) {
+                    count = spectators.size();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("Spectator fan-out failed: " + e.getMessage());
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    // Queues every newly published frame for every spectator, then writes each spectator's backlog at once
+    private void fanOut() {
+        ByteBuffer frame;
+        boolean any = false;
+        while ((frame = published.poll()) != null) {
+            any = true;
+            current = frame;
+            for (Spectator spectator : spectators) {
+                spectator.queue(frame.duplicate());
+            }
+        }
+        if (any) {
+            for (Spectator spectator : spectators) {
+                flush(spectator);
+            }
+        }
+    }
+
+    private void admit() {
+        SocketChannel channel;
+        while ((channel = joining.poll()) != null) {
+            Spectator spectator = new Spectator(channel);
+            try {
+                channel.configureBlocking(false);
+                spectator.key = channel.register(selector, SelectionKey.OP_READ, spectator);
+            } catch (IOException e) {
+                spectator.close();
+                continue;
+            }
+            spectators.add(spectator);
+            spectator.queue(current.duplicate());
+            flush(spectator);
+        }
+        count = spectators.size();
+    }
+
+    private void flush(Spectator spectator) {
+        if (spectator.closed) {
+            return;
+        }
+        try {
+            int frames = 0;
+            for (ByteBuffer frame : spectator.pending) {
+                gather[frames++] = frame;
+            }
+            spectator.channel.write(gather, 0, frames);
+            while (!spectator.pending.isEmpty() && !spectator.pending.peek().hasRemaining()) {
+                spectator.pending.poll();
+            }
+            spectator.key.interestOps(spectator.pending.isEmpty()
+                    ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            spectator.close();
+        }
+    }
+
+    private void read(Spectator spectator) {
+        try {
+            discard.clear();
+            if (spectator.channel.read(discard) < 0) {
+                spectator.close();
+            }
+        } catch (IOException e) {
+            spectator.close();
+        }
+    }
+
+    private void closeAll() {
+        for (Spectator spectator : spectators) {
+            spectator.close();
+        }
+        SocketChannel channel;
+        while ((channel = joining.poll()) != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spectator connection: " + e.getMessage());
+            }
+        }
+        count = 0;
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing spectator selector: " + e.getMessage());
+        }
+    }
+
+    private static final class Spectator {
+        final SocketChannel channel;
+        final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        SelectionKey key;
+        boolean closed;
+
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void queue(ByteBuffer frame) {
+            if (pending.size() == MAX_BACKLOG) {
+                // Too far behind to catch up frame by frame; keep a frame already partly written so the stream
+                // stays intact, and skip the rest
+                ByteBuffer head = pending.peek();
+                pending.clear();
+                if (head.position() > 0) {
+                    pending.add(head);
+                }
+            }
+            pending.add(frame);
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spectator connection: " + e.getMessage());
+            }
+        }
+    }
+}
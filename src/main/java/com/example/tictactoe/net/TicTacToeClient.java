@@ -1,30 +1,60 @@
 package com.example.tictactoe.net;
 
+import com.example.tictactoe.model.Game;
 import com.example.tictactoe.model.GameState;
-import com.example.tictactoe.gui.TicTacToeGUI;
 
-import javax.swing.*;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class TicTacToeClient {
-    private Socket socket;
+    private static final long DEFAULT_THINK_MILLIS = 3000;  // Delay to simulate player thinking time
+
+    private final String ip;
+    private final int port;
+    private volatile Socket socket;
     private PrintWriter out;
     private BufferedReader in;
-    private final TicTacToeGUI gui;
+    private InputStream rawIn;  // Used directly once the binary protocol is agreed
+    private OutputStream rawOut;
+    private boolean binaryOffered;
+    private volatile boolean binary;
+    private boolean deltaOffered;
+    private boolean delta;
+    private long heartbeatTimeoutMillis;  // Offered by the server; 0 if it does not send heartbeats
+    private volatile String sessionToken;  // Offered by the server, to resume the seat on a new connection
+    private boolean resuming;  // Waiting for the server to give the seat back; the handshake is skipped
+    private final ReentrantLock sendLock = new ReentrantLock();  // A text move is written in pieces, pongs in between
+    private Game localGame;  // In delta mode, the game the server's moves are applied to
+    private int lastSeq;  // Sequence number of the last move applied, which is the number of marks on the board
+    private boolean resyncRequested;  // Moves are ignored until the requested snapshot arrives
+    private final PlayerView view;
+    private final long thinkMillis;
     private boolean connected;
     private GameState gameState;
 
-    public TicTacToeClient(String ip, int port, TicTacToeGUI gui) {
-        this.gui = gui;
+    public TicTacToeClient(String ip, int port, PlayerView view) {
+        this(ip, port, view, DEFAULT_THINK_MILLIS);
+    }
+
+    // The view is asked for a move thinkMillis after each ongoing state; 0 asks at once, on the connection thread
+    public TicTacToeClient(String ip, int port, PlayerView view, long thinkMillis) {
+        this.ip = ip;
+        this.port = port;
+        this.view = view;
+        this.thinkMillis = thinkMillis;
         try {
             initializeConnection(ip, port);  // Initialize the connection to the server
             listenForGameState();  // Start listening for game state updates
         } catch (IOException e) {
-            gui.showErrorMessage("Failed to connect to server. Please try again.");
+            view.showErrorMessage("Failed to connect to server. Please try again.");
             connected = false;
         }
     }
@@ -32,55 +62,171 @@ public class TicTacToeClient {
     // Initialize connection to the server
     private void initializeConnection(String ip, int port) throws IOException {
         socket = new Socket(ip, port);
-        out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        rawOut = socket.getOutputStream();
+        rawIn = socket.getInputStream();
+        out = new PrintWriter(rawOut, true);
+        in = new BufferedReader(new InputStreamReader(rawIn));
         connected = true;
     }
 
     // Listen for game state updates from the server
+    // A virtual thread, so a headless load test can run thousands of clients in one process
+    // A connection that fails, rather than being closed by the server, is resumed on a new one if the server gave
+    // the seat a session token
     void listenForGameState() {
-        new Thread(() -> {
+        Socket connection = socket;
+        BufferedReader reader = in;
+        Thread.ofVirtual().start(() -> {
             try {
                 String response;
-                while (connected && (response = in.readLine()) != null) {
+                while (connected && (response = reader.readLine()) != null) {
                     processServerResponse(response);  // Process each response from the server
+                    if (binary) {
+                        listenForBinaryFrames();
+                        return;
+                    }
+                }
+            } catch (SocketTimeoutException e) {
+                if (connected && !resumeAfterFailureOf(connection)) {
+                    view.showErrorMessage("Server stopped responding.");
+                    shutdown();  // Its heartbeats stopped, so it is gone or unreachable
                 }
             } catch (IOException e) {
-                if (connected) {
+                if (connected && !resumeAfterFailureOf(connection)) {
                     System.err.println(e.getMessage());
-                    gui.showErrorMessage("Connection lost.");
+                    view.showErrorMessage("Connection lost.");
                 }
             }
-        }).start();
+        });
+    }
+
+    private boolean resumeAfterFailureOf(Socket connection) {
+        return connection != socket || sessionToken != null && reconnect();  // Replaced already, or now
+    }
+
+    // Opens a new connection and asks for the seat of the session token at once, without waiting for the offers;
+    // the server answers with the seat and a snapshot. False if there is no token or the server cannot be reached.
+    public boolean reconnect() {
+        String token = sessionToken;
+        if (token == null) {
+            return false;
+        }
+        Socket old = socket;
+        sendLock.lock();
+        try {
+            initializeConnection(ip, port);
+            if (heartbeatTimeoutMillis > 0) {
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, heartbeatTimeoutMillis));
+            }
+            resuming = true;
+            binary = false;  // The seat comes back on a line connection
+            out.println(Protocol.resume(token, delta, heartbeatTimeoutMillis > 0));
+        } catch (IOException e) {
+            System.err.println("Could not resume the game: " + e.getMessage());
+            return false;
+        } finally {
+            sendLock.unlock();
+        }
+        try {
+            old.close();  // Tells the server at once, if it is still listening
+        } catch (IOException e) {
+            System.err.println("Error closing failed connection: " + e.getMessage());
+        }
+        listenForGameState();
+        return true;
+    }
+
+    // Binary frames follow the acknowledgement; the server sent nothing after the assignment before reading it,
+    // so the line reader has nothing buffered and the raw stream continues exactly where it stopped
+    private void listenForBinaryFrames() throws IOException {
+        InputStream frames = new BufferedInputStream(rawIn);
+        BinaryProtocol.StateReader states = new BinaryProtocol.StateReader();
+        int type;
+        while (connected && (type = frames.read()) >= 0) {
+            if (type == BinaryProtocol.PING) {
+                writeByte(BinaryProtocol.PONG);
+            } else if (type == BinaryProtocol.REMATCH) {
+                handleRematchRequest();
+            } else if (type == BinaryProtocol.MOVE) {
+                int seq = BinaryProtocol.readByte(frames);
+                handleMoveEvent(seq, BinaryProtocol.readByte(frames));
+            } else if (type == BinaryProtocol.CLASSIC_STATE || type == BinaryProtocol.STATE) {
+                handleGameStateUpdate(states.read(type, frames));
+            } else {
+                throw new IOException("Unknown frame type from server: " + type);
+            }
+        }
     }
 
     // Process each server response
     private void processServerResponse(String response) throws IOException {
-        if (response.startsWith("You")) {
+        if (response.equals(Protocol.PING)) {
+            sendLine(Protocol.PONG);
+        } else if (resuming) {
+            handleResumeAnswer(response);  // The offers and assignment of a new player do not apply
+        } else if (response.startsWith(Protocol.SESSION_OFFER)) {
+            sessionToken = response.substring(Protocol.SESSION_OFFER.length());
+        } else if (response.equals(Protocol.BINARY_OFFER)) {
+            binaryOffered = true;  // Taken up when acknowledging the assignment
+        } else if (response.equals(Protocol.DELTA_OFFER)) {
+            deltaOffered = true;
+        } else if (response.startsWith(Protocol.HEARTBEAT_OFFER)) {
+            try {
+                heartbeatTimeoutMillis = Long.parseLong(response.substring(Protocol.HEARTBEAT_OFFER.length()));
+            } catch (NumberFormatException e) {
+                heartbeatTimeoutMillis = 0;  // Declined
+            }
+        } else if (response.startsWith("You")) {
             handlePlayerAssignment(response);  // Assign the player mark (X or O)
         } else if (isRematchRequest(response)) {
             handleRematchRequest();  //Decide if rematch
         } else if (isGameStateUpdate(response)) {
             handleGameStateUpdate(extractGameState(response));  // Handle game state update
+        } else if (response.startsWith(Protocol.MOVE)) {
+            handleMoveEvent(response);
         }
     }
 
     // Handle player assignment from the server response
-    private void handlePlayerAssignment(String response) {
+    // With heartbeats, reads time out once the server has been silent for longer than it promised to be
+    private void handlePlayerAssignment(String response) throws IOException {
         char playerMark = response.split(":")[1].charAt(0);
-        gui.setPlayerMark(playerMark);
-        out.println("Acknowledged");
+        view.setPlayerMark(playerMark);
+        boolean heartbeat = heartbeatTimeoutMillis > 0;
+        if (heartbeat && socket != null) {
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, heartbeatTimeoutMillis));
+        }
+        sendLine(Protocol.acknowledgement(binaryOffered, deltaOffered, heartbeat, sessionToken != null));
+        delta = deltaOffered;
+        binary = binaryOffered;
+    }
+
+    private void handleResumeAnswer(String response) {
+        if (response.startsWith(Protocol.RESUMED)) {
+            resuming = false;
+            view.setPlayerMark(response.charAt(Protocol.RESUMED.length()));
+        } else if (response.startsWith(Protocol.ERROR)) {
+            sessionToken = null;  // The game is over; the server closes the connection
+            view.showErrorMessage("Could not resume the game:" + response.substring(Protocol.ERROR.length()));
+        }
     }
 
     private boolean isRematchRequest(String response) {
         return response.equals("Rematch?");
     }
 
-    private void handleRematchRequest() throws IOException {
-        boolean rematch = JOptionPane.showConfirmDialog(gui, "Rematch?") == JOptionPane.YES_OPTION;
-        if (rematch) {
-            out.println("Yes");
-        }
+    // The view may take its time, e.g. behind a dialog, so it is asked on a thread of its own while the connection
+    // thread goes on answering the server's pings
+    private void handleRematchRequest() {
+        Thread.ofVirtual().start(() -> {
+            if (view.acceptRematch()) {
+                if (binary) {
+                    writeByte(BinaryProtocol.VOTE_YES);
+                } else {
+                    sendLine(Protocol.VOTE_YES);
+                }
+            }
+        });
     }
 
     private boolean isGameStateUpdate(String response) {
@@ -91,34 +237,139 @@ public class TicTacToeClient {
         return response.substring(6);  // Extract the game state after "STATE:"
     }
 
-    // Handle game state update and make a random move
     private void handleGameStateUpdate(String boardState) {
-        gameState = GameState.expand(boardState);
-        gui.updateGUI(gameState);  // Update GUI with the new game state
+        handleGameStateUpdate(GameState.expand(boardState));
+    }
+
+    // Handle a full game state snapshot
+    private void handleGameStateUpdate(GameState state) {
+        if (delta) {
+            if (localGame == null || localGame.getRows() != state.getRows() || localGame.getCols() != state.getCols()
+                    || localGame.getWinLength() != state.getWinLength()) {
+                localGame = new Game(state.getRows(), state.getCols(), state.getWinLength());
+            }
+            localGame.loadState(state);
+            lastSeq = state.getMarkCount();
+            resyncRequested = false;
+        }
+        updateGameState(state);
+    }
+
+    // Parses a "MOVE:seq:row,col" event; a malformed one is treated like a missed move
+    private void handleMoveEvent(String response) {
+        int colon = response.indexOf(':', Protocol.MOVE.length());
+        int seq = -1;
+        int move = -1;
+        if (colon > 0 && gameState != null) {
+            try {
+                seq = Integer.parseInt(response, Protocol.MOVE.length(), colon, 10);
+                move = Protocol.parseMove(response.substring(colon + 1), gameState.getRows(), gameState.getCols());
+            } catch (NumberFormatException e) {
+                seq = -1;
+            }
+        }
+        handleMoveEvent(seq, move);
+    }
+
+    // Applies the next move to the local game; if a move was missed, asks the server for a snapshot instead
+    private void handleMoveEvent(int seq, int move) {
+        if (resyncRequested) {
+            return;  // The snapshot on its way supersedes this move
+        }
+        if (localGame == null || seq != lastSeq + 1 || !localGame.placeMark(move)) {
+            System.err.println("Missed a move before move " + seq + ", resynchronizing");
+            resyncRequested = true;
+            if (binary) {
+                writeByte(BinaryProtocol.RESYNC);
+            } else {
+                sendLine(Protocol.RESYNC);
+            }
+            return;
+        }
+        localGame.changePlayer();
+        lastSeq = seq;
+        updateGameState(GameState.of(localGame, false));
+    }
+
+    // Show the new game state and make an automated move
+    private void updateGameState(GameState state) {
+        gameState = state;
+        view.updateGUI(gameState);  // Show the new game state
         if (gameState.getState().equals(GameState.State.ONGOING)) {
-            sendRandomMove();  // Send a random move after a delay
+            sendAutomatedMove();  // Send the solver's move after a delay
         }
     }
 
-    // Method to send a random move to the server
-    private void sendRandomMove() {
-        new Thread(() -> {
+    // Method to send an automated move to the server
+    private void sendAutomatedMove() {
+        if (thinkMillis == 0) {
+            view.sendBestMove();
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
             try {
-                Thread.sleep(3000);  // Delay to simulate player thinking time
-                gui.sendRandomMove();  // Make a random move
+                Thread.sleep(thinkMillis);  // Delay to simulate player thinking time
+                view.sendBestMove();  // Make the best move the bot can find
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-        }).start();
+        });
     }
 
     // Method to send a specific move to the server
     public void sendMove(int row, int col) {
-        out.println(row + "," + col);  // Send the move in "row,col" format
+        if (binary) {
+            sendMove(row * gameState.getCols() + col);
+            return;
+        }
+        sendLine(row + "," + col);  // Send the move in "row,col" format
+    }
+
+    // Send an encoded move (row * cols + col) in "row,col" format, writing digits directly to avoid building strings
+    public void sendMove(int move) {
+        if (binary) {
+            writeByte(move);  // A binary move is the encoded move itself
+            return;
+        }
+        int cols = gameState != null ? gameState.getCols() : 3;  // Board size comes from the server's state
+        sendLock.lock();
+        try {
+            writeNumber(move / cols);
+            out.write(',');
+            writeNumber(move % cols);
+            out.println();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void sendLine(String line) {
+        sendLock.lock();
+        try {
+            out.println(line);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void writeByte(int value) {
+        try {
+            rawOut.write(value);
+            rawOut.flush();
+        } catch (IOException e) {
+            System.err.println("Error sending to server: " + e.getMessage());
+        }
+    }
+
+    private void writeNumber(int value) {
+        if (value >= 10) {
+            writeNumber(value / 10);
+        }
+        out.write('0' + value % 10);
     }
 
     // Shutdown method to close client socket and cleanup resources
-    void shutdown() {
+    public void shutdown() {
         try {
             connected = false;  // Stop listening for new messages
             if (socket != null) {
@@ -136,7 +387,7 @@ public class TicTacToeClient {
     }
 
     // Check if client is connected
-    boolean isConnected() {
+    public boolean isConnected() {
         return connected;
     }
 
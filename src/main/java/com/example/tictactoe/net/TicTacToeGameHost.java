@@ -0,0 +1,537 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+import com.example.tictactoe.service.GameStateHttpServer;
+import com.example.tictactoe.service.TicTacToeHTMLTranslator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Blocking multi-game server. An accepted connection first fills the empty seat of a game waiting for a player to
+// reconnect; otherwise it enters the MatchmakingLobby, which pairs it with the next arrival into a new
+// TicTacToeServer game on one of the host's shards. A returning player's resume request is read as soon as it
+// arrives, and the connection goes straight back to its own game (see Opening). All accept, connection and game loops
+// run on threads from the given factory, so with virtual threads the blocking readLine style of TicTacToeServer costs a
+// few kilobytes per game instead of two OS threads.
+// Spectators connect to a port of their own (see openSpectatorPort) and name the game they want to watch.
+// Bot farms and load generators can play many games over one connection on the multiplex port (see
+// openMultiplexPort); each session on it is paired and played like a connection of its own.
+// Browsers can follow any game live over HTTP (see openHttpPort).
+public class TicTacToeGameHost {
+    private static final int BACKLOG = 4096;
+    private static final int MAX_WATCH_REQUEST = 64;
+    private static final int MAX_OPENING_LINE = 256;  // bytes read ahead of the handshake; a resume request is < 100
+    private static final int PRUNE_INTERVAL = 1024;  // games opened on a shard between sweeps of its finished games
+
+    private final ServerSocket serverSocket;
+    private final List<GameShard> shards = new ArrayList<>();
+    private final MatchmakingLobby<PlayerConnection> lobby;
+    private final Queue<Seats> vacancies = new ConcurrentLinkedQueue<>();
+    private final ThreadFactory threadFactory;
+    private volatile ServerSocketChannel spectatorChannel;
+    private volatile ServerSocket multiplexSocket;
+    private volatile GameStateHttpServer httpServer;
+    private final Set<MultiplexedConnection> multiplexed = ConcurrentHashMap.newKeySet();
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private volatile boolean running = true;
+
+    public TicTacToeGameHost(int port, int rows, int cols, int winLength, ThreadFactory threadFactory) throws IOException {
+        this(port, rows, cols, winLength, threadFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TicTacToeGameHost(int port, int rows, int cols, int winLength, ThreadFactory threadFactory, int shardCount)
+            throws IOException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.serverSocket = new ServerSocket(port, BACKLOG);
+        this.threadFactory = threadFactory;
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new GameShard());
+        }
+        this.lobby = new MatchmakingLobby<>(shards);
+    }
+
+    public static ThreadFactory virtualThreads() {
+        return Thread.ofVirtual().name("game-", 0).factory();
+    }
+
+    public static ThreadFactory platformThreads() {
+        return Thread.ofPlatform().name("game-", 0).factory();
+    }
+
+    public void start() {
+        threadFactory.newThread(this::acceptConnections).start();
+        System.out.println("Game host listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Games opened and not yet finished (including those waiting for a player to reconnect)
+    public int getGameCount() {
+        int count = 0;
+        for (GameShard shard : shards) {
+            for (TicTacToeServer game : shard.games.values()) {
+                if (game.isRunning()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Opening opening = new Opening(PlayerConnection.of(socket));
+                threadFactory.newThread(opening::read).start();
+                arrive(opening);
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Opens a port for multiplexed connections, each carrying any number of player sessions (see
+    // MultiplexProtocol). Returns the port.
+    public int openMultiplexPort(int port) throws IOException {
+        ServerSocket socket = new ServerSocket(port, BACKLOG);
+        multiplexSocket = socket;
+        threadFactory.newThread(() -> acceptMultiplexed(socket)).start();
+        return socket.getLocalPort();
+    }
+
+    // Player sessions currently open on multiplexed connections
+    public int getMultiplexedSessionCount() {
+        int count = 0;
+        for (MultiplexedConnection connection : multiplexed) {
+            count += connection.getSessionCount();
+        }
+        return count;
+    }
+
+    private void acceptMultiplexed(ServerSocket socket) {
+        while (running && !socket.isClosed()) {
+            try {
+                Socket accepted = socket.accept();
+                accepted.setTcpNoDelay(true);
+                MultiplexedConnection connection = new MultiplexedConnection(accepted, this::arrive, this::depart,
+                        multiplexed::remove, threadFactory);
+                multiplexed.add(connection);
+                connection.start();
+            } catch (IOException e) {
+                if (running && !socket.isClosed()) {
+                    System.err.println("Error accepting multiplexed connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Opens a second port for spectators, who send "Watch:<gameId>" and then receive every state of that game.
+    // Games are numbered from 1 in the order their players were paired. Returns the port.
+    public int openSpectatorPort(int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(port), BACKLOG);
+        spectatorChannel = channel;
+        threadFactory.newThread(() -> acceptSpectators(channel)).start();
+        return channel.socket().getLocalPort();
+    }
+
+    // Serves a live page for every game started from now on at /games/<gameId> (see GameStateHttpServer).
+    // Returns the port.
+    public int openHttpPort(int port) throws IOException {
+        GameStateHttpServer server = new GameStateHttpServer(port, NoPersistence.INSTANCE);
+        server.start();
+        httpServer = server;
+        return server.getPort();
+    }
+
+    // The running game with the given id, or null
+    public TicTacToeServer findGame(long gameId) {
+        TicTacToeServer game = ((GameShard) lobby.shardOf(gameId)).games.get(gameId);
+        return game != null && game.isRunning() ? game : null;
+    }
+
+    private void acceptSpectators(ServerSocketChannel channel) {
+        while (running) {
+            try {
+                SocketChannel spectator = channel.accept();
+                spectator.socket().setTcpNoDelay(true);
+                threadFactory.newThread(() -> watch(spectator)).start();
+            } catch (ClosedChannelException e) {
+                break;  // shutdown
+            } catch (IOException e) {
+                System.err.println("Error accepting spectator: " + e.getMessage());
+            }
+        }
+    }
+
+    // Reads the spectator's request and hands the connection to the game it names
+    private void watch(SocketChannel spectator) {
+        try {
+            String request = readRequest(spectator);
+            TicTacToeServer game = null;
+            if (request != null && request.startsWith(Protocol.WATCH)) {
+                try {
+                    game = findGame(Long.parseLong(request.substring(Protocol.WATCH.length()).trim()));
+                } catch (NumberFormatException e) {
+                    // Not a game id; answered below like an unknown game
+                }
+            }
+            if (game == null) {
+                spectator.write(Protocol.frame(Protocol.ERROR + " no such game"));
+                spectator.close();
+                return;
+            }
+            game.addSpectator(spectator);
+        } catch (IOException e) {
+            try {
+                spectator.close();
+            } catch (IOException closeError) {
+                System.err.println("Error closing spectator connection: " + closeError.getMessage());
+            }
+        }
+    }
+
+    // The first line from a blocking channel, or null if it closes or sends too much before one arrives
+    private static String readRequest(SocketChannel channel) throws IOException {
+        ByteBuffer request = ByteBuffer.allocate(MAX_WATCH_REQUEST);
+        while (request.hasRemaining() && channel.read(request) >= 0) {
+            for (int i = 0; i < request.position(); i++) {
+                if (request.get(i) == '\n') {
+                    return new String(request.array(), 0, i, StandardCharsets.US_ASCII).strip();
+                }
+            }
+        }
+        return null;
+    }
+
+    // A game missing a player gets the connection first, as its opponent is already waiting
+    private void arrive(PlayerConnection player) {
+        Seats seats;
+        while ((seats = vacancies.poll()) != null) {
+            if (seats.offer(player)) {
+                return;
+            }
+        }
+        lobby.arrive(player);
+    }
+
+    // A session known to have ended, unlike a socket, is taken out of the lobby rather than paired with a player
+    // whose game it would then end at the handshake
+    private void depart(PlayerConnection player) {
+        lobby.leave(player);
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server socket: " + e.getMessage());
+        }
+        ServerSocketChannel spectators = spectatorChannel;
+        if (spectators != null) {
+            try {
+                spectators.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spectator port: " + e.getMessage());
+            }
+        }
+        ServerSocket multiplexPort = multiplexSocket;
+        if (multiplexPort != null) {
+            try {
+                multiplexPort.close();
+            } catch (IOException e) {
+                System.err.println("Error closing multiplex port: " + e.getMessage());
+            }
+        }
+        for (MultiplexedConnection connection : multiplexed) {
+            connection.close();
+        }
+        GameStateHttpServer http = httpServer;
+        if (http != null) {
+            http.shutdown();
+        }
+        for (GameShard shard : shards) {
+            for (TicTacToeServer game : shard.games.values()) {
+                game.shutdown();
+            }
+            shard.games.clear();
+        }
+        PlayerConnection waiting = lobby.clear();
+        if (waiting != null) {
+            close(waiting);
+        }
+    }
+
+    private static void close(PlayerConnection player) {
+        try {
+            player.close();
+        } catch (IOException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    // A share of the host's games, keyed by game id; each shard sweeps only its own finished games
+    private final class GameShard implements MatchmakingLobby.Shard<PlayerConnection> {
+        private final Map<Long, TicTacToeServer> games = new ConcurrentHashMap<>();
+        private final AtomicLong opened = new AtomicLong();
+
+        @Override
+        public void startGame(long gameId, PlayerConnection first, PlayerConnection second) {
+            if (opened.incrementAndGet() % PRUNE_INTERVAL == 0) {
+                games.values().removeIf(game -> !game.isRunning());
+            }
+            Seats seats = new Seats();
+            seats.players.add(first);
+            seats.players.add(second);
+            Game game = new Game(rows, cols, winLength);
+            TicTacToeServer server = new TicTacToeServer(null, seats, game, NoPersistence.INSTANCE, threadFactory);
+            games.put(gameId, server);
+            GameStateHttpServer http = httpServer;
+            if (http != null) {
+                server.publishTo(http.feed(gameId));
+            }
+        }
+    }
+
+    // The players handed to one game: its pair from the lobby, then whoever fills a seat after a disconnect
+    private final class Seats implements TicTacToeServer.PlayerSource {
+        private final BlockingQueue<PlayerConnection> players = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        // Asked only for a seat open to newcomers, so a player left waiting in the lobby, e.g. one that arrived just
+        // before the seat was emptied, is taken first. The filler waiting here is interrupted if the seats are
+        // filled meanwhile by returning players, handed over from the games they were paired into.
+        // A connection whose opening line turned out to be a resume request has been routed to its own game already,
+        // and is passed over.
+        @Override
+        public PlayerConnection nextPlayer() throws InterruptedException {
+            while (true) {
+                PlayerConnection player = players.poll();
+                if (player == null) {
+                    player = lobby.clear();
+                }
+                if (player == null) {
+                    vacancies.add(this);
+                    try {
+                        player = players.take();
+                    } catch (InterruptedException e) {
+                        vacancies.remove(this);
+                        releasePlayers();  // handed over as the wait ended
+                        throw e;
+                    }
+                }
+                if (!(player instanceof Opening opening) || opening.claim()) {
+                    return player;
+                }
+            }
+        }
+
+        // False if the game is over and the connection should go elsewhere
+        boolean offer(PlayerConnection player) {
+            if (closed) {
+                return false;
+            }
+            players.add(player);
+            if (closed) {
+                releasePlayers();  // the game ended as the seat was being filled
+            }
+            return true;
+        }
+
+        // Only newcomers are taken from here: a returning player is routed to its game by its opening line, or, if a
+        // game shook hands with it first, handed over by that game
+        @Override
+        public boolean isSoleEntrance() {
+            return false;
+        }
+
+        // Players handed over but never taken, e.g. the partner of one who left before acknowledging,
+        // go back to the lobby
+        @Override
+        public void close() {
+            closed = true;
+            releasePlayers();
+        }
+
+        private void releasePlayers() {
+            PlayerConnection player;
+            while ((player = players.poll()) != null) {
+                if (player instanceof Opening opening && opening.isClaimed()) {
+                    continue;  // routed by its resume request
+                }
+                if (running) {
+                    arrive(player);
+                } else {
+                    TicTacToeGameHost.close(player);
+                }
+            }
+        }
+    }
+
+    // An accepted socket whose first line is read as soon as it comes, while the connection waits to be paired. A
+    // returning player sends its resume request without waiting for the offers, so it is taken back from the lobby,
+    // or from the game it was paired into, and routed to its own game at once; any other line is the answer to the
+    // offers of the game that claimed the connection, and is replayed to its handshake.
+    private final class Opening implements PlayerConnection {
+        private final PlayerConnection connection;
+        private final InputStream in;
+        private final AtomicBoolean claimed = new AtomicBoolean();  // by a game's handshake or by the resume
+        private final CountDownLatch read = new CountDownLatch(1);
+        private byte[] line = new byte[0];  // published by the latch
+        private int replayed;  // reader only
+
+        Opening(PlayerConnection connection) throws IOException {
+            this.connection = connection;
+            this.in = connection.getInputStream();
+        }
+
+        // Reads up to the end of the opening line, which may bring a little more with it
+        void read() {
+            byte[] buffer = new byte[MAX_OPENING_LINE];
+            int length = 0;
+            try {
+                int count;
+                while (length < buffer.length && (count = in.read(buffer, length, buffer.length - length)) >= 0) {
+                    length += count;
+                    if (contains(buffer, length - count, length, (byte) '\n')) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // Closed, or gone; whoever claims the connection finds it ended after what was read
+            }
+            line = Arrays.copyOf(buffer, length);
+            read.countDown();
+            if (isResume(line) && claim()) {
+                lobby.leave(this);  // Otherwise it was paired, and the game passes it over
+                try {
+                    TicTacToeServer.resume(this);
+                } catch (IOException e) {
+                    TicTacToeGameHost.close(this);
+                }
+            }
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean isClaimed() {
+            return claimed.get();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    try {
+                        read.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for the opening line");
+                    }
+                    if (replayed < line.length) {
+                        int count = Math.min(length, line.length - replayed);
+                        System.arraycopy(line, replayed, bytes, offset, count);
+                        replayed += count;
+                        return count;
+                    }
+                    return in.read(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return connection.getOutputStream();
+        }
+
+        @Override
+        public void close() throws IOException {
+            connection.close();
+        }
+
+        private static boolean contains(byte[] bytes, int from, int to, byte value) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isResume(byte[] line) {
+            byte[] resume = Protocol.RESUME.getBytes(StandardCharsets.US_ASCII);
+            return line.length >= resume.length && Arrays.equals(line, 0, resume.length, resume, 0, resume.length);
+        }
+    }
+
+    // Hosted games share one process, so they do not save to (or resume from) the single game_state.html file
+    private static final class NoPersistence extends TicTacToeHTMLTranslator {
+        static final NoPersistence INSTANCE = new NoPersistence();
+
+        @Override
+        public void updateGameStateHTML(GameState gameState) {
+        }
+
+        @Override
+        public void saveGameState(GameState gameState) {
+        }
+
+        @Override
+        public GameState loadGameStateFromHTML(Game game) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tictactoe.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking multi-game server: one acceptor thread and a fixed set of selector loops (one per core by default)
+// host any number of concurrent matches. It speaks the same line protocol as TicTacToeServer, so unchanged
+// TicTacToeClients can connect; every two connections are paired into a match in arrival order.
+public class TicTacToeNioServer {
+    private final ServerSocketChannel serverChannel;
+    private final NioEventLoop[] loops;
+    private final GameRegistry registry = new GameRegistry();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    public TicTacToeNioServer(int port, int rows, int cols, int winLength) throws IOException {
+        this(port, rows, cols, winLength, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TicTacToeNioServer(int port, int rows, int cols, int winLength, int loopCount) throws IOException {
+        if (loopCount < 1) {
+            throw new IllegalArgumentException("At least one event loop is required");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+        this.loops = new NioEventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new NioEventLoop("nio-loop-" + i);
+        }
+        this.acceptor = new Thread(this::acceptConnections, "nio-acceptor");
+    }
+
+    public void start() {
+        for (NioEventLoop loop : loops) {
+            loop.start();
+        }
+        acceptor.start();
+        System.out.println("NIO server listening on port " + getPort() + " with " + loops.length + " event loops");
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Matches currently open, including those waiting for a player
+    public int getActiveMatches() {
+        return registry.size();
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                assign(channel);
+            } catch (ClosedChannelException e) {
+                break;  // shutdown
+            } catch (IOException e) {
+                System.err.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    // Seats the channel in a match with an empty seat, opening a new match if there is none
+    private void assign(SocketChannel channel) {
+        Match match = registry.pollVacancy();
+        if (match == null) {
+            NioEventLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+            match = registry.create(loop, rows, cols, winLength);
+        }
+        Match target = match;
+        target.getLoop().execute(() -> join(target, channel));
+    }
+
+    // Runs on the match's loop, which owns the match state
+    private void join(Match match, SocketChannel channel) {
+        if (!match.hasVacancy()) {
+            assign(channel);  // the match ended while the seat was being handed over
+            return;
+        }
+        try {
+            match.join(match.getLoop().register(channel));
+        } catch (IOException e) {
+            System.err.println("Error registering connection: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server channel: " + e.getMessage());
+        }
+        for (NioEventLoop loop : loops) {
+            loop.shutdown();
+        }
+        try {
+            acceptor.join(1000);
+            for (NioEventLoop loop : loops) {
+                loop.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("NIO server shutdown complete.");
+    }
+}
@@ -2,50 +2,117 @@ package com.example.tictactoe.net;
 
 import com.example.tictactoe.model.Game;
 import com.example.tictactoe.model.GameState;
+import com.example.tictactoe.service.GameStateHttpServer;
 import com.example.tictactoe.service.TicTacToeHTMLTranslator;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TicTacToeServer {
+    // Inactivity before the player to move is dropped, for clients without heartbeats; with them, a player is only
+    // dropped once its connection is found dead, however long it thinks
+    private static final long MOVE_TIMEOUT_MILLIS = 10_000;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final long REMATCH_WINDOW_MILLIS = 10_000;
+    private static final long RECONNECT_WINDOW_MILLIS = 60_000;  // the game ends if a dropped player's seat stays empty
+
+    // The game each session token was issued by, across all games of the process, so a returning player may come
+    // back through any accepted connection and still find its seat (see Protocol.SESSION_OFFER)
+    private static final Map<String, TicTacToeServer> SESSIONS = new ConcurrentHashMap<>();
+    private static final SecureRandom TOKENS = new SecureRandom();
+
+    // Where the game gets its players: its own listening socket, or a host shared by many games
+    @FunctionalInterface
+    interface PlayerSource {
+        PlayerConnection nextPlayer() throws IOException, InterruptedException;
+
+        // Whether a returning player can only come back through this source, as through the game's own listening
+        // socket. A host reads each connection's resume request as it arrives and routes it straight to its game
+        // (see resume), so the host is only asked for players when a seat is open to newcomers.
+        default boolean isSoleEntrance() {
+            return true;
+        }
+
+        // Called when the game shuts down, possibly more than once
+        default void close() {
+        }
+    }
+
     private ServerSocket serverSocket;
-    private Socket client1Socket;
-    private Socket client2Socket;
-    private PrintWriter out1, out2;
-    private BufferedReader in1, in2;
+    private final PlayerSource players;
+    private final ThreadFactory threadFactory;
+    private PlayerConnection client1Connection;
+    private PlayerConnection client2Connection;
+    private PlayerOutbox outbox1, outbox2;  // Everything sent to the players goes through these
+    private InputStream in1, in2;
+    private volatile HeartbeatMonitor.Watch watch1, watch2;  // For players that took up heartbeats, null otherwise
+    private volatile String token1, token2;  // The session tokens the seats were issued
+    private boolean session1, session2;  // Whether the player took up the token, and so can resume; game thread only
+    private volatile boolean reserved1, reserved2;  // An empty seat kept for its token during the reconnect window
+    private final HeartbeatMonitor heartbeats = HeartbeatMonitor.shared();
+    private final TimingWheel timers = TimingWheel.shared();  // Deadlines post a token to the lines instead of polling
+    private volatile Thread loopThread;  // Runs handleGame
+    private volatile SpectatorFanout spectators;  // Created by the first spectator
+    private volatile GameStateHttpServer.Feed feed;  // Where the game's HTTP page gets its states, if it has one
     private Game game;
     private TicTacToeHTMLTranslator htmlTranslator;  // For saving/loading the game state
     private volatile boolean player1Connected = false;
     private volatile boolean player2Connected = false;
-    private GameState gameState;
+    private volatile GameState gameState;  // Also read by threads adding spectators
+    private final BlockingQueue<PlayerLine> lines = new LinkedBlockingQueue<>();  // Filled by the player readers
     private CountDownLatch latch = new CountDownLatch(1);
     private volatile boolean serverKeepAlive = true;
+    private final AtomicBoolean filling = new AtomicBoolean();  // Whether a filler is taking players for empty seats
+    private volatile Thread filler;
+    private TimingWheel.Timeout reconnectWindow;  // Game thread only; pending while a seat is empty
+    private final PlayerLine windowEnded = new PlayerLine(null, 0, null, -1);  // Posted when the window passes
 
     public TicTacToeServer(ServerSocket serverSocket, Game game, TicTacToeHTMLTranslator htmlTranslator) {
+        this(serverSocket, game, htmlTranslator, Thread.ofPlatform().factory());
+    }
+
+    // Runs the connection and game loops on threads from the factory, e.g. Thread.ofVirtual().factory()
+    public TicTacToeServer(ServerSocket serverSocket, Game game, TicTacToeHTMLTranslator htmlTranslator,
+                           ThreadFactory threadFactory) {
+        this(serverSocket, () -> PlayerConnection.of(serverSocket.accept()), game, htmlTranslator, threadFactory);
+    }
+
+    // A game without a listening socket of its own, fed players by a host (see TicTacToeGameHost)
+    TicTacToeServer(ServerSocket serverSocket, PlayerSource players, Game game, TicTacToeHTMLTranslator htmlTranslator,
+                    ThreadFactory threadFactory) {
         this.serverSocket = serverSocket;
+        this.players = players;
+        this.threadFactory = threadFactory;
         this.game = game;
         this.htmlTranslator = htmlTranslator;
         this.gameState = initGameState();
 
-        new Thread(() -> {
+        threadFactory.newThread(() -> {
             try {
                 connectPlayers();  // Connect both players
                 unblockGameState();  // Unblock game after connection
                 broadcastGameState();
-                new Thread(() -> {
-                    handleGame();  // Handle game logic
-                }).start();
-
                 latch.countDown();
 
-                while (serverKeepAlive) {
-                    Thread.sleep(30000);
-                }
+                handleGame();  // Runs on this thread until the game is over for good
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 System.err.println("Server interrupted.");
@@ -61,21 +128,11 @@ public class TicTacToeServer {
         latch.await();
     }
 
-    // Default constructor for production usage
-    public TicTacToeServer(int port, Game game, TicTacToeHTMLTranslator htmlTranslator) throws IOException {
-        this(new ServerSocket(port), game, htmlTranslator);  // Use the DI constructor
-        try {
-            Thread.sleep(30000);
-        } catch (InterruptedException e) {
-            handleError("Error while server close down", e);
-        }
-    }
-
     // Initialize game state (load from HTML or create new)
     private GameState initGameState() {
         GameState gameState = htmlTranslator.loadGameStateFromHTML(game);
         if (gameState == null) {
-            gameState = new GameState(game, true);  // Default initial state
+            gameState = GameState.of(game, true);  // Default initial state
             htmlTranslator.updateGameStateHTML(gameState);
         }
         return gameState;
@@ -87,133 +144,540 @@ public class TicTacToeServer {
         ackPlayer(2);  // Connect Player 2
     }
 
-    // Acknowledge a player and wait for connection
+    // Acknowledge a player and wait for connection. Runs on the game's thread, so a returning player presenting a
+    // token of this game is seated at once; one presenting another game's token is handed over to that game.
     void ackPlayer(int playerNumber) throws IOException, InterruptedException {
-        System.out.println("Waiting for Player " + playerNumber + " to connect...");
-        Socket playerSocket = serverSocket.accept();
-        PrintWriter out = new PrintWriter(playerSocket.getOutputStream(), true);
-        BufferedReader in = new BufferedReader(new InputStreamReader(playerSocket.getInputStream()));
+        while (!isConnected(playerNumber)) {
+            System.out.println("Waiting for Player " + playerNumber + " to connect...");
+            Seating seating = handshake(players.nextPlayer(), playerNumber);
+            if (seating.resumed && SESSIONS.get(seating.token) != this) {
+                route(seating);
+            } else {
+                admit(seating);
+            }
+        }
+    }
 
-        out.println("You are player:" + (playerNumber == 1 ? "X" : "O"));
+    // Sends the offers and the assignment, then reads the answer: an acknowledgement joins the assigned seat afresh,
+    // a resume request (which a returning client sends without waiting for the offers) asks for the seat its token
+    // was issued for, in this game or another
+    private Seating handshake(PlayerConnection connection, int playerNumber) throws IOException {
+        InputStream in = new BufferedInputStream(connection.getInputStream());
+        OutputStream rawOut = new BufferedOutputStream(connection.getOutputStream());
+        PrintWriter out = new PrintWriter(rawOut);  // Flushed per batch by its outbox
+
+        // Clients that know the binary protocol, delta updates or heartbeats may take them up in their
+        // acknowledgement; old ones ignore the offers, and the session token
+        boolean offerBinary = BinaryProtocol.supports(game.getRows(), game.getCols());
+        if (offerBinary) {
+            out.println(Protocol.BINARY_OFFER);
+        }
+        out.println(Protocol.DELTA_OFFER);
+        out.println(Protocol.HEARTBEAT_OFFER + heartbeats.getTimeoutMillis());
+        String token = newToken();
+        out.println(Protocol.SESSION_OFFER + token);
+        out.println(Protocol.PLAYER_ASSIGNMENT + (playerNumber == 1 ? "X" : "O"));
+        out.flush();
 
         String response;
-        while (!(response = in.readLine()).equals("Acknowledged")) {
-            checkForIOErrors(response);
-            Thread.sleep(1000);  // Wait for acknowledgment
+        try {
+            while ((response = readAsciiLine(in)) == null
+                    || !(Protocol.isAcknowledgement(response) || response.startsWith(Protocol.RESUME))) {
+                if (response == null) {
+                    throw new IOException("Player " + playerNumber + " disconnected before acknowledging");
+                }
+                checkForIOErrors(response);
+            }
+        } catch (IOException e) {
+            connection.close();  // Not one of the game's connections yet, so shutdown would not close it
+            throw e;
+        }
+        return seating(connection, in, rawOut, out, response, token, playerNumber, offerBinary);
+    }
+
+    // Routes a returning player whose resume request a host read before handing the connection to any game, so it
+    // is not held up by pairing or by another player's handshake, and is sent no offers
+    static void resume(PlayerConnection connection) throws IOException {
+        InputStream in = new BufferedInputStream(connection.getInputStream());
+        OutputStream rawOut = new BufferedOutputStream(connection.getOutputStream());
+        PrintWriter out = new PrintWriter(rawOut);
+        String request = readAsciiLine(in);
+        TicTacToeServer owner = request != null && request.startsWith(Protocol.RESUME)
+                ? SESSIONS.get(Protocol.resumeToken(request)) : null;
+        if (owner == null) {
+            out.println(Protocol.ERROR + " no such session");
+            out.flush();
+            connection.close();
+            return;
         }
+        route(owner.seating(connection, in, rawOut, out, request, null, 0, false));
+    }
+
+    // The player's answer to the handshake, with the options it took up; the outbox runs on this game's threads
+    private Seating seating(PlayerConnection connection, InputStream in, OutputStream rawOut, PrintWriter out,
+                            String response, String token, int playerNumber, boolean offerBinary) {
+        boolean resumed = response.startsWith(Protocol.RESUME);
+        boolean binary = offerBinary && Protocol.hasOption(response, Protocol.BINARY);
+        boolean delta = Protocol.hasOption(response, Protocol.DELTA);
+        boolean heartbeat = Protocol.hasOption(response, Protocol.HEARTBEAT);
+        boolean session = resumed || Protocol.hasOption(response, Protocol.SESSION);
+        PlayerOutbox outbox = new PlayerOutbox(binary ? PlayerOutbox.binary(rawOut) : PlayerOutbox.text(out),
+                delta, threadFactory);
+        return new Seating(connection, in, out, outbox, resumed ? Protocol.resumeToken(response) : token,
+                resumed ? 0 : playerNumber, resumed, binary, delta, heartbeat, session);
+    }
 
+    // Hands a returning player to the game its token was issued by, whose thread seats it
+    private static void route(Seating seating) {
+        TicTacToeServer owner = SESSIONS.get(seating.token);
+        if (owner == null || !owner.isRunning()) {
+            reject(seating, "no such session");
+            return;
+        }
+        PlayerLine line = new PlayerLine(seating);
+        owner.lines.add(line);
+        if (!owner.isRunning() && owner.lines.remove(line)) {
+            reject(seating, "no such session");  // The game ended as the player came back
+        }
+    }
+
+    // Seats a player, on the game's thread: a fresh join takes the seat it was assigned if that is still empty and
+    // not kept for its player, a returning player the seat of its token, even if the server has not yet noticed its
+    // old connection is gone
+    private void admit(Seating seating) {
+        int playerNumber = seating.resumed ? seatOf(seating.token) : seating.seat;
+        if (playerNumber == 0) {
+            reject(seating, "no such session");
+        } else if (!seating.resumed && isConnected(playerNumber)) {
+            reject(seating, "seat taken");  // Resumed by its owner while this player was shaking hands
+        } else if (!seating.resumed && isReserved(playerNumber)) {
+            reject(seating, "seat reserved");  // Came through the game's own socket while its player may return
+        } else {
+            seat(seating, playerNumber);
+            if (loopThread != null) {  // Otherwise the game is still being set up, and starts with a broadcast
+                if (player1Connected && player2Connected) {
+                    seatsFilled();
+                }
+                broadcastGameState();  // The one snapshot the player needs, as well as the other's news
+            }
+        }
+        seating.admitted.countDown();
+    }
+
+    // The game carries on where it stopped
+    private void seatsFilled() {
+        if (reconnectWindow != null) {
+            reconnectWindow.cancel();
+            reconnectWindow = null;
+        }
+        Thread thread = filler;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();  // Still waiting for a player, if the last seat was taken by a routed resume
+        }
+        unblockGameState();
+    }
+
+    private void seat(Seating seating, int playerNumber) {
+        PlayerConnection replaced = playerNumber == 1 ? client1Connection : client2Connection;
+        if (replaced != null) {
+            try {
+                replaced.close();  // A timed-out player's connection, or the old one of a returning player
+            } catch (IOException e) {
+                System.err.println("Error closing replaced connection: " + e.getMessage());
+            }
+        }
+        PlayerOutbox replacedOutbox = playerNumber == 1 ? outbox1 : outbox2;
+        if (replacedOutbox != null) {
+            replacedOutbox.close();
+        }
+        cancelWatch(playerNumber);
+        String replacedToken = playerNumber == 1 ? token1 : token2;
+        if (replacedToken != null && !replacedToken.equals(seating.token)) {
+            SESSIONS.remove(replacedToken, this);
+        }
+
+        InputStream in = seating.in;
+        HeartbeatMonitor.Watch watch = seating.heartbeat
+                ? heartbeats.watch(seating.outbox, seating.connection, "Player " + playerNumber) : null;
         if (playerNumber == 1) {
-            client1Socket = playerSocket;
-            out1 = out;
+            client1Connection = seating.connection;
+            outbox1 = seating.outbox;
             in1 = in;
+            watch1 = watch;
+            token1 = seating.token;
+            session1 = seating.session;
+            reserved1 = false;
             player1Connected = true;
         } else {
-            client2Socket = playerSocket;
-            out2 = out;
+            client2Connection = seating.connection;
+            outbox2 = seating.outbox;
             in2 = in;
+            watch2 = watch;
+            token2 = seating.token;
+            session2 = seating.session;
+            reserved2 = false;
             player2Connected = true;
         }
+        SESSIONS.put(seating.token, this);
+
+        if (seating.resumed) {
+            // Before anything of the outbox, which has nothing queued yet; the snapshot follows with the next broadcast
+            seating.out.println(Protocol.RESUMED + (playerNumber == 1 ? "X" : "O"));
+            seating.out.flush();
+        }
+        if (seating.binary) {
+            threadFactory.newThread(() -> readFrames(in, playerNumber, watch)).start();
+        } else {
+            threadFactory.newThread(() -> readLines(in, playerNumber, watch)).start();
+        }
+        System.out.println("Player " + playerNumber + (seating.resumed ? " resumed" : " connected")
+                + (seating.binary ? " (binary)" : "") + (seating.delta ? " (delta)" : "")
+                + (seating.heartbeat ? " (heartbeat)." : "."));
+    }
 
-        System.out.println("Player " + playerNumber + " connected.");
+    private static void reject(Seating seating, String reason) {
+        seating.out.println(Protocol.ERROR + " " + reason);
+        seating.out.flush();
+        seating.outbox.close();
+        try {
+            seating.connection.close();
+        } catch (IOException e) {
+            System.err.println("Error closing rejected connection: " + e.getMessage());
+        }
+        seating.admitted.countDown();
     }
 
-    // Handle the main game logic, including player moves and timeout management
-    void handleGame() {
+    private int seatOf(String token) {
+        if (token.equals(token1)) {
+            return 1;
+        }
+        return token.equals(token2) ? 2 : 0;
+    }
+
+    private boolean isConnected(int playerNumber) {
+        return playerNumber == 1 ? player1Connected : player2Connected;
+    }
+
+    private boolean isReserved(int playerNumber) {
+        return playerNumber == 1 ? reserved1 : reserved2;
+    }
+
+    // The empty seat a newcomer should be assigned, or 0 if there is none it could take. A reserved seat is only
+    // assigned where its player may come back through the same handshake, and newcomers there are turned away.
+    private int seatToFill() {
+        for (int playerNumber = 1; playerNumber <= 2; playerNumber++) {
+            if (!isConnected(playerNumber) && !isReserved(playerNumber)) {
+                return playerNumber;
+            }
+        }
+        if (!players.isSoleEntrance()) {
+            return 0;
+        }
+        return player1Connected ? (player2Connected ? 0 : 2) : 1;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        TOKENS.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    // Reads one handshake line byte by byte, so nothing after it is consumed before the protocol is settled
+    private static String readAsciiLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.length() == 0 ? null : line.toString();
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    // Forwards a player's lines to the game loop as they arrive, until the connection ends.
+    // Every line, pongs included, shows a heartbeat player is alive; pongs go no further.
+    private void readLines(InputStream in, int playerNumber, HeartbeatMonitor.Watch watch) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
         try {
-            if (isGameEnd()) {
-                offerRematch();
-                return;
-            }
-            int counter = 0;  // Counter for connection timeout
-            while (serverKeepAlive && counter < 10) {  // Timeout condition after 10 seconds of inactivity
-                if (processMoveIfReady(in1, out1, 1)) {
-                    broadcastGameState();
-                    if (isGameEnd()) {  // Check if the game has ended
-                        offerRematch();
-                        return;
-                    }
-                    counter = 0;  // Reset counter after a valid move
-                } else if (processMoveIfReady(in2, out2, 2)) {
-                    broadcastGameState();
-                    if (isGameEnd()) {  // Check if the game has ended
-                        offerRematch();
-                        return;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (watch != null) {
+                    watch.heard();
+                    if (line.equals(Protocol.PONG)) {
+                        continue;
                     }
-                    counter = 0;  // Reset counter after a valid move
+                }
+                lines.add(new PlayerLine(in, playerNumber, line, -1));
+            }
+        } catch (IOException e) {
+            // Closed by a shutdown, a reconnect or the heartbeat monitor
+        }
+        // Wakes the game loop so it notices a shutdown, or drops a heartbeat player at once
+        lines.add(new PlayerLine(in, playerNumber, null, -1));
+    }
+
+    // Binary counterpart of readLines: every byte is a move, a rematch vote, a resync request or a pong, with nothing
+    // to parse
+    private void readFrames(InputStream in, int playerNumber, HeartbeatMonitor.Watch watch) {
+        try {
+            int message;
+            while ((message = in.read()) >= 0) {
+                if (watch != null) {
+                    watch.heard();
+                }
+                if (message == BinaryProtocol.PONG) {
+                    continue;
+                } else if (message == BinaryProtocol.VOTE_YES) {
+                    lines.add(new PlayerLine(in, playerNumber, Protocol.VOTE_YES, -1));
+                } else if (message == BinaryProtocol.RESYNC) {
+                    lines.add(new PlayerLine(in, playerNumber, Protocol.RESYNC, -1));
                 } else {
-                    counter++;  // Increment counter if no moves are ready
-                    Thread.sleep(1000);  // Wait 1 second between checks
+                    lines.add(new PlayerLine(in, playerNumber, null, message));
                 }
             }
+        } catch (IOException e) {
+            // Closed by a shutdown, a reconnect or the heartbeat monitor
+        }
+        lines.add(new PlayerLine(in, playerNumber, null, -1));
+    }
 
-            if (isPlayer1Turn()) {
-                handlePlayerDisconnection(1);
+    // Next line from a currently connected player, or null if none arrives before the deadline (in nanoTime, or
+    // NO_DEADLINE). The deadline is a timeout on the shared TimingWheel that posts a token to the lines, so a
+    // waiting game is one parked thread and one wheel entry, whatever the number of games.
+    private PlayerLine nextLine(long deadline) throws InterruptedException {
+        if (deadline == NO_DEADLINE) {
+            return nextLine((PlayerLine) null);
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return null;
+        }
+        PlayerLine expired = new PlayerLine(null, 0, null, -1);
+        TimingWheel.Timeout timeout = timers.schedule((remaining + 999_999) / 1_000_000, () -> lines.add(expired));
+        try {
+            return nextLine(expired);
+        } finally {
+            timeout.cancel();  // A token already posted is skipped by the next wait
+        }
+    }
+
+    // The end of a heartbeat player's connection is returned too, as the player will not send more, and so is a
+    // player taking a seat, once seated. Resync requests are answered here, whatever the game is waiting for.
+    private PlayerLine nextLine(PlayerLine expired) throws InterruptedException {
+        while (serverKeepAlive) {
+            PlayerLine line = lines.take();
+            if (line == expired) {
+                return null;
+            }
+            if (line == windowEnded) {
+                endReconnectWindow();
+                continue;
+            }
+            if (line.seating != null) {
+                admit(line.seating);
+                return line;  // The seats changed, so whatever the caller waits for may have too
+            }
+            if (line.playerNumber == 0 || line.source != (line.playerNumber == 1 ? in1 : in2)) {
+                continue;  // The token of an earlier deadline, or from a replaced connection
+            }
+            if (line.isEnd()) {
+                if (hasHeartbeat(line.playerNumber) && serverKeepAlive) {
+                    return line;
+                }
+                continue;  // A player without heartbeats is dropped by the move timeout
+            }
+            if (Protocol.RESYNC.equals(line.text)) {
+                (line.playerNumber == 1 ? outbox1 : outbox2).resend(gameState);
             } else {
-                handlePlayerDisconnection(2);
+                return line;
             }
+        }
+        return null;
+    }
 
-            manageGameStateAfterDisconnection();
-
+    // Handle the main game logic, including player moves, rematches and timeout management
+    void handleGame() {
+        if (in1 == null || in2 == null) {
+            return;  // Nothing to handle until both players have connected
+        }
+        loopThread = Thread.currentThread();
+        try {
+            // Rematches and reconnections loop here rather than recursing, as a host may run thousands of rounds.
+            // A lost player's seat is filled by a filler thread while the game goes on serving the other player.
+            while (serverKeepAlive) {
+                PlayerLine lost = playUntilGameEnd();
+                if (lost == null) {
+                    offerRematch();  // Resets the game, or stops the server if the rematch is declined
+                } else if (serverKeepAlive) {
+                    if (lost.playerNumber > 0) {
+                        vacate(lost.playerNumber);  // Its connection ended
+                    } else if (isPlayer1Turn()) {
+                        vacate(1);  // The move timeout ran out
+                    } else {
+                        vacate(2);
+                    }
+                }
+            }
         } catch (IOException | InterruptedException e) {
-            handleError("Error during game handling", e);
+            if (serverKeepAlive) {
+                handleError("Error during game handling", e);
+            }  // Otherwise the game was ended while waiting, e.g. by its reconnect window
         }
     }
 
-    // Check if player move is ready and process it
-    boolean processMoveIfReady(BufferedReader in, PrintWriter out, int playerNumber) throws IOException {
-        if (in.ready()) {
-            String move = in.readLine();
-            checkForIOErrors(move);
-            processMove(move, playerNumber);  // Process the move
-            return true;
+    // Handles each move as soon as it arrives; null once the game has ended, or the end of the connection of the
+    // heartbeat player that was lost, or TIMED_OUT after the move timeout
+    private PlayerLine playUntilGameEnd() throws IOException, InterruptedException {
+        if (isGameEnd()) {
+            return null;
         }
-        return false;
+        PlayerLine move;
+        while ((move = nextLine(moveDeadline())) != null) {
+            if (move.seating != null) {
+                continue;  // The deadline depends on who is seated
+            }
+            if (move.isEnd()) {
+                return move;
+            }
+            if (move.text != null) {
+                checkForIOErrors(move.text);
+            }
+            int placed = processMove(move);
+            if (placed >= 0) {
+                broadcastMove(placed);
+            }
+            if (isGameEnd()) {  // Check if the game has ended
+                return null;
+            }
+        }
+        return PlayerLine.TIMED_OUT;
     }
 
-    // Process the move made by the player
-    private void processMove(String move, int playerNumber) {
-        String[] parts = move.split(",");
-        int row = Integer.parseInt(parts[0]);
-        int col = Integer.parseInt(parts[1]);
+    // The player to move is given the move timeout, unless its heartbeats show it is still there, or its opponent's
+    // seat is empty; an empty seat has the reconnect window instead
+    private long moveDeadline() {
+        if (!(player1Connected && player2Connected) || hasHeartbeat(isPlayer1Turn() ? 1 : 2)) {
+            return NO_DEADLINE;
+        }
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MOVE_TIMEOUT_MILLIS);
+    }
 
-        if (game.placeMark(row, col)) {
+    private boolean hasHeartbeat(int playerNumber) {
+        return (playerNumber == 1 ? watch1 : watch2) != null;
+    }
+
+    private void cancelWatch(int playerNumber) {
+        HeartbeatMonitor.Watch watch = playerNumber == 1 ? watch1 : watch2;
+        if (watch != null) {
+            watch.cancel();
+        }
+    }
+
+    // Process the move made by the player, sent as "row,col" text or as a binary encoded move;
+    // returns the encoded move if it was placed, or -1
+    private int processMove(PlayerLine line) {
+        int playerNumber = line.playerNumber;
+        if (game.getCurrentPlayer() != (playerNumber == 1 ? 'X' : 'O')) {
+            System.err.println("Move out of turn by player " + playerNumber);
+            return -1;
+        }
+        int move = line.text != null ? Protocol.parseMove(line.text, game.getRows(), game.getCols()) : line.move;
+
+        if (game.placeMark(move)) {
             game.changePlayer();  // Switch to the other player
-            gameState = new GameState(game, false);  // Update game state
-            htmlTranslator.updateGameStateHTML(gameState);  // Save game state
-        } else {
-            System.err.println("Invalid move by player " + playerNumber);
+            gameState = GameState.of(game, !(player1Connected && player2Connected));  // Waiting while a seat is empty
+            htmlTranslator.saveGameState(gameState);  // Written in the background, off the game loop
+            return move;
         }
+        System.err.println("Invalid move by player " + playerNumber + ": "
+                + (line.text != null ? line.text : String.valueOf(line.move)));
+        return -1;
     }
 
-    // Broadcast the game state to both players
+    // Broadcast the game state to both players and any spectators
     void broadcastGameState() {
-        String gameStateStr = gameState.compress();
-        if (gameStateStr != null && !gameStateStr.isEmpty()) {
-            try {
-                out1.println("STATE:" + gameStateStr);
-                out2.println("STATE:" + gameStateStr);
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                System.err.println("Game state broadcast tempo error");
-            }
-        } else {
-            System.err.println("Cannot broadcast invalid game state.");
+        outbox1.sendState(gameState);  // Queued only; repeats of the last state are dropped
+        outbox2.sendState(gameState);
+        publishState();
+    }
+
+    // Broadcast the move that led to the current state; delta players get just the move, the others the state
+    private void broadcastMove(int move) {
+        int seq = gameState.getMarkCount();
+        outbox1.sendMove(gameState, seq, move);
+        outbox2.sendMove(gameState, seq, move);
+        publishState();
+    }
+
+    private void publishState() {
+        if (spectators != null || feed != null) {
+            publishToWatchers();
+        }
+    }
+
+    // Publishes the current state and every later one to the feed, which is closed when the game ends
+    public synchronized void publishTo(GameStateHttpServer.Feed feed) {
+        this.feed = feed;
+        feed.publish(gameState);
+        if (!serverKeepAlive) {
+            feed.close();  // the game ended before the feed was attached
+        }
+    }
+
+    // Synchronized with addSpectator and publishTo and reading the state inside, so whichever thread publishes last
+    // sends the newest state; the feed, like the fan-out, only drops repeats of its last state
+    private synchronized void publishToWatchers() {
+        if (spectators != null) {
+            spectators.publish(gameState);
+        }
+        GameStateHttpServer.Feed httpFeed = feed;
+        if (httpFeed != null) {
+            httpFeed.publish(gameState);
         }
     }
 
+    // Streams the current state and every later one to the channel, until either side closes it.
+    // Spectators cannot move or vote; anything they send is ignored.
+    public synchronized void addSpectator(SocketChannel channel) throws IOException {
+        if (!serverKeepAlive) {
+            channel.close();
+            return;
+        }
+        if (spectators == null) {
+            spectators = new SpectatorFanout(gameState);
+            // A move made while the fan-out was created was not published to it, as the game still saw none
+            spectators.publish(gameState);
+        }
+        spectators.subscribe(channel);
+    }
+
+    // Synchronized with addSpectator, which checks serverKeepAlive, so no spectator is added after this
+    private synchronized void closeSpectators() {
+        if (spectators != null) {
+            spectators.close();
+        }
+    }
+
+    public int getSpectatorCount() {
+        SpectatorFanout fanout = spectators;
+        return fanout != null ? fanout.size() : 0;
+    }
+
     // Check if the game has ended (either by a win or the board being full)
     boolean isGameEnd() {
         if (game.checkForWin() || game.checkForLose() || game.isBoardFull()) {
-            broadcastGameState();
-            htmlTranslator.updateGameStateHTML(gameState);
+            // The final state has already been broadcast and saved along with the move that ended the game
             return true;
         }
         return false;
     }
 
     private void offerRematch() throws IOException, InterruptedException {
-        out1.println("Rematch?");
-        out2.println("Rematch?");
+        outbox1.sendRematch();
+        outbox2.sendRematch();
 
         int votesForRematch = collectVotesForRematch();
 
@@ -224,74 +688,194 @@ public class TicTacToeServer {
         }
     }
 
-    private int collectVotesForRematch() throws IOException, InterruptedException {
+    // Counts each player's "Yes" once; the window closes early as soon as both have voted
+    private int collectVotesForRematch() throws InterruptedException {
+        boolean[] votes = new boolean[2];
         int votesFor = 0;
-        int counter = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REMATCH_WINDOW_MILLIS);
 
-        while (counter < 10 && votesFor < 2) {
-            votesFor += getVote(in1) ? 1 : 0;
-            votesFor += getVote(in2) ? 1 : 0;
-            counter++;
-            Thread.sleep(1000);
+        PlayerLine vote;
+        while (votesFor < 2 && (vote = nextLine(deadline)) != null) {
+            if (vote.seating != null) {
+                continue;
+            }
+            if (vote.isEnd()) {
+                break;  // A player that is gone will not vote
+            }
+            if (Protocol.VOTE_YES.equalsIgnoreCase(vote.text) && !votes[vote.playerNumber - 1]) {
+                votes[vote.playerNumber - 1] = true;
+                votesFor++;
+            }
         }
 
         return votesFor;
     }
 
-    private boolean getVote(BufferedReader in) throws IOException {
-        if (in.ready()) {
-            String response = in.readLine();
-            return response.equalsIgnoreCase("Yes");
-        }
-        return false;
-    }
-
     private void resetGame() throws IOException {
-        game = new Game();
-        gameState = new GameState(game, false);
+        game = new Game(game.getRows(), game.getCols(), game.getWinLength());
+        gameState = GameState.of(game, false);
         broadcastGameState();
-        handleGame();
     }
 
-    private void handlePlayerDisconnection(int playerNumber) {
-        if (playerNumber == 1) {
-            player1Connected = false;
-        } else if (playerNumber == 2) {
-            player2Connected = false;
+    // Empties a lost player's seat and tells the other player and any spectators the game waits. A player that took
+    // up its session token has the seat kept for it until the reconnect window passes; any other player's seat goes
+    // to the next newcomer, whom a filler finds.
+    private void vacate(int playerNumber) {
+        boolean reserve = playerNumber == 1 ? session1 : session2;
+        System.out.println("Player " + playerNumber + " disconnected, " + (reserve ? "keeping the seat for "
+                + RECONNECT_WINDOW_MILLIS / 1000 + " seconds." : "taking the next player for the seat."));
+        cancelWatch(playerNumber);
+        try {
+            if (playerNumber == 1) {
+                reserved1 = reserve;
+                player1Connected = false;
+                watch1 = null;
+                in1 = null;  // Anything still coming from the old connection is dropped
+                outbox1.close();
+                client1Connection.close();
+            } else {
+                reserved2 = reserve;
+                player2Connected = false;
+                watch2 = null;
+                in2 = null;
+                outbox2.close();
+                client2Connection.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing lost connection: " + e.getMessage());
+        }
+        blockGameState();
+        broadcastGameState();  // The lost player's outbox is closed, so only the other player hears of it
+        if (reconnectWindow == null) {
+            reconnectWindow = timers.schedule(RECONNECT_WINDOW_MILLIS, () -> lines.add(windowEnded));
         }
+        startFilling();
     }
 
-    private void manageGameStateAfterDisconnection() throws IOException, InterruptedException {
-        blockGameState();          // Block game state
-        broadcastGameState();      // Notify clients of game state
-        handleDisconnection();     // Handle reconnection process
+    // Reserved seats whose players did not return are opened to newcomers for another window; once no seat is
+    // reserved, a seat still empty at the end of the window ends the game
+    private void endReconnectWindow() {
+        if (reconnectWindow == null || !reconnectWindow.isExpired()) {
+            return;  // Posted as the seats were filled
+        }
+        reconnectWindow = null;
+        if (!reserved1 && !reserved2) {
+            abandon();
+            return;
+        }
+        for (int playerNumber = 1; playerNumber <= 2; playerNumber++) {
+            if (isReserved(playerNumber)) {
+                System.out.println("Player " + playerNumber + " did not return, opening the seat to new players.");
+                String token = playerNumber == 1 ? token1 : token2;
+                if (token != null) {
+                    SESSIONS.remove(token, this);
+                }
+                if (playerNumber == 1) {
+                    token1 = null;
+                    reserved1 = false;
+                } else {
+                    token2 = null;
+                    reserved2 = false;
+                }
+            }
+        }
+        reconnectWindow = timers.schedule(RECONNECT_WINDOW_MILLIS, () -> lines.add(windowEnded));
+        startFilling();
+    }
 
-        unblockGameState();        // Unblock game state
-        broadcastGameState();      // Notify clients of updated game state
-        handleGame();              // Continue game handling after reconnection
+    private void startFilling() {
+        if (filling.compareAndSet(false, true)) {
+            Thread thread = threadFactory.newThread(this::fillSeats);
+            filler = thread;
+            thread.start();
+        }
     }
 
+    // Takes players for the empty seats newcomers may fill until there are none, as they are filled by players it
+    // shook hands with or by resumes routed here from other connections, after which the game interrupts it. The
+    // handshakes run here and the seating on the game's thread, so a slow or silent newcomer holds up neither the game
+    // nor a returning player.
+    private void fillSeats() {
+        try {
+            int playerNumber;
+            while (serverKeepAlive && (playerNumber = seatToFill()) > 0) {
+                PlayerConnection connection = players.nextPlayer();
+                Seating seating;
+                try {
+                    seating = handshake(connection, playerNumber);
+                } catch (IOException e) {
+                    System.err.println("Handshake failed: " + e.getMessage());
+                    continue;  // Left before acknowledging; the seat is still empty
+                }
+                if (seating.resumed && SESSIONS.get(seating.token) != this) {
+                    route(seating);
+                } else {
+                    lines.add(new PlayerLine(seating));
+                    seating.admitted.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            // The seats were filled by a routed resume, or the game shut down
+        } catch (IOException e) {
+            if (serverKeepAlive) {
+                handleError("Error waiting for a player", e);
+            }
+        } finally {
+            filling.set(false);
+            if (serverKeepAlive && seatToFill() > 0) {
+                startFilling();  // A seat was emptied again as this filler stopped
+            }
+        }
+    }
 
-    // Handle disconnection and reconnection of players after timeout
+    // Handle disconnection and reconnection of players after timeout; the game ends if the window passes first
     void handleDisconnection() throws IOException, InterruptedException {
-        if (!player1Connected) {
-            System.out.println("Attempting to reconnect Player 1...");
-            ackPlayer(1);  // Reconnect Player 1
+        TimingWheel.Timeout window = timers.schedule(RECONNECT_WINDOW_MILLIS, this::abandon);
+        try {
+            if (!player1Connected) {
+                System.out.println("Attempting to reconnect Player 1...");
+                ackPlayer(1);  // Reconnect Player 1
+            }
+            if (!player2Connected) {
+                System.out.println("Attempting to reconnect Player 2...");
+                ackPlayer(2);  // Reconnect Player 2
+            }
+        } finally {
+            window.cancel();
+        }
+    }
+
+    // Runs when a seat stays empty too long, on the game's thread or, during a blocking reconnect, the wheel thread:
+    // stops the game and wakes its loop from waiting for the player, whether on a host's seats or on the listening
+    // socket, which is closed
+    private void abandon() {
+        if (player1Connected && player2Connected) {
+            return;  // The player came back as the window closed
         }
-        if (!player2Connected) {
-            System.out.println("Attempting to reconnect Player 2...");
-            ackPlayer(2);  // Reconnect Player 2
+        System.out.println("No player returned within " + RECONNECT_WINDOW_MILLIS / 1000 + " seconds, ending the game.");
+        serverKeepAlive = false;
+        players.close();
+        Thread loop = loopThread;
+        if (loop != null) {
+            loop.interrupt();
+        }
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing server socket: " + e.getMessage());
+            }
         }
     }
 
     // Block the game state (used during disconnection)
     private void blockGameState() {
-        gameState.suspendState(true);
+        gameState = GameState.of(game, true);
     }
 
     // Unblock the game state (after reconnection)
     private void unblockGameState() {
-        gameState.suspendState(false);
+        gameState = GameState.of(game, false);
     }
 
     // Handle IO-related errors
@@ -311,11 +895,22 @@ public class TicTacToeServer {
     public void shutdown() {
         System.out.println("Shutting down server...");
 
+        // Players handed over but not yet connected can go elsewhere before the game reports itself stopped
+        players.close();
+
         // Set the running flag to false to stop any loops
         serverKeepAlive = false;
 
+        // Its sessions cannot be resumed any more, and players shaking hands for its seats go away
+        forgetSessions();
+
         // Close all connections and sockets
         closeConnections();
+        closeSpectators();
+        GameStateHttpServer.Feed httpFeed = feed;
+        if (httpFeed != null) {
+            httpFeed.close();
+        }
 
         // Close the server socket
         if (serverSocket != null && !serverSocket.isClosed()) {
@@ -329,16 +924,38 @@ public class TicTacToeServer {
         System.out.println("Server shutdown complete.");
     }
 
-    // Close all connections
+    private void forgetSessions() {
+        String token = token1;
+        if (token != null) {
+            SESSIONS.remove(token, this);
+        }
+        token = token2;
+        if (token != null) {
+            SESSIONS.remove(token, this);
+        }
+        Thread thread = filler;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        for (PlayerLine line : lines) {
+            if (line.seating != null && lines.remove(line)) {
+                reject(line.seating, "game over");
+            }
+        }
+    }
+
+    // Close all connections; sockets go first, as closing a reader waits for its blocked readLine to return
     void closeConnections() {
+        cancelWatch(1);
+        cancelWatch(2);
         try {
+            if (client1Connection != null) client1Connection.close();
             if (in1 != null) in1.close();
-            if (out1 != null) out1.close();
-            if (client1Socket != null) client1Socket.close();
+            if (outbox1 != null) outbox1.close();
 
+            if (client2Connection != null) client2Connection.close();
             if (in2 != null) in2.close();
-            if (out2 != null) out2.close();
-            if (client2Socket != null) client2Socket.close();
+            if (outbox2 != null) outbox2.close();
         } catch (IOException e) {
             handleError("Error closing connections", e);
         }
@@ -348,6 +965,11 @@ public class TicTacToeServer {
         return gameState.getCurrentPlayer() == 'X';
     }
 
+    // False once the game is over for good (rematch declined) or the server was shut down
+    public boolean isRunning() {
+        return serverKeepAlive;
+    }
+
     public boolean isPlayer1Connected() {
         return player1Connected;
     }
@@ -357,10 +979,73 @@ public class TicTacToeServer {
     }
 
     void setOut1(PrintWriter out1) {
-        this.out1 = out1;
+        this.outbox1 = new PlayerOutbox(PlayerOutbox.text(out1), threadFactory);
     }
 
     void setOut2(PrintWriter out2) {
-        this.out2 = out2;
+        this.outbox2 = new PlayerOutbox(PlayerOutbox.text(out2), threadFactory);
+    }
+
+    // A message received from a player, tagged with its stream so messages from a replaced connection can be dropped
+    private static final class PlayerLine {
+        static final PlayerLine TIMED_OUT = new PlayerLine(null, 0, null, -1);  // from no player in particular
+
+        final InputStream source;
+        final int playerNumber;
+        final String text;  // the line, or null for a binary move
+        final int move;  // the binary encoded move, or -1
+        final Seating seating;  // a player to seat, handed over by a filler or from another game, or null
+
+        PlayerLine(InputStream source, int playerNumber, String text, int move) {
+            this.source = source;
+            this.playerNumber = playerNumber;
+            this.text = text;
+            this.move = move;
+            this.seating = null;
+        }
+
+        PlayerLine(Seating seating) {
+            this.source = null;
+            this.playerNumber = 0;
+            this.text = null;
+            this.move = -1;
+            this.seating = seating;
+        }
+
+        // Marks the end of the connection
+        boolean isEnd() {
+            return text == null && move < 0;
+        }
+    }
+
+    // A player that has shaken hands, waiting to be seated by the game's thread
+    private static final class Seating {
+        final PlayerConnection connection;
+        final InputStream in;
+        final PrintWriter out;
+        final PlayerOutbox outbox;
+        final String token;  // issued to a fresh player, or presented by a returning one
+        final int seat;  // the seat a fresh player was assigned, 0 for a returning one
+        final boolean resumed;
+        final boolean binary;
+        final boolean delta;
+        final boolean heartbeat;
+        final boolean session;  // took up the token, so its seat is kept if it is lost
+        final CountDownLatch admitted = new CountDownLatch(1);  // seated or rejected
+
+        Seating(PlayerConnection connection, InputStream in, PrintWriter out, PlayerOutbox outbox, String token,
+                int seat, boolean resumed, boolean binary, boolean delta, boolean heartbeat, boolean session) {
+            this.connection = connection;
+            this.in = in;
+            this.out = out;
+            this.outbox = outbox;
+            this.token = token;
+            this.seat = seat;
+            this.resumed = resumed;
+            this.binary = binary;
+            this.delta = delta;
+            this.heartbeat = heartbeat;
+            this.session = session;
+        }
     }
 }
@@ -0,0 +1,209 @@
+package com.example.tictactoe.net;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Hashed timing wheel shared by all games for their deadlines: move timeouts, rematch windows, reconnect windows and
+// heartbeat rounds. Time is cut into ticks and the wheel into a power of two of buckets, each a doubly-linked list
+// of the timeouts due in its ticks, however many rotations away. Scheduling and cancelling only queue the request,
+// and the wheel's single thread links or unlinks the timeout in O(1) on its next tick, so neither depends on the
+// number of timeouts outstanding, unlike the heap behind a ScheduledExecutorService or a timed park.
+// A timeout fires on the wheel thread, never early and at most about a tick late, so tasks must be short: wake a
+// game loop, queue a message. Anything slower belongs on a thread of its own.
+public final class TimingWheel {
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;  // bounds the work one tick does for a burst
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long start = System.nanoTime();
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;  // wheel thread only
+
+    public TimingWheel(long tickMillis, int buckets) {
+        if (tickMillis <= 0 || buckets <= 0 || Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("A timing wheel needs a positive tick and a power of two of buckets");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = buckets - 1;
+        this.worker = Thread.ofPlatform().daemon().name("timing-wheel").start(this::run);
+    }
+
+    // The wheel all games share: 10 ms ticks, 512 buckets for a rotation of about 5 seconds
+    public static TimingWheel shared() {
+        return Shared.WHEEL;
+    }
+
+    private static final class Shared {
+        static final TimingWheel WHEEL = new TimingWheel(10, 512);
+    }
+
+    // Runs the task on the wheel thread once the delay has passed, unless the timeout is cancelled first
+    public Timeout schedule(long delayMillis, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("The timing wheel has been stopped");
+        }
+        long deadline = System.nanoTime() - start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Timeout timeout = new Timeout(deadline, task);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    // Timeouts scheduled and neither fired nor cancelled yet
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    // Stops the wheel thread; outstanding timeouts never fire
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long tickEnd = (tick + 1) * tickNanos;
+            long wait;
+            while (running && (wait = tickEnd - (System.nanoTime() - start)) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            unlinkCancelled();
+            transferAdditions();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            pending.decrementAndGet();
+        }
+    }
+
+    // Places new timeouts in the bucket of their deadline's tick; one already due goes in the current bucket
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.WAITING) {
+                continue;  // cancelled before it was placed; counted off by unlinkCancelled
+            }
+            long due = timeout.deadline / tickNanos;
+            timeout.rounds = (due - tick) / wheel.length;
+            wheel[(int) (Math.max(due, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.state != Timeout.WAITING) {
+                bucket.remove(timeout);  // cancelled since this tick's unlinking
+            } else if (timeout.rounds <= 0) {
+                bucket.remove(timeout);
+                if (Timeout.STATE.compareAndSet(timeout, Timeout.WAITING, Timeout.EXPIRED)) {
+                    pending.decrementAndGet();
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Timer task failed: " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                }
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    // A scheduled task; cancel it once whatever it was guarding has happened
+    public final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final long deadline;  // nanoseconds after the wheel's start
+        private final Runnable task;
+        private volatile int state = WAITING;
+        private long rounds;  // the remaining fields belong to the wheel thread
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        // True if the task will not run; false if it has run (or is running) or was already cancelled
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            cancellations.add(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;  // unlinked already, e.g. by expire
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
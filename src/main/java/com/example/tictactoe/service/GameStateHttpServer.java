@@ -0,0 +1,243 @@
+package com.example.tictactoe.service;
+
+import com.example.tictactoe.model.GameState;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serves live game states over HTTP with the JDK's built-in server, so browsers and dashboards need not poll
+// game_state.html:
+//   GET /games/{id}          a page with the board, kept current by the event stream below
+//   GET /games/{id}/state    the board fragment alone
+//   GET /games/{id}/events   server-sent events: the current board, then each new one as a single "data:" line
+// Games publish their states to a Feed. The fragment of an interned state is rendered once by the translator and its
+// event is encoded once here, whatever the number of watchers. Every request runs on a virtual thread, so an open
+// event stream costs a parked thread, and a watcher that falls behind skips straight to the newest state.
+public class GameStateHttpServer {
+    private static final int BACKLOG = 4096;
+    private static final String GAMES = "/games/";
+    private static final long KEEP_ALIVE_MILLIS = 15_000;  // comment line sent on idle streams to notice gone browsers
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TicTacToeHTMLTranslator translator;
+    private final Map<Long, Feed> feeds = new ConcurrentHashMap<>();
+    private final Map<GameState, byte[]> eventCache = new ConcurrentHashMap<>();  // interned states only
+
+    public GameStateHttpServer(int port, TicTacToeHTMLTranslator translator) throws IOException {
+        this.translator = translator;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext(GAMES, this::handle);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Game state HTTP server listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // The feed a game publishes its states to; the game's pages are served until the feed is closed
+    public Feed feed(long gameId) {
+        Feed feed = new Feed(gameId);
+        Feed replaced = feeds.put(gameId, feed);
+        if (replaced != null) {
+            replaced.close();
+        }
+        return feed;
+    }
+
+    // Open event streams over all games
+    public int getWatcherCount() {
+        int count = 0;
+        for (Feed feed : feeds.values()) {
+            count += feed.watchers;
+        }
+        return count;
+    }
+
+    public void shutdown() {
+        for (Feed feed : feeds.values()) {
+            feed.close();  // ends the event streams, so stopping does not wait for them
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                respond(exchange, 405, "text/plain", "Only GET is supported");
+                return;
+            }
+            String[] path = exchange.getRequestURI().getPath().substring(GAMES.length()).split("/");
+            Feed feed = null;
+            try {
+                feed = feeds.get(Long.parseLong(path[0]));
+            } catch (NumberFormatException e) {
+                // Not a game id; answered below like an unknown game
+            }
+            String view = path.length > 1 ? path[1] : "";
+            if (feed == null || path.length > 2) {
+                respond(exchange, 404, "text/plain", "No such game");
+            } else if (view.isEmpty()) {
+                respond(exchange, 200, "text/html", page(feed));
+            } else if (view.equals("state")) {
+                respond(exchange, 200, "text/html", fragment(feed.current()));
+            } else if (view.equals("events")) {
+                stream(exchange, feed);
+            } else {
+                respond(exchange, 404, "text/plain", "No such page");
+            }
+        }
+    }
+
+    private String page(Feed feed) {
+        return "<html><head><title>Tic Tac Toe</title></head><body>"
+                + "<h1>Game " + feed.gameId + "</h1>"
+                + "<div id='board'>" + fragment(feed.current()) + "</div>"
+                + "<script>new EventSource('" + GAMES + feed.gameId + "/events').onmessage = "
+                + "e => document.getElementById('board').innerHTML = e.data;</script>"
+                + "</body></html>";
+    }
+
+    private String fragment(GameState state) {
+        return state == null ? "<p>Waiting for players...</p>" : translator.renderFragment(state);
+    }
+
+    private byte[] event(GameState state) {
+        return state.isInterned()
+                ? eventCache.computeIfAbsent(state, this::encodeEvent)
+                : encodeEvent(state);
+    }
+
+    private byte[] encodeEvent(GameState state) {
+        return ("data: " + translator.renderFragment(state) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Sends the newest state whenever it changes, until the game ends or the browser goes away
+    private void stream(HttpExchange exchange, Feed feed) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        feed.lock.lock();
+        try {
+            feed.watchers++;
+        } finally {
+            feed.lock.unlock();
+        }
+        try {
+            long seen = 0;
+            while (true) {
+                GameState state;
+                long version;
+                boolean closed;
+                feed.lock.lock();
+                try {
+                    long wait = TimeUnit.MILLISECONDS.toNanos(KEEP_ALIVE_MILLIS);
+                    while (feed.version == seen && !feed.closed && wait > 0) {
+                        wait = feed.changed.awaitNanos(wait);
+                    }
+                    state = feed.state;
+                    version = feed.version;
+                    closed = feed.closed;
+                } finally {
+                    feed.lock.unlock();
+                }
+                if (version != seen && state != null) {
+                    out.write(event(state));
+                    seen = version;
+                } else if (closed) {
+                    return;
+                } else {
+                    out.write(": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();  // shutdown
+        } finally {
+            feed.lock.lock();
+            try {
+                feed.watchers--;
+            } finally {
+                feed.lock.unlock();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // One game's states as it publishes them. Publishing only swaps the state and wakes the game's streams, so it
+    // costs the game the same with one watcher or thousands.
+    public final class Feed {
+        private final long gameId;
+        private final ReentrantLock lock = new ReentrantLock();  // not synchronized, which would pin virtual threads
+        private final Condition changed = lock.newCondition();
+        private GameState state;
+        private long version;
+        private boolean closed;
+        private volatile int watchers;
+
+        private Feed(long gameId) {
+            this.gameId = gameId;
+        }
+
+        // Repeats of the current state are dropped
+        public void publish(GameState newState) {
+            lock.lock();
+            try {
+                if (closed || newState.equals(state)) {
+                    return;
+                }
+                state = newState;
+                version++;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // The game is over: its streams end once they have sent the last state, and its pages are gone
+        public void close() {
+            lock.lock();
+            try {
+                closed = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            feeds.remove(gameId, this);
+        }
+
+        GameState current() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
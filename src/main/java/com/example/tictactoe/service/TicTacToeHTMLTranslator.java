@@ -8,22 +8,75 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class TicTacToeHTMLTranslator {
+    // Rendered pages and board fragments of interned states; there is a bounded number of them, so the caches
+    // need no eviction
+    private final Map<GameState, String> htmlCache = new ConcurrentHashMap<>();
+    private final Map<GameState, String> fragmentCache = new ConcurrentHashMap<>();
+    private final AtomicReference<GameState> unsaved = new AtomicReference<>();  // newest state not yet written
 
     public void updateGameStateHTML(GameState gameState) {
+        String html = gameState.isInterned()
+                ? htmlCache.computeIfAbsent(gameState, this::renderHTML)
+                : renderHTML(gameState);
+
+        // Write the HTML to a file
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter("game_state.html"))) {
+            writer.write(html);
+        } catch (IOException e) {
+            System.err.println("Error writing game state HTML: " + e.getMessage());
+        }
+    }
+
+    // Writes the state to the file on a background thread, so a game loop never waits for the disk. States saved
+    // while a write is in progress replace each other, and the file always ends up holding the newest one.
+    public void saveGameState(GameState gameState) {
+        if (unsaved.getAndSet(gameState) == null) {
+            Thread.ofVirtual().start(this::writeUnsaved);  // no writer is running, as it exits only on clearing unsaved
+        }
+    }
+
+    // Writes the newest state until none came in while writing; clearing unsaved is the writer's last act, so the
+    // next save starts a new writer only once this one is done with the file
+    private void writeUnsaved() {
+        GameState gameState;
+        do {
+            gameState = unsaved.get();
+            updateGameStateHTML(gameState);
+        } while (!unsaved.compareAndSet(gameState, null));  // fails if a newer state came in meanwhile
+    }
+
+    String renderHTML(GameState gameState) {
+        return "<html><head><title>Tic Tac Toe</title></head><body>"
+                + "<h1>Current Game State</h1>"
+                + renderFragment(gameState)
+                + "</body></html>";
+    }
+
+    // The board and the status line, without the page around them; a single line, as server-sent events need
+    public String renderFragment(GameState gameState) {
+        return gameState.isInterned()
+                ? fragmentCache.computeIfAbsent(gameState, this::buildFragment)
+                : buildFragment(gameState);
+    }
+
+    private String buildFragment(GameState gameState) {
         StringBuilder html = new StringBuilder();
-        html.append("<html><head><title>Tic Tac Toe</title></head><body>");
-        html.append("<h1>Current Game State</h1>");
 
         // Generate the game board as a table
         html.append("<table border='1' style='font-size:30px; text-align:center;'>");
-        for (int row = 0; row < 3; row++) {
+        for (int row = 0; row < gameState.getRows(); row++) {
             html.append("<tr>");
-            for (int col = 0; col < 3; col++) {
-                char mark = gameState.getBoard()[row][col];
+            for (int col = 0; col < gameState.getCols(); col++) {
+                char mark = gameState.getMark(row, col);
                 if (mark == '-') {
                     html.append("<td style='width:50px; height:50px;'> </td>");
                 } else {
@@ -42,15 +95,7 @@ public class TicTacToeHTMLTranslator {
         } else {
             html.append("<p>Player " + gameState.getCurrentPlayer() + "'s Turn</p>");
         }
-
-        html.append("</body></html>");
-
-        // Write the HTML to a file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("game_state.html"))) {
-            writer.write(html.toString());
-        } catch (IOException e) {
-            System.err.println("Error writing game state HTML: " + e.getMessage());
-        }
+        return html.toString();
     }
 
     // New method to load the game state from the HTML file
@@ -70,30 +115,40 @@ public class TicTacToeHTMLTranslator {
 
         // Parse the game board and current player from the HTML content
         GameState gameState = parseGameStateFromHTML(htmlContent.toString());
+        if (gameState.getRows() != game.getRows() || gameState.getCols() != game.getCols()) {
+            System.err.println("Saved game state does not match the configured board size, ignoring it");
+            return null;
+        }
         game.loadState(gameState);
-        gameState.setGame(game);
-        return gameState;
+        return GameState.of(game, true);  // Rebuild from the game so the configured win length is kept
     }
 
     // Helper method to parse the game state from the HTML content
     GameState parseGameStateFromHTML(String html) {
-        char[][] board = new char[3][3];
         char currentPlayer = 'X';  // Default value
         GameState.State state = GameState.State.WAITING;
 
         // Regular expression to match the table rows and columns in the HTML
         Pattern boardPattern = Pattern.compile("<td style='width:50px; height:50px;'>(.*?)</td>");
         Matcher matcher = boardPattern.matcher(html);
-
-        int row = 0, col = 0;
+        List<Character> marks = new ArrayList<>();
         while (matcher.find()) {
             String mark = matcher.group(1).trim();
-            board[row][col] = mark.isEmpty() ? '-' : mark.charAt(0);
+            marks.add(mark.isEmpty() ? '-' : mark.charAt(0));
+        }
 
-            col++;
-            if (col == 3) {
-                col = 0;
-                row++;
+        // Derive the board size from the number of table rows (classic 3x3 if no table was found)
+        int rows = countOccurrences(html, "<tr>");
+        int cols = rows == 0 ? 0 : marks.size() / rows;
+        if (rows == 0 || cols == 0) {
+            rows = 3;
+            cols = 3;
+        }
+        char[][] board = new char[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int index = row * cols + col;
+                board[row][col] = index < marks.size() ? marks.get(index) : '-';
             }
         }
 
@@ -106,4 +161,14 @@ public class TicTacToeHTMLTranslator {
 
         return new GameState(board, currentPlayer, state);  // Return the parsed game state
     }
+
+    private int countOccurrences(String text, String token) {
+        int count = 0;
+        int index = text.indexOf(token);
+        while (index >= 0) {
+            count++;
+            index = text.indexOf(token, index + token.length());
+        }
+        return count;
+    }
 }
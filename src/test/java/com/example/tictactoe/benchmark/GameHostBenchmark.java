@@ -0,0 +1,72 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.net.TicTacToeGameHost;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ThreadFactory;
+
+// Compares TicTacToeGameHost on virtual threads against platform threads: brings up N concurrent games of bots,
+// then reports how long they took to start, the OS threads and heap they hold, and the sustained move rate.
+// Run each mode in a fresh JVM: GameHostBenchmark [virtual|platform [games [seconds [clientThreads]]]]
+// Large game counts need a matching open-file limit (and, for platform threads, a matching thread limit).
+public class GameHostBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "virtual";
+        int gameCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int clientThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        ThreadFactory threads = switch (mode) {
+            case "virtual" -> TicTacToeGameHost.virtualThreads();
+            case "platform" -> TicTacToeGameHost.platformThreads();
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        int baseThreads = threadBean.getThreadCount();
+        System.gc();
+        long baseHeap = memoryBean.getHeapMemoryUsage().getUsed();
+
+        TicTacToeGameHost host = new TicTacToeGameHost(0, 3, 3, 3, threads);
+        host.start();
+        LoadBots bots = new LoadBots(clientThreads);
+        bots.start();
+        long start = System.nanoTime();
+        try {
+            bots.connect(host.getPort(), gameCount * 2);
+            // Every player sees a state once its game starts
+            while (bots.states() < gameCount * 2L) {
+                Thread.sleep(10);
+            }
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%s threads: failed after %d games: %s%n", mode, host.getGameCount(), e.getMessage());
+            bots.stop();
+            host.shutdown();
+            return;
+        }
+        double startup = (System.nanoTime() - start) / 1e9;
+
+        long startMoves = bots.moves();
+        long measureStart = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - measureStart) / 1e9;
+        double moveRate = (bots.moves() - startMoves) / elapsed;
+        int liveThreads = threadBean.getThreadCount() - baseThreads;
+        System.gc();
+        long heap = memoryBean.getHeapMemoryUsage().getUsed() - baseHeap;
+
+        System.out.printf("%s threads, %d concurrent games, %d bot threads%n", mode, gameCount, clientThreads);
+        System.out.printf("%,10.2f s to start all games%n", startup);
+        System.out.printf("%,10d platform threads added (%,.2f per game)%n",
+                liveThreads, (double) liveThreads / gameCount);
+        System.out.printf("%,10d KB heap retained (%,.1f KB per game)%n", heap / 1024, heap / 1024.0 / gameCount);
+        System.out.printf("%,10.0f moves/s%n", moveRate);
+
+        bots.stop();
+        host.shutdown();
+        System.exit(0);  // platform-thread games wind down asynchronously after shutdown
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.model.GameState;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Random-move bots for the 3x3 board speaking the line protocol, many per selector thread, so the load side needs no
+// thread per connection. Bots always accept the rematch, so games keep coming for as long as the server runs.
+// Each bot also times its moves, from sending the move to receiving the state that contains it.
+// Binary bots take up the server's binary offer and then speak its 3x3 frames; servers without it keep them on text.
+// Delta bots likewise take up delta updates and apply the move events to their own copy of the board.
+final class LoadBots {
+    private static final int MAX_SAMPLES = 1 << 20;  // per loop; later samples overwrite the oldest
+    private static final int CLASSIC_STATE = 1;  // binary frame types, as in the server's BinaryProtocol
+    private static final int REMATCH = 3;
+    private static final int MOVE = 4;
+    private static final int VOTE_YES = 0xFF;
+    private static final char[] MARKS = {'-', 'X', 'O'};
+    private static final int ONGOING = GameState.State.ONGOING.ordinal();
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, {0, 4, 8}, {2, 4, 6}
+    };
+
+    private final BotLoop[] loops;
+    private final Thread[] threads;
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong states = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final boolean binary;
+    private final boolean delta;
+    private int connected;
+
+    LoadBots(int threads) throws IOException {
+        this(threads, false, false);
+    }
+
+    LoadBots(int threads, boolean binary, boolean delta) throws IOException {
+        this.binary = binary;
+        this.delta = delta;
+        loops = new BotLoop[threads];
+        this.threads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new BotLoop(i);
+        }
+    }
+
+    // Consecutive players land on the same loop, as servers pair connections in arrival order
+    void connect(int port, int players) throws IOException {
+        for (int i = 0; i < players; i++, connected++) {
+            loops[(connected / 2) % loops.length].connect(port);
+        }
+    }
+
+    void start() {
+        for (int i = 0; i < loops.length; i++) {
+            threads[i] = new Thread(loops[i], "bot-loop-" + i);
+            threads[i].start();
+        }
+    }
+
+    void stop() throws InterruptedException {
+        for (BotLoop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+        for (Thread thread : threads) {
+            if (thread != null) {
+                thread.join();
+            }
+        }
+    }
+
+    // Forgets the latencies recorded so far, e.g. after warm-up
+    void resetLatencies() {
+        for (BotLoop loop : loops) {
+            loop.resetSamples = true;
+        }
+    }
+
+    // Move-to-state latencies in nanoseconds, sorted; only valid after stop()
+    long[] latencies() {
+        int total = 0;
+        for (BotLoop loop : loops) {
+            total += Math.min(loop.sampleCount, MAX_SAMPLES);
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (BotLoop loop : loops) {
+            int count = Math.min(loop.sampleCount, MAX_SAMPLES);
+            System.arraycopy(loop.samples, 0, all, offset, count);
+            offset += count;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    long moves() {
+        return moves.get();
+    }
+
+    long games() {
+        return games.get();
+    }
+
+    // State updates received by all bots
+    long states() {
+        return states.get();
+    }
+
+    long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    private final class BotLoop implements Runnable {
+        private final int index;
+        private final Selector selector;
+        private final SplittableRandom random;
+        private final long[] samples = new long[MAX_SAMPLES];
+        private int sampleCount;
+        private volatile boolean resetSamples;
+        private volatile boolean running = true;
+
+        BotLoop(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+            this.random = new SplittableRandom(index);
+        }
+
+        void connect(int port) throws IOException {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Bot(channel));
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(100);
+                    if (resetSamples) {
+                        sampleCount = 0;
+                        resetSamples = false;
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            ((Bot) key.attachment()).read(this);
+                        }
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Bot loop failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private final class Bot {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(1024);
+        private final StringBuilder line = new StringBuilder();
+        private final char[] cells = new char[9];
+        private boolean binaryOffered;
+        private boolean binaryFrames;
+        private boolean deltaOffered;
+        private char mark;
+        private char toMove;
+        private long moveSentAt;
+
+        Bot(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read(BotLoop loop) throws IOException {
+            int count = channel.read(in);
+            if (count < 0) {
+                channel.close();
+                return;
+            }
+            bytesReceived.addAndGet(count);
+            in.flip();
+            while (in.hasRemaining()) {
+                if (binaryFrames) {
+                    if (!readFrame(loop)) {
+                        break;  // the rest of the frame is still on its way
+                    }
+                    continue;
+                }
+                char c = (char) in.get();
+                if (c == '\n') {
+                    handle(line.toString(), loop);
+                    line.setLength(0);
+                } else {
+                    line.append(c);
+                }
+            }
+            in.compact();
+        }
+
+        private void handle(String message, BotLoop loop) throws IOException {
+            if (message.equals("Binary?")) {
+                binaryOffered = binary;
+            } else if (message.equals("Delta?")) {
+                deltaOffered = delta;
+            } else if (message.startsWith("You are player:")) {
+                mark = message.charAt(message.length() - 1);
+                send("Acknowledged" + (binaryOffered ? " binary" : "") + (deltaOffered ? " delta" : ""));
+                binaryFrames = binaryOffered;
+            } else if (message.equals("Rematch?")) {
+                games.incrementAndGet();
+                send("Yes");
+            } else if (message.startsWith("STATE:")) {
+                GameState state = GameState.expand(message.substring(6));
+                for (int cell = 0; cell < cells.length; cell++) {
+                    cells[cell] = state.getMark(cell / 3, cell % 3);
+                }
+                onState(state.getState() == GameState.State.ONGOING, state.getCurrentPlayer(), loop);
+            } else if (message.startsWith("MOVE:")) {
+                // "MOVE:seq:row,col"; bots trust the order and skip the sequence check
+                int comma = message.lastIndexOf(',');
+                int row = message.charAt(comma - 1) - '0';
+                onMove(row * 3 + message.charAt(comma + 1) - '0', loop);
+            }
+        }
+
+        // Decodes one frame if it has fully arrived
+        private boolean readFrame(BotLoop loop) throws IOException {
+            int type = in.get(in.position()) & 0xFF;
+            if (type == REMATCH) {
+                in.get();
+                games.incrementAndGet();
+                sendByte(VOTE_YES);
+                return true;
+            }
+            if (type == MOVE) {
+                if (in.remaining() < 3) {
+                    return false;
+                }
+                in.get();
+                in.get();  // sequence number
+                onMove(in.get() & 0xFF, loop);
+                return true;
+            }
+            if (type != CLASSIC_STATE) {
+                throw new IllegalStateException("Bots only play 3x3 boards, got frame type " + type);
+            }
+            if (in.remaining() < 4) {
+                return false;
+            }
+            in.get();
+            int packed = (in.get() & 0xFF) | (in.get() & 0xFF) << 8 | (in.get() & 0xFF) << 16;
+            for (int cell = 0; cell < cells.length; cell++) {
+                cells[cell] = MARKS[(packed >>> (cell * 2)) & 3];
+            }
+            onState((packed >>> 19 & 7) == ONGOING, (packed >>> 18 & 1) == 0 ? 'X' : 'O', loop);
+            return true;
+        }
+
+        private void onMove(int cell, BotLoop loop) throws IOException {
+            cells[cell] = toMove;
+            boolean ongoing = !hasLine(toMove) && hasEmptyCell();
+            onState(ongoing, toMove == 'X' ? 'O' : 'X', loop);
+        }
+
+        private boolean hasLine(char player) {
+            for (int[] line : LINES) {
+                if (cells[line[0]] == player && cells[line[1]] == player && cells[line[2]] == player) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasEmptyCell() {
+            for (char cell : cells) {
+                if (cell == '-') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void onState(boolean ongoing, char currentPlayer, BotLoop loop) throws IOException {
+            states.incrementAndGet();
+            toMove = currentPlayer;
+            if (moveSentAt != 0) {
+                loop.samples[loop.sampleCount++ % MAX_SAMPLES] = System.nanoTime() - moveSentAt;
+                moveSentAt = 0;
+            }
+            if (ongoing && currentPlayer == mark) {
+                int cell = randomEmptyCell(loop.random);
+                if (binaryFrames) {
+                    sendByte(cell);
+                } else {
+                    send(cell / 3 + "," + cell % 3);
+                }
+                moveSentAt = System.nanoTime();
+                moves.incrementAndGet();
+            }
+        }
+
+        private int randomEmptyCell(SplittableRandom random) {
+            int start = random.nextInt(cells.length);
+            for (int i = 0; i < cells.length; i++) {
+                int cell = (start + i) % cells.length;
+                if (cells[cell] == '-') {
+                    return cell;
+                }
+            }
+            throw new IllegalStateException("No empty cell in an ongoing game");
+        }
+
+        private void send(String message) throws IOException {
+            write(ByteBuffer.wrap((message + "\n").getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        private void sendByte(int value) throws IOException {
+            write(ByteBuffer.wrap(new byte[]{(byte) value}));
+        }
+
+        private void write(ByteBuffer out) throws IOException {
+            while (out.hasRemaining()) {
+                channel.write(out);  // replies are tiny, so the socket buffer always has room
+            }
+        }
+    }
+}
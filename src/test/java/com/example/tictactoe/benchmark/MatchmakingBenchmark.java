@@ -0,0 +1,141 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.net.MatchmakingLobby;
+import com.example.tictactoe.net.TicTacToeGameHost;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pairing latency under a burst of arrivals, reported as percentiles and arrivals/s.
+//   lobby: threads hand players to a MatchmakingLobby as fast as they can; latency is arrival to pairing
+//   host:  that many clients connect to a TicTacToeGameHost at once; latency is connecting to the player assignment
+// Usage: MatchmakingBenchmark [lobby|host [players [rounds [threads]]]]
+// The host mode needs an open-file limit of at least twice the players (both ends of every connection).
+public class MatchmakingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "lobby";
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : mode.equals("host") ? 2000 : 1_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        for (int round = 1; round <= rounds; round++) {  // the first rounds double as warm-up
+            long[] latencies = new long[players];
+            long start = System.nanoTime();
+            switch (mode) {
+                case "lobby" -> burstLobby(players, threads, latencies);
+                case "host" -> burstHost(players, latencies);
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            System.out.printf("%s round %d: %,d players in %.3f s, %,.0f arrivals/s, pairing p50 %s  p99 %s  max %s%n",
+                    mode, round, players, elapsed, players / elapsed, micros(latencies, 50), micros(latencies, 99),
+                    micros(latencies, 100));
+        }
+    }
+
+    private static void burstLobby(int players, int threads, long[] latencies) throws InterruptedException {
+        AtomicInteger recorded = new AtomicInteger();
+        MatchmakingLobby.Shard<Arrival> shard = (gameId, first, second) -> {
+            long now = System.nanoTime();
+            latencies[recorded.getAndIncrement()] = now - first.at;
+            latencies[recorded.getAndIncrement()] = now - second.at;
+        };
+        MatchmakingLobby<Arrival> lobby = new MatchmakingLobby<>(List.of(shard, shard, shard, shard));
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int share = players / threads + (t < players % threads ? 1 : 0);
+            Thread worker = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < share; i++) {
+                    lobby.arrive(new Arrival(System.nanoTime()));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (players % 2 == 1) {
+            latencies[recorded.getAndIncrement()] = 0;  // the last player is still waiting for a partner
+        }
+    }
+
+    private static void burstHost(int players, long[] latencies) throws Exception {
+        TicTacToeGameHost host = new TicTacToeGameHost(0, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+        host.start();
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch assigned = new CountDownLatch(players);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < players; i++) {
+            int index = i;
+            Thread.ofVirtual().start(() -> {
+                try {
+                    go.await();
+                    long start = System.nanoTime();
+                    try (Socket socket = new Socket("localhost", host.getPort())) {
+                        awaitAssignment(socket.getInputStream());
+                        latencies[index] = System.nanoTime() - start;
+                        OutputStream out = socket.getOutputStream();
+                        out.write("Acknowledged\n".getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                        assigned.countDown();
+                        release.await();  // hold the seat until every player is in a game
+                    }
+                } catch (IOException | InterruptedException e) {
+                    System.err.println("Client failed: " + e.getMessage());
+                    assigned.countDown();
+                }
+            });
+        }
+        go.countDown();
+        assigned.await();
+        release.countDown();
+        host.shutdown();
+    }
+
+    // Reads lines until the player assignment
+    private static void awaitAssignment(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b != '\n') {
+                line.append((char) b);
+            } else if (line.toString().startsWith("You are player:")) {
+                return;
+            } else {
+                line.setLength(0);
+            }
+        }
+        throw new IOException("Connection closed before the assignment");
+    }
+
+    private static String micros(long[] sorted, double percentile) {
+        int index = Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100 * sorted.length) - 1));
+        return String.format("%,.1f us", sorted[index] / 1e3);
+    }
+
+    private static final class Arrival {
+        final long at;
+
+        Arrival(long at) {
+            this.at = at;
+        }
+    }
+}
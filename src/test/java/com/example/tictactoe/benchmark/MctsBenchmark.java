@@ -0,0 +1,42 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.MonteCarloTreeSearch;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Playouts/sec of the Monte Carlo Tree Search from 1 to N cores.
+// Usage: MctsBenchmark [rows cols winLength [millisPerRun]]
+public class MctsBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 2000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Game game = new Game(rows, cols, winLength);
+        System.out.printf("MCTS on %dx%d k=%d, %d ms per run%n", rows, cols, winLength, millis);
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                MonteCarloTreeSearch search = new MonteCarloTreeSearch(pool, threads, 42);
+                search.search(game, 0, millis / 4);  // warm-up
+                MonteCarloTreeSearch.Result result = search.search(game, 0, millis);
+                double rate = result.getPlayoutsPerSecond();
+                if (threads == 1) {
+                    baseline = rate;
+                }
+                System.out.printf("%3d threads: %,12.0f playouts/s  speedup %.2fx%n", threads, rate, rate / baseline);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static int nextThreadCount(int threads, int cores) {
+        return threads == cores ? cores + 1 : Math.min(threads * 2, cores);
+    }
+}
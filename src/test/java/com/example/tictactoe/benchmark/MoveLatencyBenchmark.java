@@ -0,0 +1,75 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.net.TicTacToeGameHost;
+import com.example.tictactoe.net.TicTacToeNioServer;
+
+// Measures move-to-broadcast latency: the time from a bot sending its move until the state containing it arrives.
+// Runs N concurrent bot games against the blocking server (TicTacToeServer games on a virtual-thread host)
+// or the NIO server, and reports latency percentiles, the move rate and the bytes received per state update.
+// Binary bots use the binary protocol and delta bots take move events instead of snapshots where the server offers
+// them (the blocking server does).
+// Usage: MoveLatencyBenchmark [blocking|nio [games [seconds [clientThreads [text|binary [full|delta]]]]]]
+public class MoveLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String server = args.length > 0 ? args[0] : "blocking";
+        int gameCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int clientThreads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        boolean binary = args.length > 4 && args[4].equals("binary");
+        boolean delta = args.length > 5 && args[5].equals("delta");
+
+        TicTacToeGameHost host = null;
+        TicTacToeNioServer nioServer = null;
+        int port;
+        switch (server) {
+            case "blocking" -> {
+                host = new TicTacToeGameHost(0, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+                host.start();
+                port = host.getPort();
+            }
+            case "nio" -> {
+                nioServer = new TicTacToeNioServer(0, 3, 3, 3, 1);
+                nioServer.start();
+                port = nioServer.getPort();
+            }
+            default -> throw new IllegalArgumentException("Unknown server: " + server);
+        }
+
+        LoadBots bots = new LoadBots(clientThreads, binary, delta);
+        bots.connect(port, gameCount * 2);
+        bots.start();
+        while (bots.states() < gameCount * 2L) {  // every game has started
+            Thread.sleep(10);
+        }
+        Thread.sleep(1000);  // warm-up
+        bots.resetLatencies();
+        long startMoves = bots.moves();
+        long startStates = bots.states();
+        long startBytes = bots.bytesReceived();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long moves = bots.moves() - startMoves;
+        double bytesPerState = (double) (bots.bytesReceived() - startBytes) / (bots.states() - startStates);
+        bots.stop();
+
+        long[] latencies = bots.latencies();
+        System.out.printf("%s server, %s%s bots, %d concurrent games, %,d moves timed%n",
+                server, binary ? "binary" : "text", delta ? " delta" : "", gameCount, latencies.length);
+        System.out.printf("%,12.0f moves/s%n", moves / elapsed);
+        System.out.printf("%,12.1f bytes received per state update%n", bytesPerState);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            String label = percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile);
+            System.out.printf("  p%-5s %,12.3f ms%n", label, LoadBots.percentile(latencies, percentile) / 1e6);
+        }
+        System.out.printf("  max    %,12.3f ms%n", LoadBots.percentile(latencies, 100) / 1e6);
+
+        if (host != null) {
+            host.shutdown();
+        } else {
+            nioServer.shutdown();
+        }
+        System.exit(0);  // blocking games wind down asynchronously after shutdown
+    }
+}
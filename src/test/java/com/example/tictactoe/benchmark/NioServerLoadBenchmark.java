@@ -0,0 +1,42 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.net.TicTacToeNioServer;
+
+// Load test for TicTacToeNioServer: opens N concurrent games of random-move bots that always accept the rematch,
+// then reports sustained games/sec and moves/sec in total and per server core.
+// Usage: NioServerLoadBenchmark [games [seconds [serverLoops [clientThreads]]]]
+// Large game counts need a matching open-file limit (two sockets per player on one host).
+public class NioServerLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int serverLoops = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, cores / 2);
+        int clientThreads = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, cores - serverLoops);
+
+        TicTacToeNioServer server = new TicTacToeNioServer(0, 3, 3, 3, serverLoops);
+        server.start();
+        LoadBots bots = new LoadBots(clientThreads);
+        bots.connect(server.getPort(), gameCount * 2);
+        bots.start();
+
+        Thread.sleep(2000);  // warm-up
+        long startMoves = bots.moves();
+        long startGames = bots.games();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double moveRate = (bots.moves() - startMoves) / elapsed;
+        double gameRate = (bots.games() - startGames) / elapsed;
+
+        System.out.printf("%d concurrent games (%d open matches), %d server loops, %d bot threads%n",
+                gameCount, server.getActiveMatches(), serverLoops, clientThreads);
+        System.out.printf("%,12.0f moves/s   %,10.0f games/s%n", moveRate, gameRate);
+        System.out.printf("%,12.0f moves/s per server core, %,d concurrent games per server core%n",
+                moveRate / serverLoops, gameCount / serverLoops);
+
+        bots.stop();
+        server.shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.ParallelSolver;
+
+// Time to a fixed depth for the Lazy-SMP search from 1 to 16 threads.
+// Usage: ParallelSolverBenchmark [rows cols winLength depth]
+public class ParallelSolverBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        Game game = new Game(rows, cols, winLength);
+        System.out.printf("Lazy SMP on %dx%d k=%d to depth %d%n", rows, cols, winLength, depth);
+        double baseline = 0;
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            ParallelSolver solver = new ParallelSolver(rows, cols, winLength, threads);
+            try {
+                ParallelSolver.Result result = solver.search(game, depth, 0);
+                double millis = result.getElapsedNanos() / 1e6;
+                if (threads == 1) {
+                    baseline = millis;
+                }
+                System.out.printf("%3d threads: %10.1f ms  %,14d nodes  move %d  speedup %.2fx%n",
+                        threads, millis, result.getNodes(), result.getBestMove(), baseline / millis);
+            } finally {
+                solver.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.Perft;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Full game-tree walk of the model layer from 1 to N cores: outcome counts and nodes/sec.
+// Usage: PerftBenchmark [rows cols winLength [maxDepth]]
+public class PerftBenchmark {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int maxDepth = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Game game = new Game(rows, cols, winLength);
+        System.out.printf("Perft on %dx%d k=%d, depth %s%n", rows, cols, winLength, maxDepth == 0 ? "unlimited" : maxDepth);
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                Perft perft = new Perft(pool);
+                perft.run(game, maxDepth);  // warm-up
+                Perft.Result result = perft.run(game, maxDepth);
+                double rate = result.getNodesPerSecond();
+                if (threads == 1) {
+                    baseline = rate;
+                    System.out.println(result);
+                }
+                System.out.printf("%3d threads: %,14.0f nodes/s  speedup %.2fx%n", threads, rate, rate / baseline);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static int nextThreadCount(int threads, int cores) {
+        return threads == cores ? cores + 1 : Math.min(threads * 2, cores);
+    }
+}
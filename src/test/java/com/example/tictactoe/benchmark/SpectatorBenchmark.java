@@ -0,0 +1,184 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.model.GameState;
+import com.example.tictactoe.net.TicTacToeGameHost;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fan-out to many spectators of one popular game on TicTacToeGameHost. Two paced players keep the game going while
+// N spectators watch it; reports the frames delivered per second, the latency from a player's action to each
+// spectator receiving the resulting state, and the CPU time of the game's fan-out thread.
+// The players and spectators run in a child JVM so each side of the connections gets its own open-file limit.
+// Usage: SpectatorBenchmark [spectators [seconds [paceMillis]]]
+public class SpectatorBenchmark {
+    private static final int MAX_SAMPLES = 1 << 22;
+
+    private static volatile long lastAction;  // when a player last did something that changes the state
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("watch")) {
+            watch(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Long.parseLong(args[5]));
+            return;
+        }
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long pace = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        TicTacToeGameHost host = new TicTacToeGameHost(0, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+        host.start();
+        int spectatorPort = host.openSpectatorPort(0);
+        Process watchers = new ProcessBuilder(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"), SpectatorBenchmark.class.getName(), "watch",
+                String.valueOf(host.getPort()), String.valueOf(spectatorPort), String.valueOf(spectators),
+                String.valueOf(seconds), String.valueOf(pace))
+                .inheritIO()
+                .start();
+        int exit = watchers.waitFor();
+        System.out.printf("fan-out thread CPU: %,.0f ms in total%n", fanOutCpuNanos() / 1e6);
+        host.shutdown();
+        System.exit(exit);
+    }
+
+    private static long fanOutCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("spectator-fanout")) {
+                total += Math.max(0, threads.getThreadCpuTime(thread.threadId()));
+            }
+        }
+        return total;
+    }
+
+    // Child side: the two players, then the spectators of game 1
+    private static void watch(int gamePort, int spectatorPort, int count, int seconds, long pace) throws Exception {
+        startPlayer(gamePort, pace);
+        startPlayer(gamePort, pace);
+
+        Selector selector = Selector.open();
+        int[] frames = new int[count];
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", spectatorPort));
+            channel.write(ByteBuffer.wrap("Watch:1\n".getBytes(StandardCharsets.US_ASCII)));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, i);
+        }
+        System.out.printf("%,d spectators connected in %.2f s%n", count, (System.nanoTime() - connectStart) / 1e9);
+
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        long[] samples = new long[MAX_SAMPLES];
+        int sampleCount = 0;
+        long delivered = 0;
+        int watching = 0;
+        boolean measuring = false;
+        long measureStart = 0;
+        long end = Long.MAX_VALUE;
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            long now = System.nanoTime();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                int spectator = (Integer) key.attachment();
+                in.clear();
+                if (((SocketChannel) key.channel()).read(in) < 0) {
+                    key.cancel();
+                    continue;
+                }
+                for (int i = 0; i < in.position(); i++) {
+                    if (in.get(i) != '\n') {
+                        continue;
+                    }
+                    if (frames[spectator]++ == 0) {
+                        watching++;
+                    }
+                    if (measuring) {
+                        delivered++;
+                        samples[sampleCount++ % MAX_SAMPLES] = now - lastAction;
+                    }
+                }
+            }
+            if (!measuring && watching == count) {
+                measuring = true;  // every spectator has its first board; time the updates from here on
+                measureStart = now;
+                end = now + seconds * 1_000_000_000L;
+            }
+        }
+        double elapsed = (System.nanoTime() - measureStart) / 1e9;
+
+        long[] latencies = Arrays.copyOf(samples, Math.min(sampleCount, MAX_SAMPLES));
+        Arrays.sort(latencies);
+        System.out.printf("%,d spectators of one game, a player action every %d ms%n", count, pace);
+        System.out.printf("%,12.0f frames delivered/s (%,.1f states/s per spectator)%n",
+                delivered / elapsed, delivered / elapsed / count);
+        for (double percentile : new double[]{50, 90, 99, 100}) {
+            String label = percentile == 100 ? "max" : "p" + (int) percentile;
+            System.out.printf("  action to spectator %-4s %,10.3f ms%n", label,
+                    LoadBots.percentile(latencies, percentile) / 1e6);
+        }
+        System.exit(0);
+    }
+
+    // A player that accepts every rematch and moves at random, waiting the pace before each action
+    private static void startPlayer(int port, long pace) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setTcpNoDelay(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        Thread.ofVirtual().start(() -> {
+            char mark = ' ';
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("You are player:")) {
+                        mark = line.charAt(line.length() - 1);
+                        out.println("Acknowledged");
+                    } else if (line.equals("Rematch?")) {
+                        Thread.sleep(pace);
+                        lastAction = System.nanoTime();
+                        out.println("Yes");
+                    } else if (line.startsWith("STATE:")) {
+                        GameState state = GameState.expand(line.substring(6));
+                        if (state.getState() == GameState.State.ONGOING && state.getCurrentPlayer() == mark) {
+                            Thread.sleep(pace);
+                            lastAction = System.nanoTime();
+                            out.println(randomEmptyCell(state));
+                        }
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Player stopped: " + e.getMessage());
+            }
+        });
+    }
+
+    private static String randomEmptyCell(GameState state) {
+        int start = ThreadLocalRandom.current().nextInt(9);
+        for (int i = 0; i < 9; i++) {
+            int cell = (start + i) % 9;
+            if (state.getMark(cell / 3, cell % 3) == '-') {
+                return cell / 3 + "," + cell % 3;
+            }
+        }
+        throw new IllegalStateException("No empty cell in an ongoing game");
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.tictactoe.benchmark;
+
+import com.example.tictactoe.net.TimingWheel;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Deadline bookkeeping with many timers outstanding, as with tens of thousands of games each waiting on a move:
+// the TimingWheel the games share against a ScheduledThreadPoolExecutor, whose delay queue is a binary heap.
+// Each round keeps `outstanding` long timers scheduled (10 to 60 s, never reached), then measures
+//   churn:  schedule one more short-lived timer and cancel it, as a game does for every move it waits for
+//   expiry: schedule `expiring` timers over the next second and record how late each one fires
+// Usage: TimingWheelBenchmark [outstanding [churn [expiring [rounds]]]]
+public class TimingWheelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int outstanding = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int churn = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int expiring = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        for (int round = 1; round <= rounds; round++) {  // the first round doubles as warm-up
+            TimingWheel wheel = new TimingWheel(10, 512);
+            run("wheel", round, new WheelTimers(wheel), outstanding, churn, expiring);
+            wheel.stop();
+
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+            executor.setRemoveOnCancelPolicy(true);  // otherwise cancelled timers pile up in the heap
+            run("heap ", round, new ExecutorTimers(executor), outstanding, churn, expiring);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void run(String name, int round, Timers timers, int outstanding, int churn, int expiring)
+            throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(round);
+        Runnable never = () -> {
+        };
+
+        long start = System.nanoTime();
+        Object[] held = new Object[outstanding];
+        for (int i = 0; i < outstanding; i++) {
+            held[i] = timers.schedule(10_000 + random.nextLong(50_000), never);
+        }
+        double scheduleNanos = (double) (System.nanoTime() - start) / outstanding;
+
+        start = System.nanoTime();
+        for (int i = 0; i < churn; i++) {
+            timers.cancel(timers.schedule(10_000 + random.nextLong(50_000), never));
+        }
+        double churnNanos = (double) (System.nanoTime() - start) / churn;
+
+        long[] lateness = new long[expiring];
+        CountDownLatch fired = new CountDownLatch(expiring);
+        for (int i = 0; i < expiring; i++) {
+            int index = i;
+            long delay = random.nextLong(1000);
+            long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            timers.schedule(delay, () -> {
+                lateness[index] = System.nanoTime() - due;
+                fired.countDown();
+            });
+        }
+        fired.await();
+        Arrays.sort(lateness);
+
+        start = System.nanoTime();
+        for (Object timer : held) {
+            timers.cancel(timer);
+        }
+        double cancelNanos = (double) (System.nanoTime() - start) / outstanding;
+
+        System.out.printf("%s round %d, %,d outstanding: schedule %,.0f ns  schedule+cancel %,.0f ns  cancel %,.0f ns"
+                        + "  lateness p50 %s  p99 %s  max %s%n",
+                name, round, outstanding, scheduleNanos, churnNanos, cancelNanos,
+                millis(lateness, 50), millis(lateness, 99), millis(lateness, 100));
+    }
+
+    private static String millis(long[] sorted, double percentile) {
+        int index = Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100 * sorted.length) - 1));
+        return String.format("%.1f ms", sorted[index] / 1e6);
+    }
+
+    private interface Timers {
+        Object schedule(long delayMillis, Runnable task);
+
+        void cancel(Object timer);
+    }
+
+    private static final class WheelTimers implements Timers {
+        private final TimingWheel wheel;
+
+        WheelTimers(TimingWheel wheel) {
+            this.wheel = wheel;
+        }
+
+        @Override
+        public Object schedule(long delayMillis, Runnable task) {
+            return wheel.schedule(delayMillis, task);
+        }
+
+        @Override
+        public void cancel(Object timer) {
+            ((TimingWheel.Timeout) timer).cancel();
+        }
+    }
+
+    private static final class ExecutorTimers implements Timers {
+        private final ScheduledThreadPoolExecutor executor;
+
+        ExecutorTimers(ScheduledThreadPoolExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public Object schedule(long delayMillis, Runnable task) {
+            return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void cancel(Object timer) {
+            ((ScheduledFuture<?>) timer).cancel(false);
+        }
+    }
+}
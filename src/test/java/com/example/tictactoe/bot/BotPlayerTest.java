@@ -0,0 +1,86 @@
+package com.example.tictactoe.bot;
+
+import com.example.tictactoe.net.HeartbeatMonitor;
+import com.example.tictactoe.net.TicTacToeClient;
+import com.example.tictactoe.net.TicTacToeGameHost;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotPlayerTest {
+
+    private TicTacToeGameHost host;
+    private final List<TicTacToeClient> clients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        host = new TicTacToeGameHost(0, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+        host.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (TicTacToeClient client : clients) {
+            client.shutdown();
+        }
+        host.shutdown();
+    }
+
+    @Test
+    void testHeadlessBotsKeepPlayingGames() {
+        LoadStats stats = new LoadStats();
+        for (int i = 0; i < 4; i++) {
+            connect(new BotPlayer(BotPlayer.Strategy.RANDOM, stats, i), 0);
+        }
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> stats.getGames() >= 10);
+        assertTrue(stats.getMoves() >= 5 * stats.getGames(), "Every game takes at least five moves.");
+        assertTrue(stats.latencyPercentileMicros(50) > 0, "Move latencies should be recorded.");
+        assertEquals(0, stats.getErrors());
+    }
+
+    @Test
+    void testPerfectBotsAlwaysDraw() {
+        LoadStats stats = new LoadStats();
+        connect(new BotPlayer(BotPlayer.Strategy.PERFECT, stats, 1), 0);
+        connect(new BotPlayer(BotPlayer.Strategy.PERFECT, stats, 2), 0);
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> stats.getGames() >= 3);
+        long games = stats.getGames();
+        assertTrue(stats.getMoves() >= 9 * games, "Perfect play should fill the board every game.");
+    }
+
+    @Test
+    void testPlayerTakingLongerThanTheHeartbeatTimeoutToAcceptARematchIsKept() {
+        LoadStats stats = new LoadStats();
+        for (int i = 0; i < 2; i++) {
+            connect(new BotPlayer(BotPlayer.Strategy.RANDOM, stats, i) {
+                @Override
+                public boolean acceptRematch() {
+                    try {
+                        Thread.sleep(2 * HeartbeatMonitor.DEFAULT_TIMEOUT_MILLIS);  // a player looking at a dialog
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.acceptRematch();
+                }
+            }, 0);
+        }
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> stats.getGames() >= 2);
+        assertEquals(0, stats.getErrors(), "The connection should have survived the wait.");
+    }
+
+    private void connect(BotPlayer bot, long thinkMillis) {
+        TicTacToeClient client = new TicTacToeClient("localhost", host.getPort(), bot, thinkMillis);
+        assertTrue(client.isConnected());
+        bot.prepareClient(client);
+        clients.add(client);
+    }
+}
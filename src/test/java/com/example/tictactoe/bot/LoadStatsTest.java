@@ -0,0 +1,44 @@
+package com.example.tictactoe.bot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadStatsTest {
+
+    @Test
+    void testPercentilesAreWithinTheBucketResolution() {
+        LoadStats stats = new LoadStats();
+        for (int micros = 1; micros <= 100_000; micros++) {
+            stats.recordMoveLatency(micros * 1000L);
+        }
+        for (double percentile : new double[]{50, 90, 99, 100}) {
+            long expected = (long) (percentile * 1000);
+            long actual = stats.latencyPercentileMicros(percentile);
+            assertTrue(actual >= expected && actual <= expected * 17 / 16,
+                    "p" + percentile + " should be " + expected + " us within 1/16, got " + actual);
+        }
+    }
+
+    @Test
+    void testSmallLatenciesAreExact() {
+        LoadStats stats = new LoadStats();
+        stats.recordMoveLatency(3_000);
+        stats.recordMoveLatency(7_000);
+        assertEquals(3, stats.latencyPercentileMicros(50));
+        assertEquals(7, stats.latencyPercentileMicros(100));
+    }
+
+    @Test
+    void testResetStartsAFreshMeasurement() {
+        LoadStats stats = new LoadStats();
+        stats.recordMove();
+        stats.recordGame();
+        stats.recordMoveLatency(5_000_000);
+        stats.reset();
+        assertEquals(0, stats.getMoves());
+        assertEquals(0, stats.getGames());
+        assertEquals(0, stats.latencyPercentileMicros(99), "No latency should be left after a reset.");
+    }
+}
@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameStateTest {
@@ -35,14 +38,14 @@ class GameStateTest {
 
     @Test
     void testStateWaiting() {
-        gameState.suspendState(true);
-        assertTrue(gameState.isSuspended(), "Game should be in a suspended (waiting) state.");
+        GameState waitingState = GameState.of(game, true);
+        assertTrue(waitingState.isSuspended(), "Game should be in a suspended (waiting) state.");
     }
 
     @Test
     void testStateOngoing() {
-        gameState.suspendState(false);
-        assertEquals(State.ONGOING, gameState.getState(), "Game should be ongoing when not suspended.");
+        GameState ongoingState = GameState.of(game, false);
+        assertEquals(State.ONGOING, ongoingState.getState(), "Game should be ongoing when not suspended.");
     }
 
     @Test
@@ -155,6 +158,59 @@ class GameStateTest {
 
         assertEquals(State.DRAW, expandedState.getState(), "Expanded game state should match the draw state.");
     }
-}
 
+    @Test
+    void testCompressAndExpandLargerBoard() {
+        Game largeGame = new Game(4, 5, 3);
+        largeGame.placeMark(3, 4);
+        GameState largeState = new GameState(largeGame, false);
+
+        String compressedState = largeState.compress();
+        assertTrue(compressedState.contains("winLength=3;"), "Compressed state should carry a non-default win length.");
+
+        GameState expandedState = GameState.expand(compressedState);
+        assertEquals(4, expandedState.getRows(), "Expanded state should have 4 rows.");
+        assertEquals(5, expandedState.getCols(), "Expanded state should have 5 columns.");
+        assertEquals(3, expandedState.getWinLength(), "Expanded state should keep the win length.");
+        assertEquals('X', expandedState.getBoard()[3][4], "Mark should survive the round trip.");
+    }
+
+    @Test
+    void testCompressClassicBoardOmitsWinLength() {
+        assertFalse(gameState.compress().contains("winLength="), "Classic board should keep the original format.");
+    }
+
+    @Test
+    void testEqualClassicStatesAreInterned() {
+        game.placeMark(1, 1);
+        game.changePlayer();
+        GameState first = GameState.of(game, false);
+        GameState second = GameState.of(game, false);
+
+        assertSame(first, second, "Equal classic states should share one instance.");
+        assertSame(first, GameState.expand(first.compress()), "Decoded states should resolve to the interned instance.");
+        assertSame(first.compress(), second.compress(), "The wire string should be built once per state.");
+        assertEquals(new GameState(game, false), first, "Interned and constructed states should be equal.");
+        assertEquals(new GameState(game, false).hashCode(), first.hashCode(), "Equal states should hash alike.");
+    }
+
+    @Test
+    void testSnapshotIsImmutable() {
+        GameState snapshot = GameState.of(game, false);
+        game.placeMark(0, 0);
 
+        assertEquals('-', snapshot.getMark(0, 0), "Later moves should not leak into an earlier snapshot.");
+        snapshot.getBoard()[0][0] = 'O';
+        assertEquals('-', snapshot.getMark(0, 0), "The returned board should be a copy.");
+        assertNotSame(snapshot, GameState.of(game, false), "A different board should map to a different state.");
+    }
+
+    @Test
+    void testLargerBoardsAreNotInterned() {
+        Game largeGame = new Game(4, 4, 3);
+        GameState state = GameState.of(largeGame, false);
+
+        assertFalse(state.isInterned(), "Only classic states should be interned.");
+        assertEquals(state, GameState.of(largeGame, false), "Non-interned states should still compare by value.");
+    }
+}
@@ -3,11 +3,15 @@ package com.example.tictactoe.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.SplittableRandom;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameTest {
@@ -90,6 +94,32 @@ class GameTest {
         assertTrue(game.checkForWin(), "Player X should win with a diagonal line.");
     }
 
+    @Test
+    void testCheckAntiDiagonalForWin() {
+        // Test anti-diagonal win for Player X
+        game.placeMark(0, 2);
+        game.placeMark(1, 1);
+        game.placeMark(2, 0);
+        assertTrue(game.checkForWin(), "Player X should win with an anti-diagonal line.");
+    }
+
+    @Test
+    void testNoWinWithoutFullLine() {
+        // Marks spread over different lines must not count as a win
+        game.placeMark(0, 0);
+        game.placeMark(0, 1);
+        game.placeMark(1, 2);
+        assertFalse(game.checkForWin(), "Player X should not win without a complete line.");
+    }
+
+    @Test
+    void testGetBoardIsSnapshot() {
+        char[][] board = game.getBoard();
+        game.placeMark(1, 1);
+        assertEquals('-', board[1][1], "Earlier board view should not change after a move.");
+        assertEquals('X', game.getBoard()[1][1], "New board view should reflect the move.");
+    }
+
     @Test
     void testCheckForLose() {
         // Test that Player O loses if Player X wins
@@ -101,6 +131,98 @@ class GameTest {
         assertTrue(game.checkForLose(), "Player O should lose when Player X wins.");
     }
 
+    @Test
+    void testFiveInARowOnLargeBoard() {
+        Game gomoku = new Game(15, 15, 5);
+        for (int i = 0; i < 4; i++) {
+            gomoku.placeMark(7, 3 + i);
+        }
+        assertFalse(gomoku.checkForWin(), "Four in a row should not win when five are required.");
+        gomoku.placeMark(7, 7);
+        assertTrue(gomoku.checkForWin(), "Five in a row should win on a 15x15 board.");
+    }
+
+    @Test
+    void testDiagonalWinThroughMiddleOfLine() {
+        Game game = new Game(6, 7, 4);
+        game.placeMark(0, 6);
+        game.placeMark(1, 5);
+        game.placeMark(3, 3);
+        game.placeMark(2, 4);  // Completes the anti-diagonal from the middle
+        assertTrue(game.checkForWin(), "A line completed in its middle should be detected.");
+    }
+
+    @Test
+    void testPlaceMarkOutsideBoard() {
+        assertFalse(game.placeMark(3, 0), "Mark should not be placed outside the board.");
+        assertFalse(game.placeMark(0, -1), "Mark should not be placed outside the board.");
+    }
+
+    @Test
+    void testInvalidBoardDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new Game(3, 3, 4),
+                "Win length longer than the board should be rejected.");
+    }
+
+    @Test
+    void testUndoMarkRestoresBoardAndHash() {
+        long initialHash = game.getHash();
+        game.placeMark(1, 1);
+        assertNotEquals(initialHash, game.getHash(), "Hash should change after a move.");
+
+        assertTrue(game.undoMark(), "The last move should be undone.");
+        assertEquals('-', game.getBoard()[1][1], "Undone cell should be empty again.");
+        assertEquals(initialHash, game.getHash(), "Hash should return to its previous value.");
+        assertFalse(game.undoMark(), "There should be nothing left to undo.");
+    }
+
+    @Test
+    void testUndoWinningMoveClearsWin() {
+        Game gomoku = new Game(15, 15, 5);
+        for (int col = 0; col < 5; col++) {
+            gomoku.placeMark(0, col);
+        }
+        assertTrue(gomoku.checkForWin(), "Five in a row should win.");
+        gomoku.undoMark();
+        assertFalse(gomoku.checkForWin(), "Undoing the fifth mark should clear the win.");
+    }
+
+    @Test
+    void testHashIsIndependentOfMoveOrder() {
+        game.placeMark(0, 0);  // X
+        game.changePlayer();
+        game.placeMark(1, 1);  // O
+        game.changePlayer();
+        game.placeMark(2, 2);  // X
+
+        Game transposed = new Game();
+        transposed.placeMark(2, 2);  // X
+        transposed.changePlayer();
+        transposed.placeMark(1, 1);  // O
+        transposed.changePlayer();
+        transposed.placeMark(0, 0);  // X
+
+        assertEquals(game.getHash(), transposed.getHash(), "Transposed move orders should hash the same.");
+    }
+
+    @Test
+    void testHashIncludesSideToMove() {
+        long xToMove = game.getHash();
+        game.changePlayer();
+        assertNotEquals(xToMove, game.getHash(), "Side to move should be part of the hash.");
+    }
+
+    @Test
+    void testLoadStateRebuildsHash() {
+        game.placeMark(0, 0);
+        game.changePlayer();
+        game.placeMark(2, 1);
+
+        Game loaded = new Game();
+        loaded.loadState(new GameState(game, false));
+        assertEquals(game.getHash(), loaded.getHash(), "Loaded game should hash like the original.");
+    }
+
     @Test
     void testRandomMove() {
         int[] move = game.getRandomMove();
@@ -118,6 +240,47 @@ class GameTest {
         assertNull(move, "There should be no moves left after the board is full.");
     }
 
+    @Test
+    void testGetMovesListsEmptyCells() {
+        game.placeMark(0, 0);
+        game.placeMark(1, 1);
+        int[] moves = new int[9];
+        int count = game.getMoves(moves);
+        assertEquals(7, count, "Seven cells should remain empty.");
+        assertEquals(1, moves[0], "Moves should be encoded as row * cols + col.");
+        assertEquals(0b111101110L, game.getEmptyCells(), "Empty-cell mask should exclude occupied cells.");
+    }
+
+    @Test
+    void testPlaceMarkWithEncodedMove() {
+        assertTrue(game.placeMark(5), "Encoded move 5 should be placed at (1, 2).");
+        assertEquals('X', game.getBoard()[1][2], "Encoded move should map to row 1, column 2.");
+        assertFalse(game.placeMark(9), "Encoded move outside the board should be rejected.");
+    }
+
+    @Test
+    void testSeededRandomMoveIsReproducible() {
+        Game other = new Game(15, 15, 5);
+        Game large = new Game(15, 15, 5);
+        SplittableRandom first = new SplittableRandom(11);
+        SplittableRandom second = new SplittableRandom(11);
+        for (int i = 0; i < 20; i++) {
+            int move = large.randomMove(first);
+            assertEquals(move, other.randomMove(second), "Same seed should give the same moves.");
+            assertTrue(large.placeMark(move), "Random move should be on an empty cell.");
+            other.placeMark(move);
+        }
+    }
+
+    @Test
+    void testRandomMoveOnFullBoard() {
+        for (int move = 0; move < 9; move++) {
+            game.placeMark(move);
+            game.changePlayer();
+        }
+        assertEquals(-1, game.randomMove(), "There should be no move left on a full board.");
+    }
+
     @Test
     void testLoadState() {
         // Create a mock GameState object
@@ -0,0 +1,75 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonteCarloTreeSearchTest {
+
+    private ForkJoinPool pool;
+    private MonteCarloTreeSearch search;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        search = new MonteCarloTreeSearch(pool, 2, 42);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        Game game = new Game();
+        play(game, 0, 0);  // X
+        play(game, 1, 0);  // O
+        play(game, 0, 1);  // X
+        play(game, 1, 1);  // O
+        assertEquals(2, search.bestMoveWithPlayouts(game, 20000), "X should complete the top row.");
+    }
+
+    @Test
+    void testBlocksOpponentWin() {
+        Game game = new Game();
+        play(game, 0, 0);  // X
+        play(game, 1, 1);  // O
+        play(game, 0, 1);  // X threatens the top row
+        assertEquals(2, search.bestMoveWithPlayouts(game, 50000), "O should block at (0, 2).");
+    }
+
+    @Test
+    void testPlayoutBudgetIsHonoured() {
+        MonteCarloTreeSearch.Result result = search.search(new Game(15, 15, 5), 1000, 0);
+        assertEquals(1000, result.getPlayouts(), "Workers should share the playout budget exactly.");
+        assertTrue(result.getBestMove() >= 0 && result.getBestMove() < 225, "Best move should be on the board.");
+    }
+
+    @Test
+    void testNoMoveWhenGameIsOver() {
+        Game game = new Game();
+        play(game, 0, 0);
+        play(game, 1, 0);
+        play(game, 0, 1);
+        play(game, 1, 1);
+        game.placeMark(0, 2);  // X wins
+        assertEquals(-1, search.bestMoveWithPlayouts(game, 100), "There should be no move after the game has ended.");
+    }
+
+    @Test
+    void testBudgetIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> search.search(new Game(), 0, 0));
+    }
+
+    private void play(Game game, int row, int col) {
+        game.placeMark(row, col);
+        game.changePlayer();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelSolverTest {
+
+    private ParallelSolver serial;
+    private ParallelSolver parallel;
+
+    @BeforeEach
+    void setUp() {
+        serial = new ParallelSolver(4, 4, 4, 1);
+        parallel = new ParallelSolver(4, 4, 4, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serial.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    void testParallelMatchesSerialAtSameDepth() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int position = 0; position < 10; position++) {
+            Game game = randomOpening(random.nextInt(6));
+            ParallelSolver.Result expected = serial.search(game, 6, 0);
+            ParallelSolver.Result actual = parallel.search(game, 6, 0);
+            assertEquals(expected.getBestMove(), actual.getBestMove(), "Parallel search should pick the serial move.");
+            assertEquals(expected.getScore(), actual.getScore(), "Parallel search should find the serial score.");
+        }
+    }
+
+    @Test
+    void testFindsImmediateWin() {
+        Game game = new Game(4, 4, 4);
+        for (int col = 0; col < 3; col++) {
+            game.placeMark(0, col);  // X
+            game.changePlayer();
+            game.placeMark(3, col);  // O
+            game.changePlayer();
+        }
+        assertEquals(3, parallel.bestMove(game, 4), "X should complete the top row.");
+    }
+
+    @Test
+    void testDeadlineStopsSearch() {
+        ParallelSolver large = new ParallelSolver(5, 5, 4, 2);
+        try {
+            ParallelSolver.Result result = large.search(new Game(5, 5, 4), 25, 200);
+            assertTrue(result.getDepth() >= 1, "At least one iteration should complete.");
+            assertTrue(result.getElapsedNanos() < 2_000_000_000L, "Search should stop near the deadline.");
+        } finally {
+            large.shutdown();
+        }
+    }
+
+    private Game randomOpening(int moves) {
+        Game game = new Game(4, 4, 4);
+        for (int i = 0; i < moves; i++) {
+            int[] move = game.getRandomMove();
+            game.placeMark(move[0], move[1]);
+            game.changePlayer();
+        }
+        return game;
+    }
+}
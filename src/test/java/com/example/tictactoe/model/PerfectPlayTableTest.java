@@ -0,0 +1,89 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PerfectPlayTableTest {
+
+    private PerfectPlayTable table;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        table = PerfectPlayTable.getInstance();
+        game = new Game();
+    }
+
+    @Test
+    void testGeneratorReachesAllLegalPositions() {
+        PerfectPlayTableGenerator generator = new PerfectPlayTableGenerator();
+        generator.generate();
+        assertEquals(5478, generator.getReachable(), "There are 5,478 legal positions reachable from the start.");
+    }
+
+    @Test
+    void testShippedResourceMatchesGenerator() {
+        short[] generated = new PerfectPlayTableGenerator().generate();
+        PerfectPlayTable fromGenerator = new PerfectPlayTable(generated);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                Game opening = new Game();
+                opening.placeMark(row, col);
+                opening.changePlayer();
+                assertEquals(fromGenerator.bestMoves(opening), table.bestMoves(opening),
+                        "Shipped table should match a freshly generated one.");
+            }
+        }
+    }
+
+    @Test
+    void testEmptyBoardIsDraw() {
+        assertEquals(PerfectPlayTable.DRAW, table.value(game), "Perfect play from the start should be a draw.");
+    }
+
+    @Test
+    void testFindsWinningMove() {
+        play(0, 0);  // X
+        play(1, 0);  // O
+        play(0, 1);  // X
+        play(1, 1);  // O
+        assertEquals(PerfectPlayTable.WIN, table.value(game), "X should be winning.");
+        assertEquals(2, table.bestMove(game), "X should complete the top row.");
+    }
+
+    @Test
+    void testAgreesWithSolver() {
+        Solver solver = new Solver(3, 3, 3);
+        play(1, 1);  // X
+        play(0, 1);  // O on an edge loses
+        int solverValue = solver.evaluate(game);
+        assertEquals(solverValue > 0 ? PerfectPlayTable.WIN : solverValue < 0 ? PerfectPlayTable.LOSS
+                : PerfectPlayTable.DRAW, table.value(game), "Table and solver should agree on the value.");
+    }
+
+    @Test
+    void testUnsupportedPositionsReturnNoMove() {
+        Game large = new Game(4, 4, 4);
+        assertEquals(-1, table.bestMove(large), "Only the classic board is tabulated.");
+
+        game.changePlayer();  // O to move on an empty board never happens in a real game
+        assertEquals(-1, table.bestMove(game), "Unreachable positions should not be found.");
+    }
+
+    @Test
+    void testIndexIsBaseThree() {
+        assertArrayEquals(new int[]{0, 1, 2, 3}, new int[]{
+                PerfectPlayTable.index(0, 0),
+                PerfectPlayTable.index(1, 0),
+                PerfectPlayTable.index(0, 1),
+                PerfectPlayTable.index(2, 0)});
+    }
+
+    private void play(int row, int col) {
+        game.placeMark(row, col);
+        game.changePlayer();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerftTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testClassicBoardGameCounts() {
+        Perft.Result result = new Perft(pool).run(GameState.of(new Game(), false));
+
+        assertEquals(549946, result.getNodes(), "Every reachable position should be visited.");
+        assertEquals(255168, result.getGames(), "Classic tic-tac-toe has 255168 distinct games.");
+        assertEquals(131184, result.getWins(), "X should win 131184 games.");
+        assertEquals(77904, result.getLosses(), "O should win 77904 games.");
+        assertEquals(46080, result.getDraws(), "46080 games should be drawn.");
+        assertEquals(0, result.getUnfinished(), "A full walk should finish every game.");
+    }
+
+    @Test
+    void testDepthLimit() {
+        Perft.Result result = new Perft(pool).run(new Game(), 2);
+
+        assertEquals(1 + 9 + 72, result.getNodes(), "Two plies should visit the root, 9 and 72 positions.");
+        assertEquals(72, result.getUnfinished(), "Positions at the horizon should be counted as unfinished.");
+    }
+
+    @Test
+    void testOutcomesAreSeenFromThePlayerToMove() {
+        Game game = new Game();
+        game.placeMark(1, 1);
+        game.changePlayer();
+
+        Perft.Result fromO = new Perft(pool).run(game, 0);
+        ForkJoinPool single = new ForkJoinPool(1);
+        Perft.Result serial = new Perft(single).run(game, 0);
+        single.shutdown();
+
+        assertEquals(serial.getNodes(), fromO.getNodes(), "Parallel and serial walks should visit the same tree.");
+        assertEquals(serial.getWins(), fromO.getWins(), "Parallel and serial walks should agree on wins.");
+        assertEquals('X', game.getMark(1, 1), "The walk should leave the game untouched.");
+        assertEquals(fromO.getGames(), fromO.getWins() + fromO.getLosses() + fromO.getDraws(), "Games should add up.");
+        assertTrue(fromO.getLosses() > fromO.getWins(), "O replying to a centre opening loses more often.");
+    }
+
+    @Test
+    void testNegativeDepthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Perft(pool).run(new Game(), -1));
+    }
+}
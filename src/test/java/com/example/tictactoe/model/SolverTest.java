@@ -0,0 +1,84 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverTest {
+
+    private Solver solver;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        solver = new Solver(3, 3, 3);
+        game = new Game();
+    }
+
+    @Test
+    void testEmptyBoardIsDraw() {
+        assertEquals(0, solver.evaluate(game), "Perfect play from the empty board should be a draw.");
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        play(0, 0);  // X
+        play(1, 0);  // O
+        play(0, 1);  // X
+        play(1, 1);  // O
+        assertEquals(2, solver.bestMove(game), "X should complete the top row.");
+        assertTrue(solver.evaluate(game) > 0, "X should be winning.");
+    }
+
+    @Test
+    void testBlocksOpponentWin() {
+        play(0, 0);  // X
+        play(1, 1);  // O
+        play(2, 2);  // X
+        play(0, 1);  // O threatens the middle column
+        assertEquals(7, solver.bestMove(game), "X should block at (2, 1).");
+    }
+
+    @Test
+    void testSymmetricPositionsHaveSameValue() {
+        play(0, 0);  // X in a corner
+        int corner = solver.evaluate(game);
+
+        Game mirrored = new Game();
+        mirrored.placeMark(2, 2);
+        mirrored.changePlayer();
+        assertEquals(corner, solver.evaluate(mirrored), "Mirrored positions should evaluate the same.");
+    }
+
+    @Test
+    void testNoMoveWhenGameIsOver() {
+        play(0, 0);
+        play(1, 0);
+        play(0, 1);
+        play(1, 1);
+        play(0, 2);  // X wins
+        assertEquals(-1, solver.bestMove(game), "There should be no move after the game has ended.");
+    }
+
+    @Test
+    void testFourByFourWithThreeInARowIsFirstPlayerWin() {
+        Solver largeSolver = new Solver(4, 4, 3);
+        assertTrue(largeSolver.evaluate(new Game(4, 4, 3)) > 0, "X should win 4x4 three-in-a-row.");
+    }
+
+    @Test
+    void testSupportsOnlySmallBoards() {
+        assertTrue(Solver.supports(4, 4), "4x4 should be solvable.");
+        assertFalse(Solver.supports(15, 15), "15x15 should be too large to solve.");
+        assertThrows(IllegalArgumentException.class, () -> new Solver(5, 5, 4));
+    }
+
+    private void play(int row, int col) {
+        game.placeMark(row, col);
+        game.changePlayer();
+    }
+}
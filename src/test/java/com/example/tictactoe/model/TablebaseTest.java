@@ -0,0 +1,85 @@
+package com.example.tictactoe.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablebaseTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testClassicTablebaseMatchesPerfectPlayTable() throws IOException {
+        Tablebase tablebase = generate(3, 3, 3);
+        PerfectPlayTable table = PerfectPlayTable.getInstance();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int position = 0; position < 200; position++) {
+            Game game = randomPosition(new Game(), random);
+            assertEquals(table.value(game), tablebase.value(game), "Tablebase value should match the perfect-play table.");
+            int move = tablebase.bestMove(game);
+            if (move >= 0) {
+                assertTrue((table.bestMoves(game) & (1 << move)) != 0, "Tablebase move should be optimal.");
+            }
+        }
+        assertEquals(9, tablebase.distance(new Game()), "Perfect play on the classic board fills it.");
+    }
+
+    @Test
+    void testSmallBoardMatchesSolver() throws IOException {
+        Tablebase tablebase = generate(3, 4, 3);
+        Solver solver = new Solver(3, 4, 3);
+        SplittableRandom random = new SplittableRandom(5);
+        for (int position = 0; position < 100; position++) {
+            Game game = randomPosition(new Game(3, 4, 3), random);
+            int score = solver.evaluate(game);
+            int expected = score > 0 ? PerfectPlayTable.WIN : score < 0 ? PerfectPlayTable.LOSS : PerfectPlayTable.DRAW;
+            assertEquals(expected, tablebase.value(game), "Tablebase value should match the solver.");
+        }
+    }
+
+    @Test
+    void testWrongBoardIsNotProbed() throws IOException {
+        Tablebase tablebase = generate(3, 3, 3);
+        Game game = new Game(3, 4, 3);
+        assertEquals(-1, tablebase.value(game), "A tablebase only answers for its own board.");
+        assertEquals(-1, tablebase.bestMove(game), "A tablebase only answers for its own board.");
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path file = Files.write(directory.resolve("not_a_tablebase.bin"), new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> Tablebase.open(file));
+    }
+
+    private Tablebase generate(int rows, int cols, int winLength) throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(rows, cols, winLength);
+        generator.generate();
+        Path file = directory.resolve(Tablebase.fileName(rows, cols, winLength));
+        generator.write(file);
+        return Tablebase.open(file);
+    }
+
+    // Plays random moves, stopping before the game ends
+    private static Game randomPosition(Game game, SplittableRandom random) {
+        int plies = random.nextInt(game.getRows() * game.getCols());
+        for (int ply = 0; ply < plies; ply++) {
+            int move = game.randomMove(random);
+            game.placeMark(move);
+            if (game.checkForWin() || game.isBoardFull()) {
+                game.undoMark();
+                break;
+            }
+            game.changePlayer();
+        }
+        return game;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryProtocolTest {
+
+    @Test
+    void testClassicStateFitsInThreeBytes() throws IOException {
+        Game game = new Game();
+        game.placeMark(1, 1);
+        game.changePlayer();
+        game.placeMark(0, 2);
+        game.changePlayer();
+        GameState state = GameState.of(game, false);
+
+        byte[] frame = BinaryProtocol.encodeState(state);
+        assertEquals(4, frame.length, "A 3x3 state should be a type byte and 3 bytes of state.");
+        assertEquals(BinaryProtocol.CLASSIC_STATE, frame[0]);
+        assertSame(state, decode(frame), "Decoding should give back the interned state.");
+    }
+
+    @Test
+    void testLargerBoardsCarryTheirDimensions() throws IOException {
+        Game game = new Game(4, 5, 3);
+        game.placeMark(3, 4);
+        game.changePlayer();
+        GameState state = GameState.of(game, true);
+
+        byte[] frame = BinaryProtocol.encodeState(state);
+        assertEquals(BinaryProtocol.STATE, frame[0]);
+        assertEquals(4 + 6, frame.length, "Header plus 20 cells at 2 bits and 4 bits of player and result.");
+        assertEquals(state, decode(frame), "Decoding should give back an equal state.");
+    }
+
+    @Test
+    void testEveryResultSurvivesTheRoundTrip() throws IOException {
+        char[][] board = {{'X', 'O', 'X'}, {'-', 'O', '-'}, {'X', '-', 'O'}};
+        for (GameState.State result : GameState.State.values()) {
+            GameState state = GameState.of(board, 'O', 3, result);
+            assertEquals(state, decode(BinaryProtocol.encodeState(state)), "Round trip failed for " + result);
+        }
+    }
+
+    @Test
+    void testMovesOnlyFitInAByteOnSmallerBoards() {
+        assertTrue(BinaryProtocol.supports(3, 3));
+        assertTrue(BinaryProtocol.supports(15, 15));
+        assertFalse(BinaryProtocol.supports(16, 16), "256 cells would collide with the vote byte.");
+    }
+
+    private static GameState decode(byte[] frame) throws IOException {
+        InputStream in = new ByteArrayInputStream(frame);
+        return new BinaryProtocol.StateReader().read(in.read(), in);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.tictactoe.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchmakingLobbyTest {
+
+    @Test
+    void testArrivalsArePairedInOrder() {
+        List<String> games = new ArrayList<>();
+        MatchmakingLobby<String> lobby = new MatchmakingLobby<>(
+                List.of((MatchmakingLobby.Shard<String>) (id, first, second) -> games.add(id + ":" + first + "+" + second)));
+
+        lobby.arrive("a");
+        assertTrue(games.isEmpty(), "A lone player should wait for a partner.");
+        lobby.arrive("b");
+        lobby.arrive("c");
+        lobby.arrive("d");
+        assertEquals(List.of("1:a+b", "2:c+d"), games, "Each arrival should pair with the one waiting.");
+        assertEquals(2, lobby.getGamesStarted());
+    }
+
+    @Test
+    void testWaitingPlayerCanLeave() {
+        List<String> games = new ArrayList<>();
+        MatchmakingLobby<String> lobby = new MatchmakingLobby<>(
+                List.of((MatchmakingLobby.Shard<String>) (id, first, second) -> games.add(first + "+" + second)));
+
+        lobby.arrive("a");
+        assertFalse(lobby.leave("b"), "Only the waiting player can leave.");
+        assertTrue(lobby.leave("a"));
+        lobby.arrive("b");
+        lobby.arrive("c");
+        assertEquals(List.of("b+c"), games, "A player who left should not be paired.");
+        assertNull(lobby.clear(), "Nobody should be left waiting.");
+    }
+
+    @Test
+    void testBurstFromManyThreadsPairsEveryPlayerOnce() throws InterruptedException {
+        int threads = 8;
+        int perThread = 25_000;
+        Set<Integer> paired = ConcurrentHashMap.newKeySet();
+        AtomicIntegerArray shardGames = new AtomicIntegerArray(4);
+        List<MatchmakingLobby.Shard<Integer>> shards = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int shard = i;
+            shards.add((id, first, second) -> {
+                assertTrue(paired.add(first) && paired.add(second), "A player was paired twice.");
+                shardGames.incrementAndGet(shard);
+            });
+        }
+        MatchmakingLobby<Integer> lobby = new MatchmakingLobby<>(shards);
+
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    lobby.arrive(base + i);
+                }
+            }));
+        }
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, paired.size(), "Every player should be paired exactly once.");
+        assertEquals(threads * perThread / 2, lobby.getGamesStarted());
+        for (int shard = 0; shard < 4; shard++) {
+            assertTrue(shardGames.get(shard) > threads * perThread / 16, "Games should spread over all shards.");
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlayerOutboxTest {
+
+    private final Game game = new Game();
+    private final GameState a = next(0);
+    private final GameState b = next(4);
+    private final GameState c = next(8);
+    private final GameState d = next(2);
+
+    @Test
+    void testQueuedStatesCoalesceBehindASlowClient() {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.text(new BlockingWriter(written, release)),
+                Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        // The sender has written the first state and is stuck flushing it while the game keeps going
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains(frame(a)));
+        outbox.sendState(b);
+        outbox.sendState(c);
+        outbox.sendRematch();
+        outbox.sendState(d);
+        outbox.sendState(d);
+        release.countDown();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().lines().count() == 4);
+        assertEquals(List.of(frame(a), frame(c), "Rematch?", frame(d)), written.toString().lines().toList(),
+                "Only the latest of the queued states should be sent, and repeats not at all.");
+    }
+
+    @Test
+    void testPingsJumpTheQueueWithoutBreakingCoalescing() {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.text(new BlockingWriter(written, release)),
+                Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains(frame(a)));
+        outbox.sendState(b);
+        outbox.sendHeartbeat();
+        outbox.sendHeartbeat();
+        outbox.sendState(c);
+        release.countDown();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().lines().count() == 3);
+        assertEquals(List.of(frame(a), "Ping", frame(c)), written.toString().lines().toList(),
+                "A pending ping should go out once, ahead of the states, which still coalesce.");
+    }
+
+    @Test
+    void testRepeatedStateIsSentOnce() {
+        StringWriter written = new StringWriter();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.text(new PrintWriter(written)),
+                Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains(frame(a)));
+        outbox.sendState(a);
+        outbox.sendRematch();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains("Rematch?"));
+        assertEquals(List.of(frame(a), "Rematch?"), written.toString().lines().toList(),
+                "A state equal to the last one sent should be dropped.");
+    }
+
+    @Test
+    void testDeltaOutboxSendsEveryMove() {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.text(new BlockingWriter(written, release)), true,
+                Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains(frame(a)));
+        outbox.sendMove(b, 2, 4);
+        outbox.sendMove(c, 3, 8);
+        release.countDown();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().lines().count() == 3);
+        assertEquals(List.of(frame(a), "MOVE:2:1,1", "MOVE:3:2,2"), written.toString().lines().toList(),
+                "Queued moves should not coalesce, as the client applies each of them.");
+    }
+
+    @Test
+    void testMoveReplacesQueuedSnapshot() {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.text(new BlockingWriter(written, release)), true,
+                Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().contains(frame(a)));
+        outbox.resend(a);  // a resync request, answered even though the state has not changed
+        outbox.sendMove(b, 2, 4);
+        outbox.sendMove(c, 3, 8);
+        release.countDown();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.toString().lines().count() == 2);
+        assertEquals(List.of(frame(a), frame(c)), written.toString().lines().toList(),
+                "Moves made while a snapshot is queued should be folded into that snapshot.");
+    }
+
+    @Test
+    void testBinaryEncoderWritesFrames() {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        PlayerOutbox outbox = new PlayerOutbox(PlayerOutbox.binary(written), Thread.ofVirtual().factory());
+
+        outbox.sendState(a);
+        outbox.sendRematch();
+        outbox.close();
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> written.size() == 5);
+        byte[] bytes = written.toByteArray();
+        assertEquals(BinaryProtocol.CLASSIC_STATE, bytes[0], "A state should go out as a 4-byte frame.");
+        assertEquals(BinaryProtocol.REMATCH, bytes[4], "The rematch offer should follow as a single byte.");
+    }
+
+    // Plays the move and snapshots the game
+    private GameState next(int move) {
+        game.placeMark(move);
+        game.changePlayer();
+        return GameState.of(game, false);
+    }
+
+    private static String frame(GameState state) {
+        return "STATE:" + state.compress();
+    }
+
+    // A client that stops reading: flushes block until released
+    private static final class BlockingWriter extends PrintWriter {
+        private final CountDownLatch release;
+
+        BlockingWriter(StringWriter target, CountDownLatch release) {
+            super(target);
+            this.release = release;
+        }
+
+        @Override
+        public void flush() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.flush();
+        }
+    }
+}
@@ -66,6 +66,16 @@ class TicTacToeClientTest {
         assertEquals("1,2", captor.getValue(), "The move should be sent in 'row,col' format.");
     }
 
+    @Test
+    void testSendEncodedMove() {
+        client.sendMove(5);  // Row 1, column 2 on the default 3x3 board
+
+        verify(mockOut).write('1');
+        verify(mockOut).write(',');
+        verify(mockOut).write('2');
+        verify(mockOut).println();
+    }
+
     @Test
     void testPlayerAssignment() throws IOException {
         // Mock the input to simulate server messages
@@ -0,0 +1,439 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicTacToeGameHostTest {
+
+    private TicTacToeGameHost host;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        host = new TicTacToeGameHost(0, 3, 3, 3, TicTacToeGameHost.virtualThreads());
+        host.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        host.shutdown();
+    }
+
+    @Test
+    void testEachPairOfConnectionsGetsItsOwnGame() throws IOException {
+        for (int game = 0; game < 3; game++) {
+            Socket x = connect();
+            Socket o = connect();
+            skipOffers(x);
+            assertEquals("You are player:X", readLine(x), "First connection of a pair should play X.");
+            send(x, "Acknowledged");
+            skipOffers(o);
+            assertEquals("You are player:O", readLine(o), "Second connection of a pair should play O.");
+            send(o, "Acknowledged");
+            assertEquals(GameState.State.ONGOING, expectState(x).getState(), "Game should start for X.");
+            assertEquals(GameState.State.ONGOING, expectState(o).getState(), "Game should start for O.");
+        }
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getGameCount() == 3);
+    }
+
+    @Test
+    void testMovesAndVotesAreHandledWithoutPollingDelay() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);  // declined by acknowledging without options
+        readLine(x);
+        send(x, "Acknowledged");
+        skipOffers(o);
+        readLine(o);
+        send(o, "Acknowledged");
+        expectState(x);
+        expectState(o);
+
+        long start = System.nanoTime();
+        String[] moves = {"0,0", "1,0", "0,1", "1,1", "0,2"};
+        for (int i = 0; i < moves.length; i++) {
+            send(i % 2 == 0 ? x : o, moves[i]);
+            expectState(x);
+            expectState(o);
+        }
+        assertEquals("Rematch?", readLine(x), "X should be offered a rematch after winning.");
+        send(x, "Yes");
+        send(o, "Yes");
+        assertEquals("Rematch?", readLine(o), "O should be offered a rematch too.");
+        assertEquals(GameState.State.ONGOING, expectState(x).getState(), "Rematch should start once both vote.");
+        // Not a latency bound (MoveLatencyBenchmark measures that), only that no move waited for a one-second poll
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < moves.length * 1000L, "Five moves and a rematch took " + elapsedMillis + " ms.");
+    }
+
+    @Test
+    void testBinaryClientPlaysAgainstTextClient() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        assertEquals(Protocol.BINARY_OFFER, readLine(x), "The server should offer the binary protocol first.");
+        assertEquals(Protocol.DELTA_OFFER, readLine(x), "The server should offer delta updates next.");
+        assertTrue(readLine(x).startsWith(Protocol.HEARTBEAT_OFFER), "The server should offer heartbeats next.");
+        assertTrue(readLine(x).startsWith(Protocol.SESSION_OFFER), "The server should issue a session token last.");
+        assertEquals("You are player:X", readLine(x));
+        send(x, Protocol.ACKNOWLEDGED_BINARY);
+        skipOffers(o);
+        assertEquals("You are player:O", readLine(o));
+        send(o, "Acknowledged");  // an old client ignores the offer
+
+        assertEquals(GameState.State.ONGOING, readFrame(x).getState(), "X should get the start as a binary frame.");
+        expectState(o);
+        x.getOutputStream().write(4);  // center
+        GameState seenByO = expectState(o);
+        assertEquals('X', seenByO.getMark(1, 1), "The binary move should reach the text client.");
+        assertEquals(seenByO, readFrame(x), "Both players should see the same state.");
+
+        send(o, "0,0");
+        assertEquals('O', readFrame(x).getMark(0, 0), "The text move should reach the binary client.");
+    }
+
+    @Test
+    void testDeltaClientGetsMovesAndResynchronizes() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        readLine(x);
+        send(x, Protocol.acknowledgement(false, true));
+        skipOffers(o);
+        readLine(o);
+        send(o, "Acknowledged");
+
+        assertEquals(0, expectState(x).getMarkCount(), "A delta client should get a snapshot when it joins.");
+        expectState(o);
+        send(x, "1,1");
+        assertEquals("MOVE:1:1,1", readLine(x), "A delta client should get the move rather than the board.");
+        assertEquals('X', expectState(o).getMark(1, 1), "Other clients should still get the board.");
+        send(o, "0,2");
+        assertEquals("MOVE:2:0,2", readLine(x), "Move events should be numbered in order.");
+        expectState(o);
+
+        send(x, Protocol.RESYNC);
+        GameState snapshot = expectState(x);
+        assertEquals(2, snapshot.getMarkCount(), "A resync should be answered with the current board.");
+        assertEquals('O', snapshot.getMark(0, 2));
+        assertEquals('X', snapshot.getCurrentPlayer(), "The snapshot should carry the player to move.");
+    }
+
+    @Test
+    void testPartnerOfAPlayerWhoLeavesIsPairedAgain() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        assertEquals("You are player:X", readLine(x));
+        x.close();  // leaves before acknowledging, so the game never starts
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getGameCount() == 0);
+
+        Socket late = connect();
+        skipOffers(o);
+        assertEquals("You are player:X", readLine(o), "The stranded player should lead a new game.");
+        send(o, "Acknowledged");
+        skipOffers(late);
+        assertEquals("You are player:O", readLine(late), "The next arrival should be its partner.");
+        send(late, "Acknowledged");
+        assertEquals(GameState.State.ONGOING, expectState(o).getState(), "The new game should start.");
+        assertEquals(GameState.State.ONGOING, expectState(late).getState());
+    }
+
+    @Test
+    void testSpectatorsWatchAGameById() throws IOException {
+        int spectatorPort = host.openSpectatorPort(0);
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        readLine(x);
+        send(x, "Acknowledged");
+        skipOffers(o);
+        readLine(o);
+        send(o, "Acknowledged");
+        expectState(x);
+        expectState(o);
+
+        Socket first = connect(spectatorPort);
+        Socket second = connect(spectatorPort);
+        send(first, "Watch:1");
+        send(second, "Watch:1");
+        assertEquals(GameState.State.ONGOING, expectState(first).getState(), "A spectator should get the board.");
+        expectState(second);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.findGame(1).getSpectatorCount() == 2);
+
+        send(x, "1,1");
+        assertEquals('X', expectState(first).getMark(1, 1), "Every spectator should see the move.");
+        assertEquals('X', expectState(second).getMark(1, 1));
+        send(o, "0,0");
+        assertEquals('O', expectState(first).getMark(0, 0));
+
+        Socket lost = connect(spectatorPort);
+        send(lost, "Watch:42");
+        assertTrue(readLine(lost).startsWith("Error:"), "Watching an unknown game should be refused.");
+    }
+
+    @Test
+    void testSessionsOnOneMultiplexedConnectionPlayTheirOwnGames() throws Exception {
+        int multiplexPort = host.openMultiplexPort(0);
+        try (MultiplexedClient client = new MultiplexedClient("localhost", multiplexPort)) {
+            List<BlockingQueue<String>> received = new ArrayList<>();
+            List<MultiplexedClient.Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+                received.add(lines);
+                sessions.add(client.open((session, line) -> lines.add(line)));
+            }
+            for (int i = 0; i < 4; i++) {
+                BlockingQueue<String> lines = received.get(i);
+                assertEquals(Protocol.BINARY_OFFER, next(lines));
+                assertEquals(Protocol.DELTA_OFFER, next(lines));
+                assertTrue(next(lines).startsWith(Protocol.HEARTBEAT_OFFER));
+                assertTrue(next(lines).startsWith(Protocol.SESSION_OFFER));
+                assertEquals("You are player:" + (i % 2 == 0 ? "X" : "O"), next(lines),
+                        "Sessions should be paired in the order they were opened.");
+                sessions.get(i).send("Acknowledged");
+            }
+            for (BlockingQueue<String> lines : received) {
+                assertEquals(GameState.State.ONGOING, GameState.expand(state(next(lines))).getState());
+            }
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getGameCount() == 2);
+            assertEquals(4, host.getMultiplexedSessionCount());
+
+            sessions.get(2).send("1,1");
+            assertEquals('X', GameState.expand(state(next(received.get(3)))).getMark(1, 1),
+                    "A move should reach the opponent's session.");
+            assertEquals('X', GameState.expand(state(next(received.get(2)))).getMark(1, 1));
+            assertTrue(received.get(0).isEmpty() && received.get(1).isEmpty(), "The other game should not see it.");
+        }
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getMultiplexedSessionCount() == 0);
+    }
+
+    @Test
+    void testMultiplexedSessionThatLeavesTheLobbyIsNotPaired() throws Exception {
+        int multiplexPort = host.openMultiplexPort(0);
+        try (MultiplexedClient client = new MultiplexedClient("localhost", multiplexPort)) {
+            MultiplexedClient.Session waiting = client.open((session, line) -> {
+            });
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getMultiplexedSessionCount() == 1);
+            waiting.close();
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> host.getMultiplexedSessionCount() == 0);
+
+            Socket x = connect();
+            Socket o = connect();
+            skipOffers(x);
+            assertEquals("You are player:X", readLine(x));
+            send(x, "Acknowledged");
+            skipOffers(o);
+            assertEquals("You are player:O", readLine(o));
+            send(o, "Acknowledged");
+            expectState(x);
+            assertNotNull(host.findGame(1), "The first game should pair the sockets, not the session that left.");
+        }
+    }
+
+    @Test
+    void testMultiplexedSessionFloodingAGameThatIsNotReadingIsClosed() throws Exception {
+        int multiplexPort = host.openMultiplexPort(0);
+        try (MultiplexedClient client = new MultiplexedClient("localhost", multiplexPort)) {
+            CountDownLatch closed = new CountDownLatch(1);
+            MultiplexedClient.Session session = client.open(new MultiplexedClient.SessionHandler() {
+                @Override
+                public void onLine(MultiplexedClient.Session session, String line) {
+                }
+
+                @Override
+                public void onClose(MultiplexedClient.Session session) {
+                    closed.countDown();
+                }
+            });
+            String flood = "x".repeat(1000);
+            try {
+                for (int i = 0; i < 100; i++) {
+                    session.send(flood);  // waiting in the lobby, so nothing reads it
+                }
+            } catch (IOException e) {
+                // closed while flooding
+            }
+            assertTrue(closed.await(5, TimeUnit.SECONDS), "The host should close the flooding session.");
+            assertTrue(client.isConnected(), "The other sessions on the connection should carry on.");
+        }
+    }
+
+    @Test
+    void testSilentHeartbeatPlayerIsDroppedWhileAThinkingOneIsKept() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        readLine(x);
+        send(x, Protocol.acknowledgement(false, false, true));
+        skipOffers(o);
+        readLine(o);
+        send(o, Protocol.acknowledgement(false, false, true));
+        expectState(x);
+        expectState(o);
+
+        // X answers every ping and thinks far beyond its turn; O stops answering
+        long start = System.nanoTime();
+        long lastPing = start;
+        GameState seenByX = null;
+        while (seenByX == null) {
+            String line = readLine(x);
+            if (line.equals(Protocol.PING)) {
+                send(x, Protocol.PONG);
+                lastPing = System.nanoTime();
+            } else if (line.startsWith("STATE:")) {
+                seenByX = GameState.expand(line.substring(6));
+            }
+        }
+        assertEquals(GameState.State.WAITING, seenByX.getState(), "X should see the game wait for O to return.");
+        assertTrue(lastPing > start, "X should have been pinged while O went quiet.");
+        while (o.getInputStream().read() >= 0) {
+            // Pings sent before O was dropped
+        }
+
+        // The seat O left is filled by the next connection, and X was never dropped for taking its time
+        Socket back = connect();
+        skipOffers(back);
+        assertEquals("You are player:O", readLine(back));
+    }
+
+    @Test
+    void testSilentHeartbeatPlayerIsDroppedWithinASecond() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        readLine(x);
+        send(x, Protocol.acknowledgement(false, false, false));
+        skipOffers(o);
+        readLine(o);
+        send(o, Protocol.acknowledgement(false, false, true));
+        long lastHeardFromO = System.nanoTime();
+        expectState(x);
+
+        // O never answers a ping; X, without heartbeats of its own, hears of it with the next state
+        assertEquals(GameState.State.WAITING, expectState(x).getState(), "X should see the game wait for O.");
+        long droppedAfterMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastHeardFromO);
+        assertTrue(droppedAfterMillis < 1000, "O was dropped " + droppedAfterMillis + " ms after it went quiet.");
+    }
+
+    @Test
+    void testDroppedPlayerResumesItsReservedSeat() throws IOException {
+        Socket x = connect();
+        Socket o = connect();
+        skipOffers(x);
+        readLine(x);
+        send(x, Protocol.acknowledgement(false, false, true));
+        String token = skipOffers(o);
+        readLine(o);
+        send(o, Protocol.acknowledgement(false, false, true, true));
+        expectState(x);
+        expectState(o);
+        send(x, "1,1");
+        expectState(x);
+        expectState(o);
+
+        o.close();
+        assertEquals(GameState.State.WAITING, nextState(x).getState(), "X should see the game wait for O.");
+
+        // The returning client, alone on the host, asks for its seat without waiting for the offers, and gets it back
+        // at once without being paired with anyone
+        Socket back = connect();
+        send(back, Protocol.resume(token, false, true));
+        assertEquals(Protocol.RESUMED + "O", readLine(back), "The token should give back O's seat, with no offers.");
+        GameState snapshot = expectState(back);
+        assertEquals('X', snapshot.getMark(1, 1), "The snapshot should include the moves made meanwhile.");
+        assertEquals(GameState.State.ONGOING, snapshot.getState());
+
+        // X kept its connection throughout, and plays on against the resumed O
+        assertEquals(GameState.State.ONGOING, nextState(x).getState(), "X should see the game resume.");
+        send(back, "0,0");
+        assertEquals('O', nextState(x).getMark(0, 0), "The resumed player's move should reach X.");
+    }
+
+    // The next state sent to a heartbeat player, answering its pings meanwhile
+    private static GameState nextState(Socket socket) throws IOException {
+        String line;
+        while (!(line = readLine(socket)).startsWith("STATE:")) {
+            assertEquals(Protocol.PING, line, "Only pings should come between states.");
+            send(socket, Protocol.PONG);
+        }
+        return GameState.expand(line.substring(6));
+    }
+
+    private Socket connect() throws IOException {
+        return connect(host.getPort());
+    }
+
+    private Socket connect(int port) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(5000);
+        sockets.add(socket);
+        return socket;
+    }
+
+    // Reads the binary, delta, heartbeat and session offers that precede the player assignment; returns the token
+    private static String skipOffers(Socket socket) throws IOException {
+        assertEquals(Protocol.BINARY_OFFER, readLine(socket));
+        assertEquals(Protocol.DELTA_OFFER, readLine(socket));
+        assertTrue(readLine(socket).startsWith(Protocol.HEARTBEAT_OFFER));
+        String session = readLine(socket);
+        assertTrue(session.startsWith(Protocol.SESSION_OFFER));
+        return session.substring(Protocol.SESSION_OFFER.length());
+    }
+
+    private static String readLine(Socket socket) throws IOException {
+        // One byte at a time, so no reader buffers lines that a later call should see
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = socket.getInputStream().read()) != -1 && b != '\n') {
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private static String next(BlockingQueue<String> lines) throws InterruptedException {
+        String line = lines.poll(5, TimeUnit.SECONDS);
+        assertNotNull(line, "Timed out waiting for a line.");
+        return line;
+    }
+
+    private static String state(String line) {
+        assertTrue(line.startsWith("STATE:"), "Expected a state update but got " + line);
+        return line.substring(6);
+    }
+
+    private static GameState readFrame(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        return new BinaryProtocol.StateReader().read(in.read(), in);
+    }
+
+    private static void send(Socket socket, String line) throws IOException {
+        new PrintWriter(socket.getOutputStream(), true).println(line);
+    }
+
+    private static GameState expectState(Socket socket) throws IOException {
+        String line = readLine(socket);
+        assertTrue(line.startsWith("STATE:"), "Expected a state update but got " + line);
+        return GameState.expand(line.substring(6));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.tictactoe.net;
+
+import com.example.tictactoe.model.GameState;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicTacToeNioServerTest {
+
+    private TicTacToeNioServer server;
+    private final List<Player> players = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new TicTacToeNioServer(0, 3, 3, 3, 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Player player : players) {
+            player.socket.close();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void testPlayersAreAssignedAndSeeMoves() throws IOException {
+        Player x = connect();
+        Player o = connect();
+        assertEquals("You are player:X", x.readLine(), "First connection should play X.");
+        assertEquals("You are player:O", o.readLine(), "Second connection should play O.");
+        x.send("Acknowledged");
+        o.send("Acknowledged");
+        assertEquals(GameState.State.ONGOING, x.expectState().getState(), "Game should start once both acknowledge.");
+        o.expectState();
+
+        x.send("1,1");
+        GameState seenByO = o.expectState();
+        assertEquals('X', seenByO.getMark(1, 1), "Move should be broadcast to the opponent.");
+        assertEquals('O', seenByO.getCurrentPlayer(), "Turn should pass to O.");
+        assertEquals(seenByO, x.expectState(), "Both players should see the same state.");
+    }
+
+    @Test
+    void testMoveOutOfTurnIsIgnored() throws IOException {
+        Player x = connect();
+        Player o = connect();
+        startGame(x, o);
+
+        o.send("0,0");
+        x.send("2,2");
+        GameState state = o.expectState();
+        assertEquals('-', state.getMark(0, 0), "O may not move on X's turn.");
+        assertEquals('X', state.getMark(2, 2), "X's move should be applied.");
+    }
+
+    @Test
+    void testDroppedSeatIsRefilledByNextConnection() throws IOException {
+        Player x = connect();
+        Player o = connect();
+        startGame(x, o);
+        x.send("0,0");
+        o.expectState();
+
+        x.socket.close();
+        assertEquals(GameState.State.WAITING, o.expectState().getState(), "Opponent should be told the game waits.");
+
+        Player replacement = connect();
+        assertEquals("You are player:X", replacement.readLine(), "Replacement should take the empty seat.");
+        replacement.send("Acknowledged");
+        GameState resumed = o.expectState();
+        assertEquals(GameState.State.ONGOING, resumed.getState(), "Game should resume after the seat is filled.");
+        assertEquals('X', resumed.getMark(0, 0), "Board should survive the reconnect.");
+    }
+
+    @Test
+    void testManyConcurrentGames() throws Exception {
+        int games = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(games * 2);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < games * 2; i++) {
+                Player player = connect();
+                results.add(executor.submit(() -> player.playUntilRematch()));
+            }
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> server.getActiveMatches() == games);
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS), "Every game should reach the rematch offer.");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Player connect() throws IOException {
+        Player player = new Player(new Socket("localhost", server.getPort()));
+        players.add(player);
+        return player;
+    }
+
+    private static void startGame(Player x, Player o) throws IOException {
+        x.readLine();
+        o.readLine();
+        x.send("Acknowledged");
+        o.send("Acknowledged");
+        x.expectState();
+        o.expectState();
+    }
+
+    private static final class Player {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Player(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setSoTimeout(5000);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            this.out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        String readLine() throws IOException {
+            return in.readLine();
+        }
+
+        void send(String line) {
+            out.println(line);
+        }
+
+        GameState expectState() throws IOException {
+            String line = in.readLine();
+            assertTrue(line != null && line.startsWith("STATE:"), "Expected a state update but got " + line);
+            return GameState.expand(line.substring(6));
+        }
+
+        // Plays the first empty cell whenever it is this player's turn
+        boolean playUntilRematch() throws IOException {
+            char mark = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("You are player:")) {
+                    mark = line.charAt(line.length() - 1);
+                    send("Acknowledged");
+                } else if (line.equals("Rematch?")) {
+                    return true;
+                } else if (line.startsWith("STATE:")) {
+                    GameState state = GameState.expand(line.substring(6));
+                    if (state.getState() == GameState.State.ONGOING && state.getCurrentPlayer() == mark) {
+                        send(firstEmptyCell(state));
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static String firstEmptyCell(GameState state) {
+            for (int row = 0; row < state.getRows(); row++) {
+                for (int col = 0; col < state.getCols(); col++) {
+                    if (state.getMark(row, col) == '-') {
+                        return row + "," + col;
+                    }
+                }
+            }
+            throw new IllegalStateException("No empty cell in an ongoing game");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tictactoe.net;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // 5 ms ticks and 8 buckets, so a rotation takes 40 ms and longer delays span several rounds
+    private final TimingWheel wheel = new TimingWheel(5, 8);
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testTimeoutsFireInOrderAndNeverEarly() {
+        ConcurrentLinkedQueue<Long> lateness = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Integer> order = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        int[] delays = {130, 0, 45, 10, 90};  // several beyond one rotation
+        for (int delay : delays) {
+            wheel.schedule(delay, () -> {
+                lateness.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) - delay);
+                order.add(delay);
+            });
+        }
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> order.size() == delays.length);
+        assertEquals(List.of(0, 10, 45, 90, 130), new ArrayList<>(order), "Timeouts should fire by deadline.");
+        for (long late : lateness) {
+            assertTrue(late >= 0, "A timeout fired " + -late + " ms early.");
+        }
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    void testCancelledTimeoutNeverFires() {
+        AtomicInteger fired = new AtomicInteger();
+        TimingWheel.Timeout cancelled = wheel.schedule(20, fired::incrementAndGet);
+        TimingWheel.Timeout kept = wheel.schedule(40, fired::incrementAndGet);
+        assertTrue(cancelled.cancel(), "A waiting timeout should be cancellable.");
+        assertFalse(cancelled.cancel(), "A timeout should be cancelled only once.");
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(kept::isExpired);
+        assertEquals(1, fired.get(), "Only the timeout left alone should fire.");
+        assertFalse(kept.cancel(), "A timeout that fired cannot be cancelled.");
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> wheel.getPendingCount() == 0);
+    }
+
+    @Test
+    void testManyOutstandingTimeoutsAreCountedAndCancelled() {
+        AtomicInteger fired = new AtomicInteger();
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            timeouts.add(wheel.schedule(60_000 + i, fired::incrementAndGet));
+        }
+        assertEquals(10_000, wheel.getPendingCount());
+        for (TimingWheel.Timeout timeout : timeouts) {
+            timeout.cancel();
+        }
+        wheel.schedule(10, fired::incrementAndGet);
+
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> fired.get() == 1);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> wheel.getPendingCount() == 0);
+    }
+}
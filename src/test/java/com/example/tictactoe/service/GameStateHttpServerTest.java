@@ -0,0 +1,104 @@
+package com.example.tictactoe.service;
+
+import com.example.tictactoe.model.Game;
+import com.example.tictactoe.model.GameState;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameStateHttpServerTest {
+
+    private GameStateHttpServer server;
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new GameStateHttpServer(0, new TicTacToeHTMLTranslator());
+        server.start();
+        game = new Game();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    void testPageShowsTheCurrentBoard() throws IOException {
+        GameStateHttpServer.Feed feed = server.feed(7);
+        game.placeMark(1, 1);
+        game.changePlayer();
+        feed.publish(GameState.of(game, false));
+
+        HttpURLConnection page = open("/games/7");
+        assertEquals(200, page.getResponseCode());
+        String html = new String(page.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(html.contains(">X</td>"), "The page should show the board.");
+        assertTrue(html.contains("Player O's Turn"), "The page should show whose turn it is.");
+        assertTrue(html.contains("EventSource('/games/7/events')"), "The page should follow the game's events.");
+
+        HttpURLConnection fragment = open("/games/7/state");
+        assertEquals(new TicTacToeHTMLTranslator().renderFragment(GameState.of(game, false)),
+                new String(fragment.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEventsFollowTheGameUntilItEnds() throws IOException {
+        GameStateHttpServer.Feed feed = server.feed(1);
+        feed.publish(GameState.of(game, false));
+
+        HttpURLConnection events = open("/games/1/events");
+        assertEquals("text/event-stream", events.getContentType());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(events.getInputStream(), StandardCharsets.UTF_8));
+        assertTrue(nextEvent(reader).contains("Player X's Turn"), "A new watcher should get the current board.");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> server.getWatcherCount() == 1);
+
+        game.placeMark(0, 0);
+        game.changePlayer();
+        feed.publish(GameState.of(game, false));
+        String event = nextEvent(reader);
+        assertTrue(event.contains(">X</td>") && event.contains("Player O's Turn"), "Every move should be pushed.");
+
+        feed.close();
+        assertNull(reader.readLine(), "The stream should end with the game.");
+        assertEquals(404, open("/games/1").getResponseCode(), "A finished game should have no page.");
+    }
+
+    @Test
+    void testUnknownGameIsNotFound() throws IOException {
+        assertEquals(404, open("/games/3").getResponseCode());
+        assertEquals(404, open("/games/abc/events").getResponseCode());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + server.getPort() + path)
+                .toURL().openConnection();
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    // The data of the next event, skipping keep-alive comments
+    private static String nextEvent(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("data: ")) {
+                reader.readLine();  // the blank line that ends the event
+                return line.substring(6);
+            }
+        }
+        throw new IOException("Stream ended before an event");
+    }
+}
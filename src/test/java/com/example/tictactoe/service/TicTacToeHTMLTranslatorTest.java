@@ -2,11 +2,13 @@ package com.example.tictactoe.service;
 
 import com.example.tictactoe.model.Game;
 import com.example.tictactoe.model.GameState;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class TicTacToeHTMLTranslatorTest {
@@ -119,5 +121,26 @@ class TicTacToeHTMLTranslatorTest {
         String content = new String(Files.readAllBytes(Paths.get("game_state.html")));
         assertTrue(content.contains("It's a Draw!"), "HTML content should display the draw message");
     }
-}
 
+    @Test
+    void testFragmentIsRenderedOncePerInternedState() {
+        GameState interned = GameState.of(game, false);
+        String fragment = translator.renderFragment(interned);
+        assertSame(fragment, translator.renderFragment(GameState.of(game, false)), "The fragment should be cached.");
+        assertFalse(fragment.contains("\n"), "A fragment should fit on one event line.");
+        assertTrue(translator.renderHTML(interned).contains(fragment), "The page should be built around the fragment.");
+    }
+
+    @Test
+    void testSaveGameStateWritesTheNewestStateInTheBackground() {
+        game.placeMark(0, 0);
+        translator.saveGameState(new GameState(game, false));
+        game.placeMark(2, 2);
+        translator.saveGameState(new GameState(game, false));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            GameState saved = translator.parseGameStateFromHTML(Files.readString(Paths.get("game_state.html")));
+            assertEquals('X', saved.getMark(2, 2), "The file should end up holding the last state saved.");
+        });
+    }
+}